@@ -0,0 +1,42 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+    
+    static final String[] GATEWAY_NAMES = {"razorpay", "payu", "cashfree"};
+    static final int[] GATEWAY_WEIGHTS = {40, 35, 25};
+    
+    private BenchmarkFixtures() {
+    }
+    
+    static PaymentProperties paymentProperties() {
+        List<GatewayConfig> gateways = new ArrayList<>();
+        for (int i = 0; i < GATEWAY_NAMES.length; i++) {
+            gateways.add(new GatewayConfig(GATEWAY_NAMES[i], GATEWAY_WEIGHTS[i], true));
+        }
+        
+        PaymentProperties.HealthConfig health = new PaymentProperties.HealthConfig();
+        health.setSuccessRateThreshold(90.0);
+        health.setMonitoringWindowMinutes(15);
+        
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(gateways);
+        paymentProperties.setHealth(health);
+        return paymentProperties;
+    }
+    
+    // Mirrors the Spring Boot defaults the controllers serialize with
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.service.GatewayHealthStateEngine;
+import com.fairoz.service.MinuteRollupSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayHealthBenchmark {
+    
+    private GatewayHealthStateEngine healthStateEngine;
+    private MinuteRollupSeries rollupSeries;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        PaymentProperties paymentProperties = BenchmarkFixtures.paymentProperties();
+        // Keep every gateway healthy so the benchmark measures evaluation rather than the disabled fast path
+        paymentProperties.getHealth().setSuccessRateThreshold(0.0);
+        healthStateEngine = new GatewayHealthStateEngine(paymentProperties, event -> { });
+        rollupSeries = new MinuteRollupSeries(paymentProperties.getRollup().getWindowMinutes());
+        long now = System.currentTimeMillis();
+        for (int minute = 0; minute < rollupSeries.getBucketCount(); minute++) {
+            rollupSeries.recordOutcomes(now - minute * MinuteRollupSeries.MINUTE_MILLIS, 95, 5);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class MetricsRow {
+        GatewayHealthMetrics metrics;
+        
+        @Setup(Level.Iteration)
+        public void setUp() {
+            metrics = new GatewayHealthMetrics("razorpay");
+        }
+    }
+    
+    @Benchmark
+    public GatewayHealthMetrics recordTransaction(MetricsRow row) {
+        row.metrics.recordTransaction(ThreadLocalRandom.current().nextInt(10) != 0);
+        return row.metrics;
+    }
+    
+    @Benchmark
+    public boolean isGatewayHealthy() {
+        return healthStateEngine.isHealthy("razorpay");
+    }
+    
+    @Benchmark
+    public void recordResult() {
+        healthStateEngine.recordResult("razorpay", ThreadLocalRandom.current().nextInt(10) != 0);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public void recordResultContended() {
+        healthStateEngine.recordResult("razorpay", ThreadLocalRandom.current().nextInt(10) != 0);
+    }
+    
+    @Benchmark
+    public void recordRollupOutcome() {
+        boolean success = ThreadLocalRandom.current().nextInt(10) != 0;
+        rollupSeries.recordOutcomes(System.currentTimeMillis(), success ? 1 : 0, success ? 0 : 1);
+    }
+    
+    // What one dashboard poll of /monitoring/gateways/{name}/timeseries costs for the full window
+    @Benchmark
+    public List<MinuteRollupSeries.Bucket> readRollupTimeseries() {
+        return rollupSeries.buckets(System.currentTimeMillis(), rollupSeries.getBucketCount());
+    }
+}
\ No newline at end of file
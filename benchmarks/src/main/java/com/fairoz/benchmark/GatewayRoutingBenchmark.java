@@ -0,0 +1,82 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.service.AliasTableGatewaySelector;
+import com.fairoz.service.GatewayConcurrencyLimiter;
+import com.fairoz.service.GatewayLatencyTracker;
+import com.fairoz.service.GatewayRoutingService;
+import com.fairoz.service.GatewaySelector;
+import com.fairoz.service.LatencyAwareGatewaySelector;
+import com.fairoz.service.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayRoutingBenchmark {
+    
+    @Param({"weighted", "latency-aware"})
+    private String strategy;
+    
+    private GatewayRoutingService routingService;
+    private StubGatewayHealthService healthService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        PaymentProperties paymentProperties = BenchmarkFixtures.paymentProperties();
+        healthService = new StubGatewayHealthService(paymentProperties);
+        routingService = new GatewayRoutingService(paymentProperties, healthService, selector(paymentProperties),
+            new GatewayConcurrencyLimiter(paymentProperties, new SimpleMeterRegistry()),
+            new PaymentMetrics(new SimpleMeterRegistry(), paymentProperties));
+        routingService.refreshRoutingSnapshot();
+    }
+    
+    @Benchmark
+    public String selectGateway() {
+        return routingService.selectGateway();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public String selectGatewayContended() {
+        return routingService.selectGateway();
+    }
+    
+    // Health flips republish the snapshot; measures the rebuild cost the event path pays
+    @Benchmark
+    public Object refreshAfterHealthChange() {
+        healthService.setHealthy("cashfree", false);
+        routingService.refreshRoutingSnapshot();
+        healthService.setHealthy("cashfree", true);
+        return routingService.refreshRoutingSnapshot();
+    }
+    
+    private GatewaySelector selector(PaymentProperties paymentProperties) {
+        if (!"latency-aware".equals(strategy)) {
+            return new AliasTableGatewaySelector();
+        }
+        GatewayLatencyTracker latencyTracker = new GatewayLatencyTracker(paymentProperties);
+        latencyTracker.record("razorpay", TimeUnit.MILLISECONDS.toNanos(2000), true);
+        latencyTracker.record("payu", TimeUnit.MILLISECONDS.toNanos(120), true);
+        latencyTracker.record("cashfree", TimeUnit.MILLISECONDS.toNanos(150), false);
+        return new LatencyAwareGatewaySelector(latencyTracker);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.service.GatewayHealthService;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Answers health checks from memory so routing is measured without a database or write-behind thread
+class StubGatewayHealthService extends GatewayHealthService {
+    
+    private final Set<String> unhealthyGateways = ConcurrentHashMap.newKeySet();
+    
+    StubGatewayHealthService(PaymentProperties paymentProperties) {
+        super(null, paymentProperties, null, null, null, null, null);
+    }
+    
+    void setHealthy(String gatewayName, boolean healthy) {
+        if (healthy) {
+            unhealthyGateways.remove(gatewayName);
+        } else {
+            unhealthyGateways.add(gatewayName);
+        }
+    }
+    
+    @Override
+    public void recordTransactionResult(String gatewayName, boolean isSuccess) {
+    }
+    
+    @Override
+    public boolean isGatewayHealthy(String gatewayName) {
+        return !unhealthyGateways.contains(gatewayName);
+    }
+    
+    @Override
+    public boolean isGatewayProbing(String gatewayName) {
+        return false;
+    }
+    
+    @Override
+    public boolean tryAcquireProbe(String gatewayName) {
+        return true;
+    }
+    
+    @Override
+    public Map<String, Double> getGatewaySuccessRates() {
+        return Map.of();
+    }
+    
+    @Override
+    public void restoreHealthState() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.dto.InitiateTransactionResponse;
+import com.fairoz.model.TransactionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionDtoBenchmark {
+    
+    private static final String REQUEST_JSON = """
+        {
+          "order_id": "ORD123",
+          "amount": 499.0,
+          "payment_instrument": {
+            "type": "card",
+            "card_number": "****1234",
+            "expiry": "12/25",
+            "cvv": "123",
+            "holder_name": "John Doe"
+          }
+        }
+        """;
+    
+    private byte[] requestBytes;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private InitiateTransactionResponse response;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        requestBytes = REQUEST_JSON.getBytes(StandardCharsets.UTF_8);
+        requestReader = objectMapper.readerFor(InitiateTransactionRequest.class);
+        responseWriter = objectMapper.writerFor(InitiateTransactionResponse.class);
+        response = new InitiateTransactionResponse(1L, "ORD123", new BigDecimal("499.0"), "razorpay",
+            TransactionStatus.PENDING, "razorpay_1700000000000", LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+    
+    @Benchmark
+    public InitiateTransactionRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestBytes);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.fairoz.benchmark;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.controller.TransactionRequestConverter;
+import com.fairoz.controller.TransactionRequestValidator;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Binding a request body as the controller does: read the bytes, then validate into a binding result.
+// The default path is Jackson databind plus bean validation, the fast path the streaming converter plus
+// the hand-written validator.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionRequestCodecBenchmark {
+    
+    private static final String INITIATE_JSON = """
+        {
+          "order_id": "ORD123",
+          "amount": 499.0,
+          "payment_instrument": {
+            "type": "card",
+            "card_number": "****1234",
+            "expiry": "12/25",
+            "cvv": "123",
+            "holder_name": "John Doe"
+          }
+        }
+        """;
+    
+    private static final String CALLBACK_JSON = """
+        {
+          "order_id": "ORD123",
+          "status": "success",
+          "gateway": "razorpay"
+        }
+        """;
+    
+    private byte[] initiateBytes;
+    private byte[] callbackBytes;
+    private ObjectReader initiateReader;
+    private ObjectReader callbackReader;
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private JsonFactory jsonFactory;
+    private TransactionRequestConverter converter;
+    private TransactionRequestValidator requestValidator;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        PaymentProperties paymentProperties = BenchmarkFixtures.paymentProperties();
+        initiateBytes = INITIATE_JSON.getBytes(StandardCharsets.UTF_8);
+        callbackBytes = CALLBACK_JSON.getBytes(StandardCharsets.UTF_8);
+        initiateReader = objectMapper.readerFor(InitiateTransactionRequest.class);
+        callbackReader = objectMapper.readerFor(CallbackRequest.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = new SpringValidatorAdapter(validatorFactory.getValidator());
+        jsonFactory = objectMapper.getFactory();
+        converter = new TransactionRequestConverter(objectMapper, paymentProperties);
+        requestValidator = new TransactionRequestValidator(paymentProperties);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+    
+    @Benchmark
+    public Errors initiateDefault() throws IOException {
+        InitiateTransactionRequest request = initiateReader.readValue(initiateBytes);
+        return validate(beanValidator, request);
+    }
+    
+    @Benchmark
+    public Errors initiateFastPath() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(initiateBytes)) {
+            parser.nextToken();
+            return validate(requestValidator, converter.readInitiateTransactionRequest(parser));
+        }
+    }
+    
+    @Benchmark
+    public Errors callbackDefault() throws IOException {
+        CallbackRequest request = callbackReader.readValue(callbackBytes);
+        return validate(beanValidator, request);
+    }
+    
+    @Benchmark
+    public Errors callbackFastPath() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(callbackBytes)) {
+            parser.nextToken();
+            return validate(requestValidator, converter.readCallbackRequest(parser));
+        }
+    }
+    
+    private static Errors validate(Validator validator, Object request) {
+        Errors errors = new BeanPropertyBindingResult(request, "request");
+        validator.validate(request, errors);
+        return errors;
+    }
+}
\ No newline at end of file
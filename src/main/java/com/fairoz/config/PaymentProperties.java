@@ -4,6 +4,7 @@ import com.fairoz.model.GatewayConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
@@ -12,6 +13,16 @@ public class PaymentProperties {
     
     private List<GatewayConfig> gateways;
     private HealthConfig health;
+    private RoutingConfig routing = new RoutingConfig();
+    private BatchConfig batch = new BatchConfig();
+    private CallbackConfig callback = new CallbackConfig();
+    private CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+    private FailoverConfig failover = new FailoverConfig();
+    private ConcurrencyLimitConfig concurrencyLimit = new ConcurrencyLimitConfig();
+    private ClusterConfig cluster = new ClusterConfig();
+    private JournalConfig journal = new JournalConfig();
+    private CodecConfig codec = new CodecConfig();
+    private RollupConfig rollup = new RollupConfig();
     
     public List<GatewayConfig> getGateways() {
         return gateways;
@@ -29,10 +40,95 @@ public class PaymentProperties {
         this.health = health;
     }
     
+    public RoutingConfig getRouting() {
+        return routing;
+    }
+    
+    public void setRouting(RoutingConfig routing) {
+        this.routing = routing;
+    }
+    
+    public BatchConfig getBatch() {
+        return batch;
+    }
+    
+    public void setBatch(BatchConfig batch) {
+        this.batch = batch;
+    }
+    
+    public CallbackConfig getCallback() {
+        return callback;
+    }
+    
+    public void setCallback(CallbackConfig callback) {
+        this.callback = callback;
+    }
+    
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    public FailoverConfig getFailover() {
+        return failover;
+    }
+    
+    public void setFailover(FailoverConfig failover) {
+        this.failover = failover;
+    }
+    
+    public ConcurrencyLimitConfig getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+    
+    public void setConcurrencyLimit(ConcurrencyLimitConfig concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+    
+    public ClusterConfig getCluster() {
+        return cluster;
+    }
+    
+    public void setCluster(ClusterConfig cluster) {
+        this.cluster = cluster;
+    }
+    
+    public JournalConfig getJournal() {
+        return journal;
+    }
+    
+    public void setJournal(JournalConfig journal) {
+        this.journal = journal;
+    }
+    
+    public CodecConfig getCodec() {
+        return codec;
+    }
+    
+    public void setCodec(CodecConfig codec) {
+        this.codec = codec;
+    }
+    
+    public RollupConfig getRollup() {
+        return rollup;
+    }
+    
+    public void setRollup(RollupConfig rollup) {
+        this.rollup = rollup;
+    }
+    
     public static class HealthConfig {
         private Double successRateThreshold;
         private Integer monitoringWindowMinutes;
-        private Integer disableDurationMinutes;
+        private Integer bucketSeconds = 10;
+        private Long flushIntervalMs = 5000L;
+        private Integer flushSize = 500;
+        private Integer queueCapacity = 10000;
+        private Long cleanupIntervalMs = 300000L;
+        private Integer cleanupChunkSize = 1000;
         
         public Double getSuccessRateThreshold() {
             return successRateThreshold;
@@ -50,12 +146,553 @@ public class PaymentProperties {
             this.monitoringWindowMinutes = monitoringWindowMinutes;
         }
         
-        public Integer getDisableDurationMinutes() {
-            return disableDurationMinutes;
+        public Integer getBucketSeconds() {
+            return bucketSeconds;
+        }
+        
+        public void setBucketSeconds(Integer bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+        
+        public Long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+        
+        public void setFlushIntervalMs(Long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+        
+        public Integer getFlushSize() {
+            return flushSize;
+        }
+        
+        public void setFlushSize(Integer flushSize) {
+            this.flushSize = flushSize;
+        }
+        
+        public Integer getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public Long getCleanupIntervalMs() {
+            return cleanupIntervalMs;
+        }
+        
+        public void setCleanupIntervalMs(Long cleanupIntervalMs) {
+            this.cleanupIntervalMs = cleanupIntervalMs;
+        }
+        
+        public Integer getCleanupChunkSize() {
+            return cleanupChunkSize;
+        }
+        
+        public void setCleanupChunkSize(Integer cleanupChunkSize) {
+            this.cleanupChunkSize = cleanupChunkSize;
+        }
+    }
+    
+    public static class RoutingConfig {
+        private Long refreshIntervalMs = 1000L;
+        private String strategy = "weighted";
+        private Double latencyEwmaAlpha = 0.2;
+        
+        public Long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+        
+        public void setRefreshIntervalMs(Long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+        
+        public String getStrategy() {
+            return strategy;
+        }
+        
+        public void setStrategy(String strategy) {
+            this.strategy = strategy;
+        }
+        
+        public Double getLatencyEwmaAlpha() {
+            return latencyEwmaAlpha;
+        }
+        
+        public void setLatencyEwmaAlpha(Double latencyEwmaAlpha) {
+            this.latencyEwmaAlpha = latencyEwmaAlpha;
+        }
+    }
+    
+    public static class BatchConfig {
+        private Integer maxSize = 10000;
+        private Integer chunkSize = 500;
+        private Integer maxInFlightCalls = 64;
+        private Integer concurrency = 2;
+        private Long timeoutMs = 300000L;
+        
+        public Integer getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+        }
+        
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+        
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+        
+        public Integer getMaxInFlightCalls() {
+            return maxInFlightCalls;
+        }
+        
+        public void setMaxInFlightCalls(Integer maxInFlightCalls) {
+            this.maxInFlightCalls = maxInFlightCalls;
+        }
+        
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+        
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+        
+        public Long getTimeoutMs() {
+            return timeoutMs;
+        }
+        
+        public void setTimeoutMs(Long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+    
+    public static class CallbackConfig {
+        private Integer chunkSize = 500;
+        private Integer cacheMaxSize = 10000;
+        private Integer cacheTtlSeconds = 300;
+        private Integer lockStripes = 1024;
+        private Integer maxAttempts = 3;
+        
+        public Integer getChunkSize() {
+            return chunkSize;
+        }
+        
+        public void setChunkSize(Integer chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+        
+        public Integer getCacheMaxSize() {
+            return cacheMaxSize;
+        }
+        
+        public void setCacheMaxSize(Integer cacheMaxSize) {
+            this.cacheMaxSize = cacheMaxSize;
+        }
+        
+        public Integer getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+        
+        public void setCacheTtlSeconds(Integer cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+        
+        public Integer getLockStripes() {
+            return lockStripes;
+        }
+        
+        public void setLockStripes(Integer lockStripes) {
+            this.lockStripes = lockStripes;
+        }
+        
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+    
+    public static class CircuitBreakerConfig {
+        private Integer consecutiveFailures = 5;
+        private Long slowCallDurationMs = 2000L;
+        private Integer consecutiveSlowCalls = 5;
+        private Long openDurationMs = 10000L;
+        private Integer halfOpenProbes = 3;
+        
+        public Integer getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+        
+        public void setConsecutiveFailures(Integer consecutiveFailures) {
+            this.consecutiveFailures = consecutiveFailures;
+        }
+        
+        public Long getSlowCallDurationMs() {
+            return slowCallDurationMs;
+        }
+        
+        public void setSlowCallDurationMs(Long slowCallDurationMs) {
+            this.slowCallDurationMs = slowCallDurationMs;
+        }
+        
+        public Integer getConsecutiveSlowCalls() {
+            return consecutiveSlowCalls;
+        }
+        
+        public void setConsecutiveSlowCalls(Integer consecutiveSlowCalls) {
+            this.consecutiveSlowCalls = consecutiveSlowCalls;
+        }
+        
+        public Long getOpenDurationMs() {
+            return openDurationMs;
+        }
+        
+        public void setOpenDurationMs(Long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+        
+        public Integer getHalfOpenProbes() {
+            return halfOpenProbes;
+        }
+        
+        public void setHalfOpenProbes(Integer halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+        }
+    }
+    
+    public static class FailoverConfig {
+        private Boolean enabled = true;
+        private Integer maxAttempts = 2;
+        private Long fastFailureMs = 1000L;
+        private Boolean hedgingEnabled = false;
+        private Long hedgeMinDelayMs = 100L;
+        private RetryBudgetConfig retryBudget = new RetryBudgetConfig();
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        public Long getFastFailureMs() {
+            return fastFailureMs;
+        }
+        
+        public void setFastFailureMs(Long fastFailureMs) {
+            this.fastFailureMs = fastFailureMs;
+        }
+        
+        public Boolean getHedgingEnabled() {
+            return hedgingEnabled;
+        }
+        
+        public void setHedgingEnabled(Boolean hedgingEnabled) {
+            this.hedgingEnabled = hedgingEnabled;
+        }
+        
+        public Long getHedgeMinDelayMs() {
+            return hedgeMinDelayMs;
+        }
+        
+        public void setHedgeMinDelayMs(Long hedgeMinDelayMs) {
+            this.hedgeMinDelayMs = hedgeMinDelayMs;
+        }
+        
+        public RetryBudgetConfig getRetryBudget() {
+            return retryBudget;
+        }
+        
+        public void setRetryBudget(RetryBudgetConfig retryBudget) {
+            this.retryBudget = retryBudget;
+        }
+    }
+    
+    public static class RetryBudgetConfig {
+        private Double ratio = 0.1;
+        private Integer minRetriesPerSecond = 5;
+        private Integer maxBalance = 100;
+        
+        public Double getRatio() {
+            return ratio;
+        }
+        
+        public void setRatio(Double ratio) {
+            this.ratio = ratio;
+        }
+        
+        public Integer getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+        
+        public void setMinRetriesPerSecond(Integer minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+        
+        public Integer getMaxBalance() {
+            return maxBalance;
+        }
+        
+        public void setMaxBalance(Integer maxBalance) {
+            this.maxBalance = maxBalance;
+        }
+    }
+    
+    public static class ConcurrencyLimitConfig {
+        private Boolean enabled = true;
+        private Integer initialLimit = 20;
+        private Integer minLimit = 1;
+        private Double backoffRatio = 0.9;
+        private Integer alpha = 3;
+        private Integer beta = 6;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public Integer getInitialLimit() {
+            return initialLimit;
+        }
+        
+        public void setInitialLimit(Integer initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+        
+        public Integer getMinLimit() {
+            return minLimit;
+        }
+        
+        public void setMinLimit(Integer minLimit) {
+            this.minLimit = minLimit;
+        }
+        
+        public Double getBackoffRatio() {
+            return backoffRatio;
+        }
+        
+        public void setBackoffRatio(Double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+        
+        public Integer getAlpha() {
+            return alpha;
+        }
+        
+        public void setAlpha(Integer alpha) {
+            this.alpha = alpha;
+        }
+        
+        public Integer getBeta() {
+            return beta;
+        }
+        
+        public void setBeta(Integer beta) {
+            this.beta = beta;
+        }
+    }
+    
+    public static class ClusterConfig {
+        private Boolean enabled = false;
+        private String nodeId;
+        private String bindAddress = "0.0.0.0";
+        private Integer port = 7946;
+        private List<String> peers = new ArrayList<>();
+        private Long gossipIntervalMs = 200L;
+        private Integer nodeExpiryIntervals = 50;
+        private String sharedSecret;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getNodeId() {
+            return nodeId;
+        }
+        
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+        
+        public String getBindAddress() {
+            return bindAddress;
+        }
+        
+        public void setBindAddress(String bindAddress) {
+            this.bindAddress = bindAddress;
+        }
+        
+        public Integer getPort() {
+            return port;
+        }
+        
+        public void setPort(Integer port) {
+            this.port = port;
+        }
+        
+        public List<String> getPeers() {
+            return peers;
+        }
+        
+        public void setPeers(List<String> peers) {
+            this.peers = peers;
+        }
+        
+        public Long getGossipIntervalMs() {
+            return gossipIntervalMs;
+        }
+        
+        public void setGossipIntervalMs(Long gossipIntervalMs) {
+            this.gossipIntervalMs = gossipIntervalMs;
+        }
+        
+        public Integer getNodeExpiryIntervals() {
+            return nodeExpiryIntervals;
+        }
+        
+        public void setNodeExpiryIntervals(Integer nodeExpiryIntervals) {
+            this.nodeExpiryIntervals = nodeExpiryIntervals;
+        }
+        
+        public String getSharedSecret() {
+            return sharedSecret;
+        }
+        
+        public void setSharedSecret(String sharedSecret) {
+            this.sharedSecret = sharedSecret;
+        }
+    }
+    
+    public static class JournalConfig {
+        private Boolean enabled = false;
+        private String directory = "data/journal";
+        private Integer segmentSizeBytes = 64 * 1024 * 1024;
+        private Integer groupCommitMaxBatch = 256;
+        private Integer projectorBatchSize = 500;
+        private Integer orderIdFilterCapacity = 1_000_000;
+        
+        public Boolean getEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public String getDirectory() {
+            return directory;
+        }
+        
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+        
+        public Integer getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+        
+        public void setSegmentSizeBytes(Integer segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+        
+        public Integer getGroupCommitMaxBatch() {
+            return groupCommitMaxBatch;
+        }
+        
+        public void setGroupCommitMaxBatch(Integer groupCommitMaxBatch) {
+            this.groupCommitMaxBatch = groupCommitMaxBatch;
+        }
+        
+        public Integer getProjectorBatchSize() {
+            return projectorBatchSize;
+        }
+        
+        public void setProjectorBatchSize(Integer projectorBatchSize) {
+            this.projectorBatchSize = projectorBatchSize;
+        }
+        
+        public Integer getOrderIdFilterCapacity() {
+            return orderIdFilterCapacity;
+        }
+        
+        public void setOrderIdFilterCapacity(Integer orderIdFilterCapacity) {
+            this.orderIdFilterCapacity = orderIdFilterCapacity;
+        }
+    }
+    
+    public static class CodecConfig {
+        private Boolean fastPathEnabled = true;
+        
+        public Boolean getFastPathEnabled() {
+            return fastPathEnabled;
+        }
+        
+        public void setFastPathEnabled(Boolean fastPathEnabled) {
+            this.fastPathEnabled = fastPathEnabled;
+        }
+    }
+    
+    public static class RollupConfig {
+        private Integer windowMinutes = 60;
+        private Long flushIntervalMs = 5000L;
+        private Integer retentionHours = 24;
+        private Long cleanupIntervalMs = 300000L;
+        
+        public Integer getWindowMinutes() {
+            return windowMinutes;
+        }
+        
+        public void setWindowMinutes(Integer windowMinutes) {
+            this.windowMinutes = windowMinutes;
+        }
+        
+        public Long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+        
+        public void setFlushIntervalMs(Long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+        
+        public Integer getRetentionHours() {
+            return retentionHours;
+        }
+        
+        public void setRetentionHours(Integer retentionHours) {
+            this.retentionHours = retentionHours;
+        }
+        
+        public Long getCleanupIntervalMs() {
+            return cleanupIntervalMs;
         }
         
-        public void setDisableDurationMinutes(Integer disableDurationMinutes) {
-            this.disableDurationMinutes = disableDurationMinutes;
+        public void setCleanupIntervalMs(Long cleanupIntervalMs) {
+            this.cleanupIntervalMs = cleanupIntervalMs;
         }
     }
 }
\ No newline at end of file
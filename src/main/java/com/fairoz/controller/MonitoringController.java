@@ -1,14 +1,26 @@
 package com.fairoz.controller;
 
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.service.GatewayConcurrencyLimiter;
 import com.fairoz.service.GatewayHealthService;
+import com.fairoz.service.GatewayMetricsRollupService;
 import com.fairoz.service.GatewayRoutingService;
+import com.fairoz.service.MinuteRollupSeries.Bucket;
+import com.fairoz.service.RoutingSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,25 +30,89 @@ public class MonitoringController {
     
     private final GatewayHealthService gatewayHealthService;
     private final GatewayRoutingService gatewayRoutingService;
+    private final GatewayConcurrencyLimiter concurrencyLimiter;
+    private final GatewayMetricsRollupService rollupService;
+    private final int monitoringWindowMinutes;
     
     @Autowired
     public MonitoringController(GatewayHealthService gatewayHealthService, 
-                               GatewayRoutingService gatewayRoutingService) {
+                               GatewayRoutingService gatewayRoutingService,
+                               GatewayConcurrencyLimiter concurrencyLimiter,
+                               GatewayMetricsRollupService rollupService,
+                               PaymentProperties paymentProperties) {
         this.gatewayHealthService = gatewayHealthService;
         this.gatewayRoutingService = gatewayRoutingService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rollupService = rollupService;
+        this.monitoringWindowMinutes = paymentProperties.getHealth().getMonitoringWindowMinutes();
     }
     
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> getGatewayHealth() {
         Map<String, Object> healthStatus = new HashMap<>();
         
-        List<String> healthyGateways = gatewayRoutingService.getHealthyGateways();
+        RoutingSnapshot routingSnapshot = gatewayRoutingService.getRoutingSnapshot();
+        List<String> healthyGateways = routingSnapshot.getGatewayNames();
         Map<String, Double> successRates = gatewayHealthService.getGatewaySuccessRates();
         
         healthStatus.put("healthy_gateways", healthyGateways);
         healthStatus.put("success_rates", successRates);
+        healthStatus.put("circuit_states", gatewayHealthService.getCircuitStates());
+        healthStatus.put("concurrency_limits", concurrencyLimiter.getLimits());
+        healthStatus.put("in_flight_calls", concurrencyLimiter.getInFlightCalls());
+        healthStatus.put("cluster_peers", gatewayHealthService.getClusterPeers());
         healthStatus.put("total_healthy_gateways", healthyGateways.size());
+        healthStatus.put("routing_snapshot_version", routingSnapshot.getVersion());
+        healthStatus.put("routing_snapshot_age_ms", routingSnapshot.getAgeMillis());
+        
+        // Volume and latency over the monitoring window, summed from the per-minute rollups
+        Map<String, Long> transactionVolumes = new HashMap<>();
+        Map<String, Double> averageLatencies = new HashMap<>();
+        rollupService.getTotals(monitoringWindowMinutes).forEach((gateway, total) -> {
+            transactionVolumes.put(gateway, total.getTotal());
+            if (total.getAverageLatencyMillis() != null) {
+                averageLatencies.put(gateway, total.getAverageLatencyMillis());
+            }
+        });
+        healthStatus.put("transaction_volumes", transactionVolumes);
+        healthStatus.put("average_latency_ms", averageLatencies);
         
         return ResponseEntity.ok(healthStatus);
     }
+    
+    @GetMapping("/gateways/{name}/timeseries")
+    public ResponseEntity<Map<String, Object>> getGatewayTimeseries(
+            @PathVariable("name") String name,
+            @RequestParam(name = "minutes", defaultValue = "15") int minutes) {
+        List<Bucket> buckets = rollupService.getTimeseries(name, minutes);
+        if (buckets == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<Map<String, Object>> points = new ArrayList<>(buckets.size());
+        long successes = 0;
+        long failures = 0;
+        for (Bucket bucket : buckets) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("minute_start", LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(bucket.getMinuteStartMillis()), ZoneId.systemDefault()));
+            point.put("total_transactions", bucket.getTotal());
+            point.put("successful_transactions", bucket.getSuccesses());
+            point.put("failed_transactions", bucket.getFailures());
+            point.put("success_rate", bucket.getSuccessRate());
+            point.put("gateway_calls", bucket.getCalls());
+            point.put("average_latency_ms", bucket.getAverageLatencyMillis());
+            points.add(point);
+            successes += bucket.getSuccesses();
+            failures += bucket.getFailures();
+        }
+        
+        Map<String, Object> timeseries = new LinkedHashMap<>();
+        timeseries.put("gateway", name);
+        timeseries.put("minutes", minutes);
+        timeseries.put("total_transactions", successes + failures);
+        timeseries.put("success_rate", successes + failures > 0 ? successes * 100.0 / (successes + failures) : null);
+        timeseries.put("points", points);
+        return ResponseEntity.ok(timeseries);
+    }
 }
\ No newline at end of file
@@ -1,16 +1,28 @@
 package com.fairoz.controller;
 
+import com.fairoz.dto.BatchInitiateTransactionRequest;
+import com.fairoz.dto.BatchTransactionResult;
+import com.fairoz.dto.BulkCallbackResponse;
 import com.fairoz.dto.CallbackRequest;
 import com.fairoz.dto.InitiateTransactionRequest;
 import com.fairoz.dto.InitiateTransactionResponse;
+import com.fairoz.service.BatchTransactionService;
+import com.fairoz.service.BulkCallbackService;
 import com.fairoz.service.TransactionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/transactions")
@@ -19,33 +31,80 @@ public class TransactionController {
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
     
     private final TransactionService transactionService;
+    private final BatchTransactionService batchTransactionService;
+    private final BulkCallbackService bulkCallbackService;
+    private final TransactionRequestValidator requestValidator;
     
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 BatchTransactionService batchTransactionService,
+                                 BulkCallbackService bulkCallbackService,
+                                 TransactionRequestValidator requestValidator) {
         this.transactionService = transactionService;
+        this.batchTransactionService = batchTransactionService;
+        this.bulkCallbackService = bulkCallbackService;
+        this.requestValidator = requestValidator;
+    }
+    
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        // Single-request DTOs are checked by precompiled rules instead of reflective bean validation
+        Object target = binder.getTarget();
+        if (target != null && requestValidator.isEnabled() && requestValidator.supports(target.getClass())) {
+            binder.setValidator(requestValidator);
+        }
     }
     
     @PostMapping("/initiate")
-    public ResponseEntity<InitiateTransactionResponse> initiateTransaction(
+    public CompletableFuture<ResponseEntity<InitiateTransactionResponse>> initiateTransaction(
             @Valid @RequestBody InitiateTransactionRequest request) {
         
         logger.info("Received transaction initiation request for order: {}", request.getOrderId());
         
         try {
-            InitiateTransactionResponse response = transactionService.initiateTransaction(request);
-            return ResponseEntity.ok(response);
+            return transactionService.initiateTransactionAsync(request)
+                .thenApply(ResponseEntity::ok);
             
         } catch (IllegalArgumentException e) {
             logger.error("Invalid request for transaction initiation: {}", e.getMessage());
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
             
         } catch (RuntimeException e) {
             logger.error("Error initiating transaction for order: {}", request.getOrderId(), e);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
             
         } catch (Exception e) {
             logger.error("Unexpected error initiating transaction for order: {}", request.getOrderId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        }
+    }
+    
+    @PostMapping(value = "/initiate/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> initiateTransactionBatch(
+            @Valid @RequestBody BatchInitiateTransactionRequest request) {
+        
+        logger.info("Received batch initiation request for {} transactions", request.getTransactions().size());
+        
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTransactionService.getTimeoutMillis());
+        try {
+            batchTransactionService.initiateTransactionBatch(request.getTransactions(), result -> send(emitter, result))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        logger.error("Error completing transaction batch", error);
+                        emitter.completeWithError(error);
+                    } else {
+                        emitter.complete();
+                    }
+                });
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+            
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid request for batch initiation: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+            
+        } catch (RuntimeException e) {
+            logger.error("Error initiating transaction batch", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
     
@@ -69,4 +128,30 @@ public class TransactionController {
                     .body("Error processing callback");
         }
     }
-}
\ No newline at end of file
+    
+    @PostMapping(value = "/callback/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkCallbackResponse> processCallbacks(InputStream callbacks) {
+        
+        logger.info("Received bulk callback stream");
+        
+        try {
+            return ResponseEntity.ok(bulkCallbackService.processCallbacks(callbacks));
+            
+        } catch (Exception e) {
+            logger.error("Error processing bulk callbacks", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private void send(ResponseBodyEmitter emitter, BatchTransactionResult result) {
+        // One NDJSON line per result; results arrive from gateway threads concurrently
+        synchronized (emitter) {
+            try {
+                emitter.send(result, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Dropping batch result for order {}: client disconnected", result.getOrderId());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fairoz.controller;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.PaymentInstrument;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+// Reads the two highest-volume request bodies with the streaming parser instead of databind. Field names
+// and lenient scalar handling match what Jackson databind accepts for these DTOs. Spring Boot registers
+// this converter ahead of the default Jackson converter, which still handles every other type.
+@Component
+@ConditionalOnProperty(prefix = "payment.codec", name = "fast-path-enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionRequestConverter extends AbstractHttpMessageConverter<Object> {
+    
+    private static final String[] STATUSES = {"success", "failure"};
+    
+    private final JsonFactory jsonFactory;
+    // Gateway names and statuses resolve to these shared instances without allocating a string
+    private final String[] gatewayNames;
+    
+    @Autowired
+    public TransactionRequestConverter(ObjectMapper objectMapper, PaymentProperties paymentProperties) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = objectMapper.getFactory();
+        this.gatewayNames = paymentProperties.getGateways() == null ? new String[0]
+            : paymentProperties.getGateways().stream().map(GatewayConfig::getName).toArray(String[]::new);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CallbackRequest.class || clazz == InitiateTransactionRequest.class;
+    }
+    
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            if (parser.nextToken() == null) {
+                throw new HttpMessageNotReadableException("Required request body is missing", inputMessage);
+            }
+            return clazz == CallbackRequest.class ? readCallbackRequest(parser) : readInitiateTransactionRequest(parser);
+        } catch (JsonProcessingException | NumberFormatException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+    
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Only reads request bodies");
+    }
+    
+    // Expects the parser positioned on the opening brace
+    public CallbackRequest readCallbackRequest(JsonParser parser) throws IOException {
+        expectObject(parser, CallbackRequest.class);
+        CallbackRequest request = new CallbackRequest();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "order_id" -> request.setOrderId(readString(parser));
+                case "status" -> request.setStatus(readShared(parser, STATUSES));
+                case "gateway" -> request.setGateway(readShared(parser, gatewayNames));
+                case "reason" -> request.setReason(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return request;
+    }
+    
+    // Expects the parser positioned on the opening brace
+    public InitiateTransactionRequest readInitiateTransactionRequest(JsonParser parser) throws IOException {
+        expectObject(parser, InitiateTransactionRequest.class);
+        InitiateTransactionRequest request = new InitiateTransactionRequest();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "order_id" -> request.setOrderId(readString(parser));
+                case "amount" -> request.setAmount(readDecimal(parser));
+                case "payment_instrument" -> request.setPaymentInstrument(readPaymentInstrument(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return request;
+    }
+    
+    private PaymentInstrument readPaymentInstrument(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectObject(parser, PaymentInstrument.class);
+        PaymentInstrument instrument = new PaymentInstrument();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "type" -> instrument.setType(readString(parser));
+                case "card_number" -> instrument.setCardNumber(readString(parser));
+                case "expiry" -> instrument.setExpiry(readString(parser));
+                case "cvv" -> instrument.setCvv(readString(parser));
+                case "holder_name" -> instrument.setHolderName(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return instrument;
+    }
+    
+    private static void expectObject(JsonParser parser, Class<?> type) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, type,
+                "Expected an object for " + type.getSimpleName() + " but got " + parser.currentToken());
+        }
+    }
+    
+    // Like databind, other scalars are accepted as their text
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw MismatchedInputException.from(parser, String.class, "Expected a string but got " + token);
+        }
+        return parser.getText();
+    }
+    
+    private static String readShared(JsonParser parser, String[] candidates) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return readString(parser);
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (String candidate : candidates) {
+            if (candidate.length() == length && matches(candidate, text, offset)) {
+                return candidate;
+            }
+        }
+        return parser.getText();
+    }
+    
+    private static boolean matches(String candidate, char[] text, int offset) {
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != text[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            return text.isEmpty() ? null : new BigDecimal(text);
+        }
+        throw MismatchedInputException.from(parser, BigDecimal.class, "Expected a number but got " + token);
+    }
+}
\ No newline at end of file
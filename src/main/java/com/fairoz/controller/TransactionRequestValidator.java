@@ -0,0 +1,103 @@
+package com.fairoz.controller;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.PaymentInstrument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.math.BigDecimal;
+
+// Hand-written equivalent of the bean validation constraints on the request DTOs. It reports the same
+// field paths, constraint codes and messages, so validation errors look identical to clients, but it
+// skips constraint metadata lookup and the status and expiry regexes on every request.
+@Component
+public class TransactionRequestValidator implements Validator {
+    
+    private final boolean enabled;
+    
+    @Autowired
+    public TransactionRequestValidator(PaymentProperties paymentProperties) {
+        this.enabled = Boolean.TRUE.equals(paymentProperties.getCodec().getFastPathEnabled());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return clazz == CallbackRequest.class || clazz == InitiateTransactionRequest.class;
+    }
+    
+    @Override
+    public void validate(Object target, Errors errors) {
+        if (target instanceof CallbackRequest request) {
+            validateCallback(request, errors);
+        } else if (target instanceof InitiateTransactionRequest request) {
+            validateInitiate(request, errors);
+        }
+    }
+    
+    private void validateCallback(CallbackRequest request, Errors errors) {
+        if (isBlank(request.getOrderId())) {
+            errors.rejectValue("orderId", "NotBlank", "Order ID is required");
+        }
+        String status = request.getStatus();
+        if (isBlank(status)) {
+            errors.rejectValue("status", "NotBlank", "Status is required");
+        }
+        if (status != null && !"success".equals(status) && !"failure".equals(status)) {
+            errors.rejectValue("status", "Pattern", "Status must be either 'success' or 'failure'");
+        }
+        if (isBlank(request.getGateway())) {
+            errors.rejectValue("gateway", "NotBlank", "Gateway is required");
+        }
+    }
+    
+    private void validateInitiate(InitiateTransactionRequest request, Errors errors) {
+        if (isBlank(request.getOrderId())) {
+            errors.rejectValue("orderId", "NotBlank", "Order ID is required");
+        }
+        BigDecimal amount = request.getAmount();
+        if (amount == null) {
+            errors.rejectValue("amount", "NotNull", "Amount is required");
+        } else if (amount.signum() <= 0) {
+            errors.rejectValue("amount", "Positive", "Amount must be positive");
+        }
+        PaymentInstrument instrument = request.getPaymentInstrument();
+        if (instrument == null) {
+            errors.rejectValue("paymentInstrument", "NotNull", "Payment instrument is required");
+            return;
+        }
+        if (isBlank(instrument.getType())) {
+            errors.rejectValue("paymentInstrument.type", "NotBlank", "Payment instrument type is required");
+        }
+        if (instrument.getExpiry() != null && !isValidExpiry(instrument.getExpiry())) {
+            errors.rejectValue("paymentInstrument.expiry", "Pattern", "Expiry must be in MM/YY format");
+        }
+    }
+    
+    // Same semantics as @NotBlank: null or only whitespace
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    // Matches ^(0[1-9]|1[0-2])/\d{2}$
+    static boolean isValidExpiry(String expiry) {
+        if (expiry.length() != 5 || expiry.charAt(2) != '/') {
+            return false;
+        }
+        char tens = expiry.charAt(0);
+        char units = expiry.charAt(1);
+        boolean validMonth = (tens == '0' && units >= '1' && units <= '9') || (tens == '1' && units >= '0' && units <= '2');
+        return validMonth && isDigit(expiry.charAt(3)) && isDigit(expiry.charAt(4));
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.fairoz.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BatchInitiateTransactionRequest {
+    
+    @Valid
+    @NotEmpty(message = "At least one transaction is required")
+    private List<InitiateTransactionRequest> transactions;
+    
+    public BatchInitiateTransactionRequest() {}
+    
+    public BatchInitiateTransactionRequest(List<InitiateTransactionRequest> transactions) {
+        this.transactions = transactions;
+    }
+    
+    public List<InitiateTransactionRequest> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<InitiateTransactionRequest> transactions) {
+        this.transactions = transactions;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.fairoz.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BatchTransactionResult {
+    
+    public enum Outcome {
+        INITIATED,
+        REPLAYED,
+        REJECTED,
+        FAILED
+    }
+    
+    @JsonProperty("order_id")
+    private String orderId;
+    
+    private Outcome outcome;
+    
+    private InitiateTransactionResponse transaction;
+    
+    private String error;
+    
+    public BatchTransactionResult() {}
+    
+    public BatchTransactionResult(String orderId, Outcome outcome, 
+                                  InitiateTransactionResponse transaction, String error) {
+        this.orderId = orderId;
+        this.outcome = outcome;
+        this.transaction = transaction;
+        this.error = error;
+    }
+    
+    public static BatchTransactionResult of(Outcome outcome, InitiateTransactionResponse transaction) {
+        return new BatchTransactionResult(transaction.getOrderId(), outcome, transaction, null);
+    }
+    
+    public static BatchTransactionResult error(String orderId, Outcome outcome, String error) {
+        return new BatchTransactionResult(orderId, outcome, null, error);
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+    
+    public InitiateTransactionResponse getTransaction() {
+        return transaction;
+    }
+    
+    public void setTransaction(InitiateTransactionResponse transaction) {
+        this.transaction = transaction;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.fairoz.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BulkCallbackResponse {
+    
+    private long received;
+    
+    private long applied;
+    
+    private long duplicates;
+    
+    @JsonProperty("not_found")
+    private long notFound;
+    
+    private long invalid;
+    
+    public BulkCallbackResponse() {}
+    
+    public BulkCallbackResponse(long received, long applied, long duplicates, long notFound, long invalid) {
+        this.received = received;
+        this.applied = applied;
+        this.duplicates = duplicates;
+        this.notFound = notFound;
+        this.invalid = invalid;
+    }
+    
+    public long getReceived() {
+        return received;
+    }
+    
+    public void setReceived(long received) {
+        this.received = received;
+    }
+    
+    public long getApplied() {
+        return applied;
+    }
+    
+    public void setApplied(long applied) {
+        this.applied = applied;
+    }
+    
+    public long getDuplicates() {
+        return duplicates;
+    }
+    
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+    
+    public long getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(long notFound) {
+        this.notFound = notFound;
+    }
+    
+    public long getInvalid() {
+        return invalid;
+    }
+    
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+}
\ No newline at end of file
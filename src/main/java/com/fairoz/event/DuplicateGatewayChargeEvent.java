@@ -0,0 +1,48 @@
+package com.fairoz.event;
+
+// A hedged attempt charged the customer after another attempt for the same order had already won.
+// The losing charge is not recorded on the transaction; DuplicateGatewayChargeRecorder persists it so
+// reconciliation can void or refund it.
+public class DuplicateGatewayChargeEvent {
+    
+    private final String orderId;
+    private final double amount;
+    private final String gatewayName;
+    private final String gatewayTransactionId;
+    private final String winningGatewayName;
+    private final String winningGatewayTransactionId;
+    
+    public DuplicateGatewayChargeEvent(String orderId, double amount, String gatewayName, String gatewayTransactionId,
+                                       String winningGatewayName, String winningGatewayTransactionId) {
+        this.orderId = orderId;
+        this.amount = amount;
+        this.gatewayName = gatewayName;
+        this.gatewayTransactionId = gatewayTransactionId;
+        this.winningGatewayName = winningGatewayName;
+        this.winningGatewayTransactionId = winningGatewayTransactionId;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public double getAmount() {
+        return amount;
+    }
+    
+    public String getGatewayName() {
+        return gatewayName;
+    }
+    
+    public String getGatewayTransactionId() {
+        return gatewayTransactionId;
+    }
+    
+    public String getWinningGatewayName() {
+        return winningGatewayName;
+    }
+    
+    public String getWinningGatewayTransactionId() {
+        return winningGatewayTransactionId;
+    }
+}
\ No newline at end of file
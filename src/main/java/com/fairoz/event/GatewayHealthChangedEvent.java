@@ -0,0 +1,20 @@
+package com.fairoz.event;
+
+public class GatewayHealthChangedEvent {
+    
+    private final String gatewayName;
+    private final boolean healthy;
+    
+    public GatewayHealthChangedEvent(String gatewayName, boolean healthy) {
+        this.gatewayName = gatewayName;
+        this.healthy = healthy;
+    }
+    
+    public String getGatewayName() {
+        return gatewayName;
+    }
+    
+    public boolean isHealthy() {
+        return healthy;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.fairoz.model;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
\ No newline at end of file
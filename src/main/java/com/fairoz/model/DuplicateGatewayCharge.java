@@ -0,0 +1,118 @@
+package com.fairoz.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A hedged charge that lost the race, kept for reconciliation against gateway settlements
+@Entity
+@Table(name = "duplicate_gateway_charges", indexes = {
+    @Index(name = "idx_duplicate_gateway_charges_order_id", columnList = "order_id")
+})
+public class DuplicateGatewayCharge {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "duplicate_gateway_charges_seq")
+    @SequenceGenerator(name = "duplicate_gateway_charges_seq", sequenceName = "duplicate_gateway_charges_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private String orderId;
+    
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "gateway_name", nullable = false)
+    private String gatewayName;
+    
+    @Column(name = "gateway_transaction_id")
+    private String gatewayTransactionId;
+    
+    @Column(name = "winning_gateway_name", nullable = false)
+    private String winningGatewayName;
+    
+    @Column(name = "winning_gateway_transaction_id")
+    private String winningGatewayTransactionId;
+    
+    @CreationTimestamp
+    @Column(name = "detected_at", nullable = false, updatable = false)
+    private LocalDateTime detectedAt;
+    
+    public DuplicateGatewayCharge() {}
+    
+    public DuplicateGatewayCharge(String orderId, BigDecimal amount, String gatewayName, String gatewayTransactionId,
+                                  String winningGatewayName, String winningGatewayTransactionId) {
+        this.orderId = orderId;
+        this.amount = amount;
+        this.gatewayName = gatewayName;
+        this.gatewayTransactionId = gatewayTransactionId;
+        this.winningGatewayName = winningGatewayName;
+        this.winningGatewayTransactionId = winningGatewayTransactionId;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getGatewayName() {
+        return gatewayName;
+    }
+    
+    public void setGatewayName(String gatewayName) {
+        this.gatewayName = gatewayName;
+    }
+    
+    public String getGatewayTransactionId() {
+        return gatewayTransactionId;
+    }
+    
+    public void setGatewayTransactionId(String gatewayTransactionId) {
+        this.gatewayTransactionId = gatewayTransactionId;
+    }
+    
+    public String getWinningGatewayName() {
+        return winningGatewayName;
+    }
+    
+    public void setWinningGatewayName(String winningGatewayName) {
+        this.winningGatewayName = winningGatewayName;
+    }
+    
+    public String getWinningGatewayTransactionId() {
+        return winningGatewayTransactionId;
+    }
+    
+    public void setWinningGatewayTransactionId(String winningGatewayTransactionId) {
+        this.winningGatewayTransactionId = winningGatewayTransactionId;
+    }
+    
+    public LocalDateTime getDetectedAt() {
+        return detectedAt;
+    }
+    
+    public void setDetectedAt(LocalDateTime detectedAt) {
+        this.detectedAt = detectedAt;
+    }
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ public class GatewayConfig {
     private String name;
     private Integer weight;
     private Boolean enabled;
+    private Integer maxConcurrentCalls;
     
     public GatewayConfig() {}
     
@@ -36,4 +37,12 @@ public class GatewayConfig {
     public void setEnabled(Boolean enabled) {
         this.enabled = enabled;
     }
+    
+    public Integer getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+    
+    public void setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
 }
\ No newline at end of file
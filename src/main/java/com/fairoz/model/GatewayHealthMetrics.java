@@ -6,11 +6,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gateway_health_metrics")
+@Table(name = "gateway_health_metrics", indexes = {
+    @Index(name = "idx_gateway_health_metrics_window_start", columnList = "window_start")
+})
 public class GatewayHealthMetrics {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gateway_health_metrics_seq")
+    @SequenceGenerator(name = "gateway_health_metrics_seq", sequenceName = "gateway_health_metrics_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "gateway_name", nullable = false)
@@ -45,12 +48,13 @@ public class GatewayHealthMetrics {
     }
     
     public void recordTransaction(boolean isSuccess) {
-        this.totalTransactions++;
-        if (isSuccess) {
-            this.successfulTransactions++;
-        } else {
-            this.failedTransactions++;
-        }
+        recordTransactions(isSuccess ? 1 : 0, isSuccess ? 0 : 1);
+    }
+    
+    public void recordTransactions(long successes, long failures) {
+        this.totalTransactions += successes + failures;
+        this.successfulTransactions += successes;
+        this.failedTransactions += failures;
         this.successRate = totalTransactions > 0 ? 
             (successfulTransactions * 100.0) / totalTransactions : 100.0;
     }
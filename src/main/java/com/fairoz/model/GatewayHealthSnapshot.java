@@ -0,0 +1,105 @@
+package com.fairoz.model;
+
+public final class GatewayHealthSnapshot {
+    
+    private final String gatewayName;
+    private final long totalTransactions;
+    private final long successfulTransactions;
+    private final CircuitState circuitState;
+    // OPEN: when probing may start; HALF_OPEN: when unanswered probe permits are handed out again
+    private final long disabledUntilMillis;
+    private final int probesRemaining;
+    private final int probeSuccesses;
+    private final long version;
+    
+    public GatewayHealthSnapshot(String gatewayName, long totalTransactions, long successfulTransactions,
+                                 CircuitState circuitState, long disabledUntilMillis, 
+                                 int probesRemaining, int probeSuccesses, long version) {
+        this.gatewayName = gatewayName;
+        this.totalTransactions = totalTransactions;
+        this.successfulTransactions = successfulTransactions;
+        this.circuitState = circuitState;
+        this.disabledUntilMillis = disabledUntilMillis;
+        this.probesRemaining = probesRemaining;
+        this.probeSuccesses = probeSuccesses;
+        this.version = version;
+    }
+    
+    public static GatewayHealthSnapshot initial(String gatewayName) {
+        return new GatewayHealthSnapshot(gatewayName, 0, 0, CircuitState.CLOSED, 0, 0, 0, 0);
+    }
+    
+    public GatewayHealthSnapshot withCounts(long totalTransactions, long successfulTransactions) {
+        return new GatewayHealthSnapshot(gatewayName, totalTransactions, successfulTransactions,
+            circuitState, disabledUntilMillis, probesRemaining, probeSuccesses, version);
+    }
+    
+    public GatewayHealthSnapshot open(long disabledUntilMillis) {
+        return new GatewayHealthSnapshot(gatewayName, totalTransactions, successfulTransactions,
+            CircuitState.OPEN, disabledUntilMillis, 0, 0, version + 1);
+    }
+    
+    public GatewayHealthSnapshot halfOpen(long probeDeadlineMillis, int probes) {
+        return new GatewayHealthSnapshot(gatewayName, totalTransactions, successfulTransactions,
+            CircuitState.HALF_OPEN, probeDeadlineMillis, probes, 0, version + 1);
+    }
+    
+    public GatewayHealthSnapshot withProbeIssued() {
+        return new GatewayHealthSnapshot(gatewayName, totalTransactions, successfulTransactions,
+            circuitState, disabledUntilMillis, probesRemaining - 1, probeSuccesses, version);
+    }
+    
+    public GatewayHealthSnapshot withProbeSucceeded() {
+        return new GatewayHealthSnapshot(gatewayName, totalTransactions, successfulTransactions,
+            circuitState, disabledUntilMillis, probesRemaining, probeSuccesses + 1, version);
+    }
+    
+    public GatewayHealthSnapshot close() {
+        return new GatewayHealthSnapshot(gatewayName, 0, 0, CircuitState.CLOSED, 0, 0, 0, version + 1);
+    }
+    
+    public double getSuccessRate() {
+        return totalTransactions > 0 ? (successfulTransactions * 100.0) / totalTransactions : 100.0;
+    }
+    
+    public String getGatewayName() {
+        return gatewayName;
+    }
+    
+    public long getTotalTransactions() {
+        return totalTransactions;
+    }
+    
+    public long getSuccessfulTransactions() {
+        return successfulTransactions;
+    }
+    
+    public long getFailedTransactions() {
+        return totalTransactions - successfulTransactions;
+    }
+    
+    // Half-open gateways stay routable so they can receive their probe calls
+    public boolean isHealthy() {
+        return circuitState != CircuitState.OPEN;
+    }
+    
+    public CircuitState getCircuitState() {
+        return circuitState;
+    }
+    
+    public long getDisabledUntilMillis() {
+        return disabledUntilMillis;
+    }
+    
+    public int getProbesRemaining() {
+        return probesRemaining;
+    }
+    
+    public int getProbeSuccesses() {
+        return probeSuccesses;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
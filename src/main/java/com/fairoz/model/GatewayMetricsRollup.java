@@ -0,0 +1,105 @@
+package com.fairoz.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "gateway_metrics_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_gateway_metrics_rollups_gateway_minute", columnNames = {"gateway_name", "minute_start"})
+}, indexes = {
+    @Index(name = "idx_gateway_metrics_rollups_minute_start", columnList = "minute_start")
+})
+public class GatewayMetricsRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gateway_metrics_rollups_seq")
+    @SequenceGenerator(name = "gateway_metrics_rollups_seq", sequenceName = "gateway_metrics_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "gateway_name", nullable = false)
+    private String gatewayName;
+    
+    @Column(name = "minute_start", nullable = false)
+    private LocalDateTime minuteStart;
+    
+    @Column(name = "successful_transactions", nullable = false)
+    private Long successfulTransactions = 0L;
+    
+    @Column(name = "failed_transactions", nullable = false)
+    private Long failedTransactions = 0L;
+    
+    @Column(name = "gateway_calls", nullable = false)
+    private Long gatewayCalls = 0L;
+    
+    @Column(name = "latency_sum_micros", nullable = false)
+    private Long latencySumMicros = 0L;
+    
+    public GatewayMetricsRollup() {}
+    
+    public GatewayMetricsRollup(String gatewayName, LocalDateTime minuteStart, long successfulTransactions,
+                                long failedTransactions, long gatewayCalls, long latencySumMicros) {
+        this.gatewayName = gatewayName;
+        this.minuteStart = minuteStart;
+        this.successfulTransactions = successfulTransactions;
+        this.failedTransactions = failedTransactions;
+        this.gatewayCalls = gatewayCalls;
+        this.latencySumMicros = latencySumMicros;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getGatewayName() {
+        return gatewayName;
+    }
+    
+    public void setGatewayName(String gatewayName) {
+        this.gatewayName = gatewayName;
+    }
+    
+    public LocalDateTime getMinuteStart() {
+        return minuteStart;
+    }
+    
+    public void setMinuteStart(LocalDateTime minuteStart) {
+        this.minuteStart = minuteStart;
+    }
+    
+    public Long getSuccessfulTransactions() {
+        return successfulTransactions;
+    }
+    
+    public void setSuccessfulTransactions(Long successfulTransactions) {
+        this.successfulTransactions = successfulTransactions;
+    }
+    
+    public Long getFailedTransactions() {
+        return failedTransactions;
+    }
+    
+    public void setFailedTransactions(Long failedTransactions) {
+        this.failedTransactions = failedTransactions;
+    }
+    
+    public Long getGatewayCalls() {
+        return gatewayCalls;
+    }
+    
+    public void setGatewayCalls(Long gatewayCalls) {
+        this.gatewayCalls = gatewayCalls;
+    }
+    
+    public Long getLatencySumMicros() {
+        return latencySumMicros;
+    }
+    
+    public void setLatencySumMicros(Long latencySumMicros) {
+        this.latencySumMicros = latencySumMicros;
+    }
+}
\ No newline at end of file
@@ -1,7 +1,41 @@
 package com.fairoz.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum TransactionStatus {
     PENDING,
     SUCCESS,
-    FAILURE
+    FAILURE;
+    
+    private static final Map<TransactionStatus, Set<TransactionStatus>> SOURCES = new EnumMap<>(TransactionStatus.class);
+    
+    static {
+        for (TransactionStatus target : values()) {
+            Set<TransactionStatus> sources = EnumSet.noneOf(TransactionStatus.class);
+            for (TransactionStatus source : values()) {
+                if (source.canTransitionTo(target)) {
+                    sources.add(source);
+                }
+            }
+            SOURCES.put(target, Collections.unmodifiableSet(sources));
+        }
+    }
+    
+    // SUCCESS is final; a failed payment can still be reported successful by a later gateway callback
+    public boolean canTransitionTo(TransactionStatus target) {
+        return switch (this) {
+            case PENDING -> target == SUCCESS || target == FAILURE;
+            case FAILURE -> target == SUCCESS;
+            case SUCCESS -> false;
+        };
+    }
+    
+    // Statuses a transaction has to be in to move to the target, for conditional updates
+    public static Set<TransactionStatus> sourcesOf(TransactionStatus target) {
+        return SOURCES.get(target);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.fairoz.repository;
+
+import com.fairoz.model.DuplicateGatewayCharge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DuplicateGatewayChargeRepository extends JpaRepository<DuplicateGatewayCharge, Long> {
+    
+    List<DuplicateGatewayCharge> findAllByOrderId(String orderId);
+}
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.fairoz.repository;
 
 import com.fairoz.model.GatewayHealthMetrics;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +27,13 @@ public interface GatewayHealthMetricsRepository extends JpaRepository<GatewayHea
     
     @Query("SELECT ghm FROM GatewayHealthMetrics ghm WHERE ghm.windowStart >= :windowStart")
     List<GatewayHealthMetrics> findAllByWindowStartAfter(@Param("windowStart") LocalDateTime windowStart);
+    
+    // Range scan on the window_start index; the page size bounds each retention chunk
+    @Query("SELECT ghm.id FROM GatewayHealthMetrics ghm WHERE ghm.windowStart < :cutoff ORDER BY ghm.windowStart")
+    List<Long> findIdsByWindowStartBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GatewayHealthMetrics ghm WHERE ghm.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
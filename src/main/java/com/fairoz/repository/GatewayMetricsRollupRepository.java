@@ -0,0 +1,44 @@
+package com.fairoz.repository;
+
+import com.fairoz.model.GatewayMetricsRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GatewayMetricsRollupRepository extends JpaRepository<GatewayMetricsRollup, Long> {
+    
+    // Adds a flush delta to an existing minute row; returns 0 when the row does not exist yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE GatewayMetricsRollup r SET r.successfulTransactions = r.successfulTransactions + :successes, " +
+           "r.failedTransactions = r.failedTransactions + :failures, r.gatewayCalls = r.gatewayCalls + :calls, " +
+           "r.latencySumMicros = r.latencySumMicros + :latencyMicros " +
+           "WHERE r.gatewayName = :gatewayName AND r.minuteStart = :minuteStart")
+    int addToRollup(@Param("gatewayName") String gatewayName,
+                    @Param("minuteStart") LocalDateTime minuteStart,
+                    @Param("successes") long successes,
+                    @Param("failures") long failures,
+                    @Param("calls") long calls,
+                    @Param("latencyMicros") long latencyMicros);
+    
+    @Query("SELECT r FROM GatewayMetricsRollup r WHERE r.minuteStart >= :minuteStart")
+    List<GatewayMetricsRollup> findAllByMinuteStartAfter(@Param("minuteStart") LocalDateTime minuteStart);
+    
+    // Range scan on the minute_start index; the page size bounds each retention chunk
+    @Query("SELECT r.id FROM GatewayMetricsRollup r WHERE r.minuteStart < :cutoff ORDER BY r.minuteStart")
+    List<Long> findIdsByMinuteStartBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GatewayMetricsRollup r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
\ No newline at end of file
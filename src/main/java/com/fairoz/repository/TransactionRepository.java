@@ -1,13 +1,66 @@
 package com.fairoz.repository;
 
 import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByOrderId(String orderId);
     boolean existsByOrderId(String orderId);
+    List<Transaction> findAllByOrderIdIn(Collection<String> orderIds);
+    
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.gatewayTransactionId = :gatewayTransactionId, t.updatedAt = :updatedAt, " +
+           "t.version = t.version + 1 WHERE t.id = :id")
+    int updateGatewayTransactionId(@Param("id") Long id,
+                                   @Param("gatewayTransactionId") String gatewayTransactionId,
+                                   @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.selectedGateway = :selectedGateway, " +
+           "t.gatewayTransactionId = :gatewayTransactionId, t.updatedAt = :updatedAt, " +
+           "t.version = t.version + 1 WHERE t.id = :id")
+    int updateGatewayAssignment(@Param("id") Long id,
+                                @Param("selectedGateway") String selectedGateway,
+                                @Param("gatewayTransactionId") String gatewayTransactionId,
+                                @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Applies a status transition only while the transaction is in one of the given source statuses
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status, t.failureReason = :failureReason, " +
+           "t.updatedAt = :updatedAt, t.version = t.version + 1 " +
+           "WHERE t.orderId = :orderId AND t.status IN :fromStatuses")
+    int transitionStatus(@Param("orderId") String orderId,
+                         @Param("status") TransactionStatus status,
+                         @Param("fromStatuses") Collection<TransactionStatus> fromStatuses,
+                         @Param("failureReason") String failureReason,
+                         @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status, t.failureReason = :failureReason, " +
+           "t.updatedAt = :updatedAt, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.status IN :fromStatuses")
+    int transitionStatusById(@Param("id") Long id,
+                             @Param("status") TransactionStatus status,
+                             @Param("fromStatuses") Collection<TransactionStatus> fromStatuses,
+                             @Param("failureReason") String failureReason,
+                             @Param("updatedAt") LocalDateTime updatedAt);
 }
\ No newline at end of file
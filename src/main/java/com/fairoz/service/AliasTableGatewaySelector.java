@@ -0,0 +1,112 @@
+package com.fairoz.service;
+
+import com.fairoz.model.GatewayConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@ConditionalOnProperty(prefix = "payment.routing", name = "strategy", havingValue = "weighted", matchIfMissing = true)
+public class AliasTableGatewaySelector implements GatewaySelector {
+    
+    @Override
+    public AliasTable prepare(List<GatewayConfig> gateways) {
+        if (gateways.isEmpty()) {
+            throw new IllegalArgumentException("Cannot build a selection over no gateways");
+        }
+        
+        int size = gateways.size();
+        String[] names = new String[size];
+        double[] weights = new double[size];
+        double totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            GatewayConfig gateway = gateways.get(i);
+            names[i] = gateway.getName();
+            weights[i] = Math.max(0, gateway.getWeight() == null ? 0 : gateway.getWeight());
+            totalWeight += weights[i];
+        }
+        
+        return new AliasTable(names, weights, totalWeight);
+    }
+    
+    static final class AliasTable implements Selection {
+        
+        private final String[] names;
+        private final double[] probability;
+        private final int[] alias;
+        
+        AliasTable(String[] names, double[] weights, double totalWeight) {
+            int size = names.length;
+            this.names = names;
+            this.probability = new double[size];
+            this.alias = new int[size];
+            
+            if (totalWeight <= 0) {
+                for (int i = 0; i < size; i++) {
+                    probability[i] = 1.0;
+                    alias[i] = i;
+                }
+                return;
+            }
+            
+            double[] scaled = new double[size];
+            int[] small = new int[size];
+            int[] large = new int[size];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < size; i++) {
+                scaled[i] = weights[i] * size / totalWeight;
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            while (largeCount > 0) {
+                int index = large[--largeCount];
+                probability[index] = 1.0;
+                alias[index] = index;
+            }
+            while (smallCount > 0) {
+                int index = small[--smallCount];
+                probability[index] = 1.0;
+                alias[index] = index;
+            }
+        }
+        
+        @Override
+        public String select() {
+            return names[selectIndex()];
+        }
+        
+        int selectIndex() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int column = random.nextInt(names.length);
+            return random.nextDouble() < probability[column] ? column : alias[column];
+        }
+        
+        String name(int index) {
+            return names[index];
+        }
+        
+        @Override
+        public int size() {
+            return names.length;
+        }
+    }
+}
\ No newline at end of file
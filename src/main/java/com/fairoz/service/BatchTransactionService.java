@@ -0,0 +1,232 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.BatchTransactionResult;
+import com.fairoz.dto.BatchTransactionResult.Outcome;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.Transaction;
+import com.fairoz.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+public class BatchTransactionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransactionService.class);
+    
+    private final TransactionRepository transactionRepository;
+    private final GatewayRoutingService gatewayRoutingService;
+    private final TransactionService transactionService;
+    private final TransactionJournal transactionJournal;
+    private final OrderLockStripes orderLockStripes;
+    private final PaymentProperties.BatchConfig batchConfig;
+    private final ExecutorService executor;
+    
+    @Autowired
+    public BatchTransactionService(TransactionRepository transactionRepository,
+                                   GatewayRoutingService gatewayRoutingService,
+                                   TransactionService transactionService,
+                                   TransactionJournal transactionJournal,
+                                   OrderLockStripes orderLockStripes,
+                                   PaymentProperties paymentProperties) {
+        this.transactionRepository = transactionRepository;
+        this.gatewayRoutingService = gatewayRoutingService;
+        this.transactionService = transactionService;
+        this.transactionJournal = transactionJournal;
+        this.orderLockStripes = orderLockStripes;
+        this.batchConfig = paymentProperties.getBatch();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(batchConfig.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "batch-initiation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public CompletableFuture<Void> initiateTransactionBatch(List<InitiateTransactionRequest> requests,
+                                                           Consumer<BatchTransactionResult> resultSink) {
+        if (requests.size() > batchConfig.getMaxSize()) {
+            throw new IllegalArgumentException("Batch of " + requests.size() + 
+                " transactions exceeds the maximum of " + batchConfig.getMaxSize());
+        }
+        
+        RoutingSnapshot snapshot = gatewayRoutingService.getRoutingSnapshot();
+        if (snapshot.isEmpty()) {
+            logger.error("No healthy gateways available for batch of {} transactions", requests.size());
+            throw new RuntimeException("No healthy gateways available");
+        }
+        
+        logger.info("Initiating batch of {} transactions against routing snapshot v{}", 
+                   requests.size(), snapshot.getVersion());
+        
+        return CompletableFuture.supplyAsync(() -> processBatch(requests, snapshot, resultSink), executor)
+            .thenCompose(Function.identity());
+    }
+    
+    public long getTimeoutMillis() {
+        return batchConfig.getTimeoutMs();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    private CompletableFuture<Void> processBatch(List<InitiateTransactionRequest> requests, RoutingSnapshot snapshot,
+                                                 Consumer<BatchTransactionResult> resultSink) {
+        Semaphore inFlightCalls = new Semaphore(batchConfig.getMaxInFlightCalls());
+        List<CompletableFuture<Void>> gatewayCalls = new ArrayList<>(requests.size());
+        int chunkSize = batchConfig.getChunkSize();
+        
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<InitiateTransactionRequest> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            try {
+                processChunk(chunk, snapshot, resultSink, inFlightCalls, gatewayCalls);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Batch initiation interrupted after {} of {} transactions", from, requests.size());
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Error initiating batch chunk of {} transactions", chunk.size(), e);
+                chunk.forEach(request -> resultSink.accept(BatchTransactionResult.error(
+                    request.getOrderId(), Outcome.FAILED, "Error initiating transaction")));
+            }
+        }
+        
+        return CompletableFuture.allOf(gatewayCalls.toArray(new CompletableFuture[0]));
+    }
+    
+    private void processChunk(List<InitiateTransactionRequest> chunk, RoutingSnapshot snapshot,
+                              Consumer<BatchTransactionResult> resultSink, Semaphore inFlightCalls,
+                              List<CompletableFuture<Void>> gatewayCalls) throws InterruptedException {
+        Map<String, InitiateTransactionRequest> firstByOrderId = new LinkedHashMap<>();
+        List<InitiateTransactionRequest> duplicates = new ArrayList<>();
+        for (InitiateTransactionRequest request : chunk) {
+            if (firstByOrderId.putIfAbsent(request.getOrderId(), request) != null) {
+                duplicates.add(request);
+            }
+        }
+        
+        // Records each order ID resolved to, so in-chunk duplicates replay or reject against it
+        Map<String, Transaction> resolved = new HashMap<>();
+        List<Transaction> persisted;
+        if (transactionJournal.isEnabled()) {
+            // Batches write straight to the table. Holding the chunk's order stripes keeps journaled initiations
+            // of these orders out until the inserts commit, and everything journaled before is projected first.
+            List<Lock> locks = orderLockStripes.lockAll(firstByOrderId.keySet());
+            try {
+                transactionJournal.awaitProjection();
+                persisted = insertNew(firstByOrderId, snapshot, resultSink, resolved);
+                transactionJournal.registerOrderIds(persisted.stream().map(Transaction::getOrderId).toList());
+            } finally {
+                OrderLockStripes.unlockAll(locks);
+            }
+        } else {
+            persisted = insertNew(firstByOrderId, snapshot, resultSink, resolved);
+        }
+        
+        for (Transaction saved : persisted) {
+            resolved.put(saved.getOrderId(), saved);
+            
+            inFlightCalls.acquire();
+            gatewayCalls.add(transactionService.callGateway(saved, firstByOrderId.get(saved.getOrderId()))
+                .thenAccept(response -> resultSink.accept(BatchTransactionResult.of(Outcome.INITIATED, response)))
+                .whenComplete((ignored, error) -> inFlightCalls.release()));
+        }
+        
+        for (InitiateTransactionRequest duplicate : duplicates) {
+            Transaction transaction = resolved.get(duplicate.getOrderId());
+            resultSink.accept(transaction == null
+                ? BatchTransactionResult.error(duplicate.getOrderId(), Outcome.FAILED, "Error initiating transaction")
+                : resolveExisting(duplicate, transaction));
+        }
+    }
+    
+    private List<Transaction> insertNew(Map<String, InitiateTransactionRequest> firstByOrderId, 
+                                        RoutingSnapshot snapshot, Consumer<BatchTransactionResult> resultSink,
+                                        Map<String, Transaction> resolved) {
+        for (Transaction existing : transactionRepository.findAllByOrderIdIn(firstByOrderId.keySet())) {
+            resolved.put(existing.getOrderId(), existing);
+            resultSink.accept(resolveExisting(firstByOrderId.remove(existing.getOrderId()), existing));
+        }
+        
+        List<Transaction> pending = new ArrayList<>(firstByOrderId.size());
+        for (Iterator<InitiateTransactionRequest> it = firstByOrderId.values().iterator(); it.hasNext(); ) {
+            InitiateTransactionRequest request = it.next();
+            String selectedGateway = gatewayRoutingService.select(snapshot);
+            if (selectedGateway == null) {
+                it.remove();
+                resultSink.accept(BatchTransactionResult.error(
+                    request.getOrderId(), Outcome.FAILED, "No healthy gateways available"));
+                continue;
+            }
+            pending.add(newTransaction(request, selectedGateway));
+        }
+        return persist(pending, firstByOrderId, resultSink);
+    }
+    
+    private List<Transaction> persist(List<Transaction> pending, Map<String, InitiateTransactionRequest> requests,
+                                      Consumer<BatchTransactionResult> resultSink) {
+        if (pending.isEmpty()) {
+            return pending;
+        }
+        
+        try {
+            return transactionRepository.saveAll(pending);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Batch insert of {} transactions conflicted with concurrent requests, retrying individually", 
+                       pending.size());
+        }
+        
+        List<Transaction> saved = new ArrayList<>(pending.size());
+        for (Transaction transaction : pending) {
+            InitiateTransactionRequest request = requests.get(transaction.getOrderId());
+            try {
+                saved.add(transactionRepository.save(newTransaction(request, transaction.getSelectedGateway())));
+            } catch (DataIntegrityViolationException e) {
+                resultSink.accept(transactionRepository.findByOrderId(request.getOrderId())
+                    .map(existing -> resolveExisting(request, existing))
+                    .orElseGet(() -> BatchTransactionResult.error(
+                        request.getOrderId(), Outcome.FAILED, "Error initiating transaction")));
+            }
+        }
+        return saved;
+    }
+    
+    private BatchTransactionResult resolveExisting(InitiateTransactionRequest request, Transaction existing) {
+        if (existing.getAmount().compareTo(request.getAmount()) != 0) {
+            return BatchTransactionResult.error(request.getOrderId(), Outcome.REJECTED, 
+                "Transaction with order ID " + request.getOrderId() + " already exists");
+        }
+        return BatchTransactionResult.of(Outcome.REPLAYED, transactionService.toResponse(existing));
+    }
+    
+    private static Transaction newTransaction(InitiateTransactionRequest request, String selectedGateway) {
+        Transaction transaction = new Transaction(
+            request.getOrderId(), 
+            request.getAmount(), 
+            request.getPaymentInstrument()
+        );
+        transaction.setSelectedGateway(selectedGateway);
+        return transaction;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.BulkCallbackResponse;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+import com.fairoz.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+@Service
+public class BulkCallbackService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkCallbackService.class);
+    
+    private final TransactionRepository transactionRepository;
+    private final GatewayHealthService gatewayHealthService;
+    private final PendingTransactionCache pendingTransactionCache;
+    private final TransactionJournal transactionJournal;
+    private final OrderLockStripes orderLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader callbackReader;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxAttempts;
+    
+    @Autowired
+    public BulkCallbackService(TransactionRepository transactionRepository,
+                               GatewayHealthService gatewayHealthService,
+                               PendingTransactionCache pendingTransactionCache,
+                               TransactionJournal transactionJournal,
+                               OrderLockStripes orderLockStripes,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               Validator validator,
+                               PaymentProperties paymentProperties) {
+        this.transactionRepository = transactionRepository;
+        this.gatewayHealthService = gatewayHealthService;
+        this.pendingTransactionCache = pendingTransactionCache;
+        this.transactionJournal = transactionJournal;
+        this.orderLockStripes = orderLockStripes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.callbackReader = objectMapper.readerFor(CallbackRequest.class);
+        this.validator = validator;
+        this.chunkSize = paymentProperties.getCallback().getChunkSize();
+        this.maxAttempts = paymentProperties.getCallback().getMaxAttempts();
+    }
+    
+    public BulkCallbackResponse processCallbacks(InputStream callbacks) throws IOException {
+        long received = 0;
+        long invalid = 0;
+        long applied = 0;
+        long duplicates = 0;
+        List<CallbackRequest> chunk = new ArrayList<>(chunkSize);
+        
+        BufferedReader reader = new BufferedReader(new InputStreamReader(callbacks, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            received++;
+            
+            CallbackRequest callbackRequest = parse(line);
+            if (callbackRequest == null) {
+                invalid++;
+                continue;
+            }
+            
+            chunk.add(callbackRequest);
+            if (chunk.size() >= chunkSize) {
+                ChunkOutcome outcome = processChunk(chunk);
+                applied += outcome.applied;
+                duplicates += outcome.duplicates;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ChunkOutcome outcome = processChunk(chunk);
+            applied += outcome.applied;
+            duplicates += outcome.duplicates;
+        }
+        
+        logger.info("Bulk callbacks processed: {} received, {} applied, {} duplicates, {} invalid", 
+                   received, applied, duplicates, invalid);
+        return new BulkCallbackResponse(received, applied, duplicates, 
+            received - invalid - applied - duplicates, invalid);
+    }
+    
+    private CallbackRequest parse(String line) {
+        try {
+            CallbackRequest callbackRequest = callbackReader.readValue(line);
+            if (validator.validate(callbackRequest).isEmpty()) {
+                return callbackRequest;
+            }
+        } catch (JsonProcessingException e) {
+            logger.debug("Skipping malformed callback line: {}", e.getOriginalMessage());
+        }
+        return null;
+    }
+    
+    private ChunkOutcome processChunk(List<CallbackRequest> chunk) {
+        // Callbacks for the same order apply in arrival order, each checked against the status the earlier ones left
+        Map<String, List<CallbackRequest>> byOrderId = new LinkedHashMap<>();
+        for (CallbackRequest callbackRequest : chunk) {
+            byOrderId.computeIfAbsent(callbackRequest.getOrderId(), orderId -> new ArrayList<>(1)).add(callbackRequest);
+        }
+        
+        ChunkOutcome outcome = transactionJournal.isEnabled() 
+            ? applyJournaled(byOrderId) 
+            : applyWithRetry(byOrderId);
+        outcome.outcomesByGateway.forEach((gateway, outcomes) -> 
+            gatewayHealthService.recordTransactionResults(gateway, outcomes[0], outcomes[1]));
+        
+        logger.debug("Applied {} of {} callbacks in chunk across {} gateways ({} duplicates)", 
+                    outcome.applied, chunk.size(), outcome.outcomesByGateway.size(), outcome.duplicates);
+        return outcome;
+    }
+    
+    // Bulk callbacks update the table directly. Holding the chunk's order stripes keeps journaled callbacks
+    // for these orders out until the chunk commits, and everything journaled before is projected first.
+    private ChunkOutcome applyJournaled(Map<String, List<CallbackRequest>> byOrderId) {
+        List<Lock> locks = orderLockStripes.lockAll(byOrderId.keySet());
+        try {
+            transactionJournal.awaitProjection();
+            return applyWithRetry(byOrderId);
+        } finally {
+            OrderLockStripes.unlockAll(locks);
+        }
+    }
+    
+    private ChunkOutcome applyWithRetry(Map<String, List<CallbackRequest>> byOrderId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> apply(byOrderId));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Concurrent update while applying callback chunk, retrying (attempt {})", attempt + 1);
+            }
+        }
+    }
+    
+    private ChunkOutcome apply(Map<String, List<CallbackRequest>> byOrderId) {
+        ChunkOutcome outcome = new ChunkOutcome();
+        for (Transaction transaction : transactionRepository.findAllByOrderIdIn(byOrderId.keySet())) {
+            pendingTransactionCache.invalidate(transaction.getOrderId());
+            for (CallbackRequest callbackRequest : byOrderId.get(transaction.getOrderId())) {
+                if (!TransactionService.applyCallback(transaction, callbackRequest)) {
+                    outcome.duplicates++;
+                    continue;
+                }
+                
+                long[] outcomes = outcome.outcomesByGateway.computeIfAbsent(callbackRequest.getGateway(),
+                    gateway -> new long[2]);
+                outcomes[transaction.getStatus() == TransactionStatus.SUCCESS ? 0 : 1]++;
+                outcome.applied++;
+            }
+        }
+        return outcome;
+    }
+    
+    private static final class ChunkOutcome {
+        private final Map<String, long[]> outcomesByGateway = new HashMap<>();
+        private int applied;
+        private int duplicates;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,459 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shares gateway outcomes between router instances as grow-only counters (one per node and gateway)
+// gossiped over UDP. Merging takes the per-entry maximum, so lost, duplicated or reordered datagrams
+// are harmless, and each node feeds only the growth it observes into its own health state engine.
+// Datagrams are signed with a shared secret; nodes whose heartbeat stops growing are forgotten.
+@Component
+@ConditionalOnProperty(prefix = "payment.cluster", name = "enabled", havingValue = "true")
+public class ClusterHealthStateStore implements HealthStateStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterHealthStateStore.class);
+    
+    private static final int MAGIC = 0x48534754;
+    private static final int MAX_DATAGRAM_BYTES = 65_507;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+    
+    private final GatewayHealthStateEngine healthStateEngine;
+    private final PaymentProperties.ClusterConfig cluster;
+    private final String nodeId;
+    // Counters restart from zero with the process, so peers drop what they hold for an older incarnation
+    private final long incarnation;
+    private final long expiryMillis;
+    private final SecretKeySpec secretKey;
+    // One per configured gateway; counters for other gateway names are neither kept nor merged
+    private final Map<String, LocalCounter> localCounters;
+    // Only the receiver thread writes these; the gossip thread reads them to relay other nodes' counters
+    private final ConcurrentMap<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+    // Recently expired nodes, so peers still relaying their last counters cannot bring them back; receiver thread only
+    private final Map<String, RemoteNode> expiredNodes = new HashMap<>();
+    private final Set<InetSocketAddress> seeds = ConcurrentHashMap.newKeySet();
+    private final Set<InetSocketAddress> gossipTargets = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, InetSocketAddress> peers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService gossipScheduler;
+    
+    private volatile boolean running;
+    private volatile DatagramSocket socket;
+    private Thread receiverThread;
+    // Guarded by gossip()
+    private long heartbeat;
+    private Mac signer;
+    
+    @Autowired
+    public ClusterHealthStateStore(GatewayHealthStateEngine healthStateEngine, PaymentProperties paymentProperties) {
+        this.healthStateEngine = healthStateEngine;
+        this.cluster = paymentProperties.getCluster();
+        String configuredId = cluster.getNodeId();
+        this.nodeId = configuredId == null || configuredId.isBlank()
+            ? "node-" + UUID.randomUUID().toString().substring(0, 8)
+            : configuredId;
+        this.incarnation = System.currentTimeMillis();
+        this.expiryMillis = cluster.getGossipIntervalMs() * Math.max(2, cluster.getNodeExpiryIntervals());
+        
+        if (cluster.getSharedSecret() == null || cluster.getSharedSecret().isBlank()) {
+            throw new IllegalArgumentException("payment.cluster.shared-secret must be set to enable cluster health sharing");
+        }
+        this.secretKey = new SecretKeySpec(cluster.getSharedSecret().getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        
+        Map<String, LocalCounter> counters = new HashMap<>();
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gateway : paymentProperties.getGateways()) {
+                counters.put(gateway.getName(), new LocalCounter());
+            }
+        }
+        this.localCounters = counters;
+        
+        for (String peer : cluster.getPeers()) {
+            int separator = peer.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Cluster peer must be host:port, got " + peer);
+            }
+            seeds.add(new InetSocketAddress(peer.substring(0, separator), Integer.parseInt(peer.substring(separator + 1))));
+        }
+        gossipTargets.addAll(seeds);
+        
+        this.gossipScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-gossip");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PostConstruct
+    public void start() throws SocketException {
+        long intervalMs = cluster.getGossipIntervalMs();
+        signer = newMac();
+        socket = new DatagramSocket(new InetSocketAddress(cluster.getBindAddress(), cluster.getPort()));
+        // Wakes the receiver when nothing arrives, so silent nodes still expire
+        socket.setSoTimeout((int) intervalMs);
+        running = true;
+        
+        receiverThread = new Thread(this::runReceiverLoop, "health-gossip-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        
+        gossipScheduler.scheduleAtFixedRate(this::gossip, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Cluster health store {} listening on port {}, gossiping to {}", nodeId, getLocalPort(), gossipTargets);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        gossipScheduler.shutdownNow();
+        if (socket != null) {
+            socket.close();
+        }
+        if (receiverThread != null) {
+            receiverThread.join(1000);
+        }
+    }
+    
+    @Override
+    public void recordResults(String gatewayName, long successes, long failures) {
+        LocalCounter counter = localCounters.get(gatewayName);
+        if (counter == null) {
+            return;
+        }
+        counter.successes.addAndGet(successes);
+        counter.failures.addAndGet(failures);
+        healthStateEngine.recordResults(gatewayName, successes, failures);
+    }
+    
+    // Nodes this instance has received gossip from directly
+    @Override
+    public Set<String> getPeers() {
+        return new TreeSet<>(peers.keySet());
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    int getLocalPort() {
+        return socket.getLocalPort();
+    }
+    
+    // Nodes whose counters this instance holds, directly heard or relayed
+    Set<String> getKnownNodes() {
+        return new TreeSet<>(remoteNodes.keySet());
+    }
+    
+    synchronized void gossip() {
+        if (gossipTargets.isEmpty()) {
+            return;
+        }
+        
+        heartbeat++;
+        List<byte[]> datagrams;
+        try {
+            datagrams = encode(MAX_DATAGRAM_BYTES);
+        } catch (IOException e) {
+            logger.error("Failed to encode health gossip", e);
+            return;
+        }
+        
+        for (InetSocketAddress peer : gossipTargets) {
+            for (byte[] datagram : datagrams) {
+                try {
+                    socket.send(new DatagramPacket(datagram, datagram.length, peer));
+                } catch (IOException e) {
+                    logger.debug("Failed to send health gossip to {}: {}", peer, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    // Each node's counters travel together in one datagram, with this node's own first; a node that
+    // does not fit in the current datagram starts the next one
+    synchronized List<byte[]> encode(int maxDatagramBytes) throws IOException {
+        List<byte[]> blocks = new ArrayList<>(remoteNodes.size() + 1);
+        blocks.add(encodeNode(nodeId, incarnation, heartbeat, localCounters.entrySet().stream()
+            .map(local -> Map.entry(local.getKey(), new Counts(local.getValue().successes.get(),
+                local.getValue().failures.get())))
+            .toList()));
+        for (Map.Entry<String, RemoteNode> node : remoteNodes.entrySet()) {
+            RemoteNode remote = node.getValue();
+            blocks.add(encodeNode(node.getKey(), remote.incarnation, remote.heartbeat,
+                List.copyOf(remote.counters.entrySet())));
+        }
+        
+        int overhead = header(0).length + MAC_BYTES;
+        List<byte[]> datagrams = new ArrayList<>(1);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int count = 0;
+        for (byte[] block : blocks) {
+            if (overhead + block.length > maxDatagramBytes) {
+                logger.warn("Health gossip for one node needs {} bytes, more than a datagram; skipping it", block.length);
+                continue;
+            }
+            if (count > 0 && overhead + body.size() + block.length > maxDatagramBytes) {
+                datagrams.add(sign(body, count));
+                body.reset();
+                count = 0;
+            }
+            body.write(block);
+            count++;
+        }
+        if (count > 0) {
+            datagrams.add(sign(body, count));
+        }
+        return datagrams;
+    }
+    
+    private void runReceiverLoop() {
+        Mac verifier = newMac();
+        byte[] buffer = new byte[MAX_DATAGRAM_BYTES];
+        long nextExpiry = System.currentTimeMillis() + cluster.getGossipIntervalMs();
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                if (isAuthentic(packet, verifier)) {
+                    receive(packet);
+                } else {
+                    logger.debug("Dropping unauthenticated health gossip from {}", packet.getSocketAddress());
+                }
+            } catch (SocketTimeoutException e) {
+                // Nothing arrived within a gossip interval
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Failed to receive health gossip: {}", e.getMessage());
+                }
+            }
+            
+            long now = System.currentTimeMillis();
+            if (now >= nextExpiry) {
+                expireNodes(now);
+                nextExpiry = now + cluster.getGossipIntervalMs();
+            }
+        }
+    }
+    
+    private static boolean isAuthentic(DatagramPacket packet, Mac verifier) {
+        int signedLength = packet.getLength() - MAC_BYTES;
+        if (signedLength <= 0) {
+            return false;
+        }
+        verifier.update(packet.getData(), packet.getOffset(), signedLength);
+        byte[] expected = verifier.doFinal();
+        byte[] actual = new byte[MAC_BYTES];
+        System.arraycopy(packet.getData(), packet.getOffset() + signedLength, actual, 0, MAC_BYTES);
+        return MessageDigest.isEqual(expected, actual);
+    }
+    
+    private void receive(DatagramPacket packet) throws IOException {
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength() - MAC_BYTES));
+        if (in.readInt() != MAGIC) {
+            return;
+        }
+        String sender = in.readUTF();
+        if (nodeId.equals(sender)) {
+            return;
+        }
+        // Nodes only need to know a seed: whoever gossips to us becomes a node we gossip back to
+        InetSocketAddress senderAddress = (InetSocketAddress) packet.getSocketAddress();
+        peers.put(sender, senderAddress);
+        gossipTargets.add(senderAddress);
+        
+        long now = System.currentTimeMillis();
+        int nodes = in.readInt();
+        for (int i = 0; i < nodes; i++) {
+            String node = in.readUTF();
+            long nodeIncarnation = in.readLong();
+            long nodeHeartbeat = in.readLong();
+            RemoteNode previous = remoteNodes.get(node);
+            RemoteNode remote = nodeId.equals(node) ? null : observe(node, nodeIncarnation, nodeHeartbeat, now);
+            // Counters of a node (or incarnation) seen for the first time only set a baseline: its totals so far
+            // are history, not current health. Gateways a known node starts reporting later count in full.
+            boolean baseline = remote != null && remote != previous;
+            
+            int entries = in.readInt();
+            for (int j = 0; j < entries; j++) {
+                String gatewayName = in.readUTF();
+                long successes = in.readLong();
+                long failures = in.readLong();
+                if (remote != null && localCounters.containsKey(gatewayName)) {
+                    merge(remote, gatewayName, successes, failures, baseline);
+                }
+            }
+        }
+    }
+    
+    // Returns the state to merge a node's counters into, or null when they are stale
+    private RemoteNode observe(String node, long nodeIncarnation, long nodeHeartbeat, long now) {
+        RemoteNode known = remoteNodes.get(node);
+        if (known != null && nodeIncarnation == known.incarnation) {
+            if (nodeHeartbeat > known.heartbeat) {
+                known.heartbeat = nodeHeartbeat;
+                known.lastHeard = now;
+            }
+            return known;
+        }
+        if (known != null && nodeIncarnation < known.incarnation) {
+            return null;
+        }
+        
+        RemoteNode expired = expiredNodes.get(node);
+        if (expired != null && (nodeIncarnation < expired.incarnation
+                || nodeIncarnation == expired.incarnation && nodeHeartbeat <= expired.heartbeat)) {
+            return null;
+        }
+        expiredNodes.remove(node);
+        RemoteNode fresh = new RemoteNode(nodeIncarnation, nodeHeartbeat, now);
+        remoteNodes.put(node, fresh);
+        return fresh;
+    }
+    
+    private void merge(RemoteNode node, String gatewayName, long successes, long failures, boolean baseline) {
+        Counts known = node.counters.get(gatewayName);
+        if (baseline) {
+            node.counters.put(gatewayName, new Counts(successes, failures));
+            return;
+        }
+        
+        long knownSuccesses = known == null ? 0 : known.successes;
+        long knownFailures = known == null ? 0 : known.failures;
+        long newSuccesses = Math.max(0, successes - knownSuccesses);
+        long newFailures = Math.max(0, failures - knownFailures);
+        if (newSuccesses == 0 && newFailures == 0) {
+            return;
+        }
+        node.counters.put(gatewayName, new Counts(Math.max(successes, knownSuccesses), Math.max(failures, knownFailures)));
+        healthStateEngine.recordResults(gatewayName, newSuccesses, newFailures);
+    }
+    
+    private void expireNodes(long now) {
+        for (Iterator<Map.Entry<String, RemoteNode>> it = remoteNodes.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, RemoteNode> node = it.next();
+            if (now - node.getValue().lastHeard <= expiryMillis) {
+                continue;
+            }
+            it.remove();
+            node.getValue().lastHeard = now;
+            expiredNodes.put(node.getKey(), node.getValue());
+            
+            InetSocketAddress address = peers.remove(node.getKey());
+            if (address != null && !seeds.contains(address) && !peers.containsValue(address)) {
+                gossipTargets.remove(address);
+            }
+            logger.info("Cluster node {} not heard from in {} ms, forgetting it", node.getKey(), expiryMillis);
+        }
+        expiredNodes.values().removeIf(node -> now - node.lastHeard > expiryMillis);
+    }
+    
+    private static byte[] encodeNode(String node, long nodeIncarnation, long nodeHeartbeat,
+                                     List<Map.Entry<String, Counts>> counters) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(node);
+        out.writeLong(nodeIncarnation);
+        out.writeLong(nodeHeartbeat);
+        out.writeInt(counters.size());
+        for (Map.Entry<String, Counts> counter : counters) {
+            out.writeUTF(counter.getKey());
+            out.writeLong(counter.getValue().successes);
+            out.writeLong(counter.getValue().failures);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private byte[] header(int nodes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeUTF(nodeId);
+        out.writeInt(nodes);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private byte[] sign(ByteArrayOutputStream body, int nodes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() + 64 + MAC_BYTES);
+        bytes.write(header(nodes));
+        body.writeTo(bytes);
+        signer.update(bytes.toByteArray());
+        bytes.write(signer.doFinal());
+        return bytes.toByteArray();
+    }
+    
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign health gossip with " + MAC_ALGORITHM, e);
+        }
+    }
+    
+    private static final class LocalCounter {
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+    }
+    
+    private static final class RemoteNode {
+        private final long incarnation;
+        private final ConcurrentMap<String, Counts> counters = new ConcurrentHashMap<>();
+        private volatile long heartbeat;
+        private volatile long lastHeard;
+        
+        private RemoteNode(long incarnation, long heartbeat, long lastHeard) {
+            this.incarnation = incarnation;
+            this.heartbeat = heartbeat;
+            this.lastHeard = lastHeard;
+        }
+    }
+    
+    private static final class Counts {
+        private final long successes;
+        private final long failures;
+        
+        private Counts(long successes, long failures) {
+            this.successes = successes;
+            this.failures = failures;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.fairoz.service;
+
+import com.fairoz.event.DuplicateGatewayChargeEvent;
+import com.fairoz.model.DuplicateGatewayCharge;
+import com.fairoz.repository.DuplicateGatewayChargeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+
+// Persists every hedged charge that lost the race, so reconciliation can void or refund it against the
+// gateway's settlement report
+@Service
+public class DuplicateGatewayChargeRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateGatewayChargeRecorder.class);
+    
+    private final DuplicateGatewayChargeRepository duplicateGatewayChargeRepository;
+    
+    @Autowired
+    public DuplicateGatewayChargeRecorder(DuplicateGatewayChargeRepository duplicateGatewayChargeRepository) {
+        this.duplicateGatewayChargeRepository = duplicateGatewayChargeRepository;
+    }
+    
+    @EventListener
+    public void onDuplicateGatewayCharge(DuplicateGatewayChargeEvent event) {
+        try {
+            duplicateGatewayChargeRepository.save(new DuplicateGatewayCharge(
+                event.getOrderId(), BigDecimal.valueOf(event.getAmount()), event.getGatewayName(),
+                event.getGatewayTransactionId(), event.getWinningGatewayName(), event.getWinningGatewayTransactionId()));
+        } catch (RuntimeException e) {
+            // The WARN logged by the failover service still carries the gateway transaction ID
+            logger.error("Failed to record duplicate charge for order {}: gateway {} transaction {}",
+                        event.getOrderId(), event.getGatewayName(), event.getGatewayTransactionId(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.fairoz.service;
+
+import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class GatewayCallExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCallExecutor.class);
+    
+    private final PaymentGatewayService paymentGatewayService;
+    private final GatewayConcurrencyLimiter concurrencyLimiter;
+    private final PaymentMetrics paymentMetrics;
+    private final GatewayLatencyTracker latencyTracker;
+    private final GatewayHealthStateEngine healthStateEngine;
+    private final GatewayMetricsRollupService rollupService;
+    private final ExecutorService executor;
+    
+    @Autowired
+    public GatewayCallExecutor(PaymentGatewayService paymentGatewayService, 
+                              GatewayConcurrencyLimiter concurrencyLimiter,
+                              PaymentMetrics paymentMetrics,
+                              GatewayLatencyTracker latencyTracker,
+                              GatewayHealthStateEngine healthStateEngine,
+                              GatewayMetricsRollupService rollupService) {
+        this.paymentGatewayService = paymentGatewayService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.paymentMetrics = paymentMetrics;
+        this.latencyTracker = latencyTracker;
+        this.healthStateEngine = healthStateEngine;
+        this.rollupService = rollupService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-call-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public CompletableFuture<PaymentGatewayResponse> submit(String gateway, String orderId, 
+                                                          double amount, Map<String, Object> paymentDetails) {
+        if (!concurrencyLimiter.tryAcquire(gateway)) {
+            paymentMetrics.recordGatewayRejection(gateway);
+            logger.warn("Gateway {} at its concurrency limit of {}, rejecting call for order: {}", 
+                       gateway, concurrencyLimiter.getLimit(gateway), orderId);
+            return CompletableFuture.completedFuture(
+                new PaymentGatewayResponse(null, false, "Gateway concurrency limit reached"));
+        }
+        
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                PaymentGatewayResponse response = null;
+                try {
+                    response = paymentGatewayService.processPayment(gateway, orderId, amount, paymentDetails);
+                    return response;
+                } finally {
+                    long elapsedNanos = System.nanoTime() - started;
+                    boolean success = response != null && response.isSuccess();
+                    paymentMetrics.recordGatewayCall(gateway, elapsedNanos);
+                    latencyTracker.record(gateway, elapsedNanos, success);
+                    healthStateEngine.recordCall(gateway, success, elapsedNanos);
+                    rollupService.recordCall(gateway, elapsedNanos);
+                    concurrencyLimiter.release(gateway, elapsedNanos, response != null);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            concurrencyLimiter.cancel(gateway);
+            logger.error("Gateway call executor rejected call to {} for order: {}", gateway, orderId, e);
+            return CompletableFuture.completedFuture(
+                new PaymentGatewayResponse(null, false, "Gateway processing error"));
+        }
+    }
+    
+    public int getAvailablePermits(String gateway) {
+        return Math.max(0, concurrencyLimiter.getLimit(gateway) - concurrencyLimiter.getInFlight(gateway));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
\ No newline at end of file
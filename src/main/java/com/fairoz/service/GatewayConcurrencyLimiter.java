@@ -0,0 +1,202 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class GatewayConcurrencyLimiter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GatewayConcurrencyLimiter.class);
+    
+    static final int DEFAULT_MAX_CONCURRENT_CALLS = 50;
+    // The no-load latency is re-learned periodically so a gateway that got permanently slower is not starved
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+    
+    private final PaymentProperties paymentProperties;
+    private final PaymentProperties.ConcurrencyLimitConfig config;
+    private final MeterRegistry meterRegistry;
+    private final long dropLatencyNanos;
+    private final ConcurrentMap<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public GatewayConcurrencyLimiter(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        this.paymentProperties = paymentProperties;
+        this.config = paymentProperties.getConcurrencyLimit();
+        this.meterRegistry = meterRegistry;
+        this.dropLatencyNanos = TimeUnit.MILLISECONDS.toNanos(
+            paymentProperties.getCircuitBreaker().getSlowCallDurationMs());
+        
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gateway : paymentProperties.getGateways()) {
+                limitFor(gateway.getName());
+            }
+        }
+    }
+    
+    public boolean tryAcquire(String gateway) {
+        AdaptiveLimit limit = limitFor(gateway);
+        while (true) {
+            int current = limit.inFlight.get();
+            if (current >= limit.limit.get()) {
+                return false;
+            }
+            if (limit.inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    // Advisory check for routing; only tryAcquire actually reserves a slot
+    public boolean hasCapacity(String gateway) {
+        AdaptiveLimit limit = limitFor(gateway);
+        return limit.inFlight.get() < limit.limit.get();
+    }
+    
+    // A call without a response or slower than the slow-call threshold counts as a drop.
+    // Declined payments are answers from a healthy gateway and are not a sign of overload.
+    public void release(String gateway, long elapsedNanos, boolean responded) {
+        AdaptiveLimit limit = limitFor(gateway);
+        int inFlight = limit.inFlight.getAndDecrement();
+        if (!config.getEnabled()) {
+            return;
+        }
+        
+        if (!responded || elapsedNanos >= dropLatencyNanos) {
+            decrease(gateway, limit);
+        } else {
+            adjust(limit, Math.max(1, elapsedNanos), inFlight);
+        }
+    }
+    
+    // Returns the slot of a call that never reached the gateway, without treating it as a latency sample
+    public void cancel(String gateway) {
+        limitFor(gateway).inFlight.decrementAndGet();
+    }
+    
+    public int getLimit(String gateway) {
+        return limitFor(gateway).limit.get();
+    }
+    
+    public int getInFlight(String gateway) {
+        return limitFor(gateway).inFlight.get();
+    }
+    
+    public Map<String, Integer> getLimits() {
+        Map<String, Integer> snapshot = new LinkedHashMap<>();
+        limits.forEach((gateway, limit) -> snapshot.put(gateway, limit.limit.get()));
+        return snapshot;
+    }
+    
+    public Map<String, Integer> getInFlightCalls() {
+        Map<String, Integer> snapshot = new LinkedHashMap<>();
+        limits.forEach((gateway, limit) -> snapshot.put(gateway, limit.inFlight.get()));
+        return snapshot;
+    }
+    
+    // AIMD: back off multiplicatively as soon as the gateway times out or errors
+    private void decrease(String gateway, AdaptiveLimit limit) {
+        int current = limit.limit.get();
+        int reduced = Math.max(config.getMinLimit(), (int) (current * config.getBackoffRatio()));
+        if (reduced < current && limit.limit.compareAndSet(current, reduced)) {
+            logger.debug("Gateway {} concurrency limit reduced from {} to {}", gateway, current, reduced);
+        }
+    }
+    
+    // Vegas: estimate how many calls are queued at the gateway from how far latency is above its no-load minimum
+    private void adjust(AdaptiveLimit limit, long rttNanos, int inFlight) {
+        long minRtt = limit.updateMinRtt(rttNanos);
+        int current = limit.limit.get();
+        double queued = current * (1.0 - (double) minRtt / rttNanos);
+        double scale = Math.max(1.0, Math.log10(current));
+        
+        int next = current;
+        if (queued <= config.getAlpha() * scale) {
+            // Only grow a limit that is actually being used, otherwise idle gateways ratchet up forever
+            if (inFlight * 2 >= current) {
+                next = current + 1;
+            }
+        } else if (queued >= config.getBeta() * scale) {
+            next = current - 1;
+        }
+        
+        next = Math.max(config.getMinLimit(), Math.min(limit.maxLimit, next));
+        if (next != current) {
+            limit.limit.compareAndSet(current, next);
+        }
+    }
+    
+    private AdaptiveLimit limitFor(String gateway) {
+        AdaptiveLimit limit = limits.get(gateway);
+        if (limit != null) {
+            return limit;
+        }
+        return limits.computeIfAbsent(gateway, this::newLimit);
+    }
+    
+    private AdaptiveLimit newLimit(String gateway) {
+        int maxLimit = maxConcurrentCalls(gateway);
+        int initialLimit = config.getEnabled() ? Math.min(config.getInitialLimit(), maxLimit) : maxLimit;
+        AdaptiveLimit limit = new AdaptiveLimit(maxLimit, initialLimit);
+        
+        Gauge.builder("payment.gateway.concurrency.limit", limit.limit, AtomicInteger::get)
+            .description("Current adaptive concurrency limit of the gateway")
+            .tag("gateway", gateway)
+            .register(meterRegistry);
+        Gauge.builder("payment.gateway.inflight", limit.inFlight, AtomicInteger::get)
+            .description("Gateway calls currently in flight")
+            .tag("gateway", gateway)
+            .register(meterRegistry);
+        return limit;
+    }
+    
+    private int maxConcurrentCalls(String gateway) {
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gatewayConfig : paymentProperties.getGateways()) {
+                if (gatewayConfig.getName().equals(gateway) && gatewayConfig.getMaxConcurrentCalls() != null) {
+                    return gatewayConfig.getMaxConcurrentCalls();
+                }
+            }
+        }
+        return DEFAULT_MAX_CONCURRENT_CALLS;
+    }
+    
+    private static final class AdaptiveLimit {
+        private final int maxLimit;
+        private final AtomicInteger limit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong minRttNanos = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicInteger samples = new AtomicInteger();
+        
+        private AdaptiveLimit(int maxLimit, int initialLimit) {
+            this.maxLimit = maxLimit;
+            this.limit = new AtomicInteger(initialLimit);
+        }
+        
+        private long updateMinRtt(long rttNanos) {
+            if (samples.incrementAndGet() % MIN_RTT_RESET_SAMPLES == 0) {
+                minRttNanos.set(rttNanos);
+                return rttNanos;
+            }
+            while (true) {
+                long current = minRttNanos.get();
+                if (rttNanos >= current || minRttNanos.compareAndSet(current, rttNanos)) {
+                    return Math.min(current, rttNanos);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
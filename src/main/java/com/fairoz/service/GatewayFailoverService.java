@@ -0,0 +1,231 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.DuplicateGatewayChargeEvent;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class GatewayFailoverService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GatewayFailoverService.class);
+    
+    private static final double HEDGE_PERCENTILE = 0.95;
+    
+    private final GatewayCallExecutor gatewayCallExecutor;
+    private final GatewayRoutingService gatewayRoutingService;
+    private final RetryBudget retryBudget;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentProperties paymentProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentProperties.FailoverConfig failover;
+    private final long fastFailureNanos;
+    // Refreshed in the background so the call path never computes percentiles
+    private final ConcurrentMap<String, Long> hedgeDelayNanos = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService hedgeScheduler;
+    
+    @Autowired
+    public GatewayFailoverService(GatewayCallExecutor gatewayCallExecutor,
+                                  GatewayRoutingService gatewayRoutingService,
+                                  RetryBudget retryBudget,
+                                  PaymentMetrics paymentMetrics,
+                                  PaymentProperties paymentProperties,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.gatewayCallExecutor = gatewayCallExecutor;
+        this.gatewayRoutingService = gatewayRoutingService;
+        this.retryBudget = retryBudget;
+        this.paymentMetrics = paymentMetrics;
+        this.paymentProperties = paymentProperties;
+        this.eventPublisher = eventPublisher;
+        this.failover = paymentProperties.getFailover();
+        this.fastFailureNanos = TimeUnit.MILLISECONDS.toNanos(failover.getFastFailureMs());
+        this.hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public CompletableFuture<GatewayOutcome> submit(String gateway, String orderId,
+                                                    double amount, Map<String, Object> paymentDetails) {
+        if (!failover.getEnabled() || failover.getMaxAttempts() <= 1) {
+            return gatewayCallExecutor.submit(gateway, orderId, amount, paymentDetails)
+                .handle((response, error) -> new GatewayOutcome(gateway, error == null ? response : errorResponse()));
+        }
+        
+        retryBudget.recordRequest();
+        AttemptGroup group = new AttemptGroup(orderId, amount, paymentDetails);
+        group.attempt(gateway, false);
+        return group.result;
+    }
+    
+    public long getHedgeDelayNanos(String gateway) {
+        long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(failover.getHedgeMinDelayMs());
+        return Math.max(minDelayNanos, hedgeDelayNanos.getOrDefault(gateway, 0L));
+    }
+    
+    @Scheduled(fixedRate = 1000)
+    public void refreshHedgeDelays() {
+        if (!failover.getHedgingEnabled() || paymentProperties.getGateways() == null) {
+            return;
+        }
+        for (GatewayConfig gateway : paymentProperties.getGateways()) {
+            hedgeDelayNanos.put(gateway.getName(),
+                paymentMetrics.getGatewayCallPercentileNanos(gateway.getName(), HEDGE_PERCENTILE));
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        hedgeScheduler.shutdownNow();
+    }
+    
+    private static PaymentGatewayResponse errorResponse() {
+        return new PaymentGatewayResponse(null, false, "Gateway processing error");
+    }
+    
+    // Attempts for one transaction: the first successful response wins, otherwise the last failure is reported
+    private final class AttemptGroup {
+        
+        private final String orderId;
+        private final double amount;
+        private final Map<String, Object> paymentDetails;
+        private final CompletableFuture<GatewayOutcome> result = new CompletableFuture<>();
+        private final Set<String> triedGateways = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger attempts = new AtomicInteger(1);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile GatewayOutcome lastFailure;
+        
+        private AttemptGroup(String orderId, double amount, Map<String, Object> paymentDetails) {
+            this.orderId = orderId;
+            this.amount = amount;
+            this.paymentDetails = paymentDetails;
+        }
+        
+        private void attempt(String gateway, boolean hedge) {
+            triedGateways.add(gateway);
+            inFlight.incrementAndGet();
+            
+            long started = System.nanoTime();
+            CompletableFuture<PaymentGatewayResponse> call =
+                gatewayCallExecutor.submit(gateway, orderId, amount, paymentDetails);
+            if (!hedge && failover.getHedgingEnabled() && !call.isDone()) {
+                hedgeScheduler.schedule(() -> hedge(gateway, call), getHedgeDelayNanos(gateway), TimeUnit.NANOSECONDS);
+            }
+            call.whenComplete((response, error) ->
+                onComplete(new GatewayOutcome(gateway, error == null ? response : errorResponse()),
+                           System.nanoTime() - started));
+        }
+        
+        private void onComplete(GatewayOutcome outcome, long elapsedNanos) {
+            try {
+                if (outcome.getResponse().isSuccess()) {
+                    if (!result.complete(outcome)) {
+                        onDuplicateSuccess(outcome);
+                    } else if (attempts.get() > 1) {
+                        logger.info("Order {} completed on gateway {} after {} attempts",
+                                   orderId, outcome.getGateway(), attempts.get());
+                    }
+                    return;
+                }
+                
+                lastFailure = outcome;
+                // Slow failures are not retried: the caller has already waited long enough
+                if (!result.isDone() && elapsedNanos <= fastFailureNanos) {
+                    String next = reserveRetry();
+                    if (next != null) {
+                        logger.warn("Gateway {} failed for order {} ({}), failing over to {}",
+                                   outcome.getGateway(), orderId, outcome.getResponse().getErrorMessage(), next);
+                        paymentMetrics.recordFailover();
+                        attempt(next, false);
+                    }
+                }
+            } finally {
+                if (inFlight.decrementAndGet() == 0) {
+                    result.complete(lastFailure);
+                }
+            }
+        }
+        
+        // Only a success can complete the result before the last attempt, so another attempt already charged
+        // the customer and this charge is not recorded anywhere else
+        private void onDuplicateSuccess(GatewayOutcome outcome) {
+            GatewayOutcome winner = result.join();
+            logger.warn("Duplicate charge for order {}: gateway {} transaction {} lost to gateway {} transaction {}",
+                       orderId, outcome.getGateway(), outcome.getResponse().getTransactionId(),
+                       winner.getGateway(), winner.getResponse().getTransactionId());
+            paymentMetrics.recordDuplicateHedgeSuccess();
+            eventPublisher.publishEvent(new DuplicateGatewayChargeEvent(orderId, amount, outcome.getGateway(),
+                outcome.getResponse().getTransactionId(), winner.getGateway(), winner.getResponse().getTransactionId()));
+        }
+        
+        private void hedge(String gateway, CompletableFuture<PaymentGatewayResponse> call) {
+            if (call.isDone() || result.isDone()) {
+                return;
+            }
+            String next = reserveRetry();
+            if (next != null) {
+                logger.info("Gateway {} slower than p95 for order {}, hedging on {}", gateway, orderId, next);
+                paymentMetrics.recordHedge();
+                attempt(next, true);
+            }
+        }
+        
+        // Claims an attempt slot, a gateway not tried yet and a retry token, or nothing at all
+        private String reserveRetry() {
+            int current;
+            do {
+                current = attempts.get();
+                if (current >= failover.getMaxAttempts()) {
+                    return null;
+                }
+            } while (!attempts.compareAndSet(current, current + 1));
+            
+            String next = gatewayRoutingService.getRoutingSnapshot().nextBest(triedGateways);
+            if (next != null && retryBudget.tryWithdraw()) {
+                return next;
+            }
+            if (next != null) {
+                paymentMetrics.recordRetryDenied();
+                logger.debug("Retry budget exhausted, not retrying order {}", orderId);
+            }
+            attempts.decrementAndGet();
+            return null;
+        }
+    }
+    
+    public static class GatewayOutcome {
+        private final String gateway;
+        private final PaymentGatewayResponse response;
+        
+        public GatewayOutcome(String gateway, PaymentGatewayResponse response) {
+            this.gateway = gateway;
+            this.response = response;
+        }
+        
+        public String getGateway() {
+            return gateway;
+        }
+        
+        public PaymentGatewayResponse getResponse() {
+            return response;
+        }
+    }
+}
\ No newline at end of file
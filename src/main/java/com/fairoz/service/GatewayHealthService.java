@@ -1,116 +1,171 @@
 package com.fairoz.service;
 
 import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.CircuitState;
 import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.model.GatewayHealthSnapshot;
 import com.fairoz.repository.GatewayHealthMetricsRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
-@Transactional
 public class GatewayHealthService {
     
     private static final Logger logger = LoggerFactory.getLogger(GatewayHealthService.class);
     
     private final GatewayHealthMetricsRepository healthMetricsRepository;
     private final PaymentProperties paymentProperties;
+    private final GatewayHealthStateEngine healthStateEngine;
+    private final HealthStateStore healthStateStore;
+    private final HealthMetricsWriteBehindService writeBehindService;
+    private final PaymentMetrics paymentMetrics;
+    private final GatewayMetricsRollupService rollupService;
     
     @Autowired
     public GatewayHealthService(GatewayHealthMetricsRepository healthMetricsRepository, 
-                               PaymentProperties paymentProperties) {
+                               PaymentProperties paymentProperties,
+                               GatewayHealthStateEngine healthStateEngine,
+                               HealthStateStore healthStateStore,
+                               HealthMetricsWriteBehindService writeBehindService,
+                               PaymentMetrics paymentMetrics,
+                               GatewayMetricsRollupService rollupService) {
         this.healthMetricsRepository = healthMetricsRepository;
         this.paymentProperties = paymentProperties;
+        this.healthStateEngine = healthStateEngine;
+        this.healthStateStore = healthStateStore;
+        this.writeBehindService = writeBehindService;
+        this.paymentMetrics = paymentMetrics;
+        this.rollupService = rollupService;
     }
     
     public void recordTransactionResult(String gatewayName, boolean isSuccess) {
-        GatewayHealthMetrics currentMetrics = getCurrentOrCreateMetrics(gatewayName);
-        currentMetrics.recordTransaction(isSuccess);
+        healthStateStore.recordResults(gatewayName, isSuccess ? 1 : 0, isSuccess ? 0 : 1);
+        writeBehindService.enqueue(gatewayName, isSuccess);
+        paymentMetrics.recordOutcomes(gatewayName, isSuccess ? 1 : 0, isSuccess ? 0 : 1);
+        rollupService.recordOutcomes(gatewayName, isSuccess ? 1 : 0, isSuccess ? 0 : 1);
         
-        evaluateGatewayHealth(currentMetrics);
-        healthMetricsRepository.save(currentMetrics);
-        
-        logger.debug("Recorded transaction result for gateway: {} - Success: {} - Current success rate: {}%", 
-                    gatewayName, isSuccess, currentMetrics.getSuccessRate());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Recorded transaction result for gateway: {} - Success: {} - Current success rate: {}%", 
+                        gatewayName, isSuccess, healthStateEngine.getSuccessRate(gatewayName));
+        }
     }
     
-    public boolean isGatewayHealthy(String gatewayName) {
-        GatewayHealthMetrics metrics = getCurrentOrCreateMetrics(gatewayName);
-        boolean isHealthy = metrics.isCurrentlyHealthy();
+    public void recordTransactionResults(String gatewayName, long successes, long failures) {
+        healthStateStore.recordResults(gatewayName, successes, failures);
+        writeBehindService.enqueue(gatewayName, successes, failures);
+        paymentMetrics.recordOutcomes(gatewayName, successes, failures);
+        rollupService.recordOutcomes(gatewayName, successes, failures);
         
-        if (!isHealthy && metrics.getDisabledUntil() != null && 
-            LocalDateTime.now().isAfter(metrics.getDisabledUntil())) {
-            metrics.markAsHealthy();
-            healthMetricsRepository.save(metrics);
-            logger.info("Gateway {} is now healthy again after disabled period", gatewayName);
-            return true;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Recorded {} successes and {} failures for gateway: {} - Current success rate: {}%", 
+                        successes, failures, gatewayName, healthStateEngine.getSuccessRate(gatewayName));
         }
-        
-        return isHealthy;
     }
     
-    public Map<String, Double> getGatewaySuccessRates() {
-        LocalDateTime windowStart = LocalDateTime.now()
-            .minusMinutes(paymentProperties.getHealth().getMonitoringWindowMinutes());
-        
-        return healthMetricsRepository.findAllByWindowStartAfter(windowStart)
+    public boolean isGatewayHealthy(String gatewayName) {
+        return healthStateEngine.isHealthy(gatewayName);
+    }
+    
+    public boolean isGatewayProbing(String gatewayName) {
+        return healthStateEngine.isProbing(gatewayName);
+    }
+    
+    public boolean tryAcquireProbe(String gatewayName) {
+        return healthStateEngine.tryAcquireProbe(gatewayName);
+    }
+    
+    public Map<String, CircuitState> getCircuitStates() {
+        return healthStateEngine.getSnapshots()
+            .values()
             .stream()
-            .collect(Collectors.groupingBy(
-                GatewayHealthMetrics::getGatewayName,
-                Collectors.averagingDouble(GatewayHealthMetrics::getSuccessRate)
+            .collect(Collectors.toMap(
+                GatewayHealthSnapshot::getGatewayName,
+                GatewayHealthSnapshot::getCircuitState
             ));
     }
     
-    @Scheduled(fixedRate = 300000) // Every 5 minutes
-    public void cleanupOldMetrics() {
-        LocalDateTime cutoff = LocalDateTime.now()
-            .minusMinutes(paymentProperties.getHealth().getMonitoringWindowMinutes() * 2);
-        
-        List<GatewayHealthMetrics> oldMetrics = healthMetricsRepository.findAll()
+    public Set<String> getClusterPeers() {
+        return healthStateStore.getPeers();
+    }
+    
+    public Map<String, Double> getGatewaySuccessRates() {
+        return healthStateEngine.getSnapshots()
+            .values()
             .stream()
-            .filter(metrics -> metrics.getWindowStart().isBefore(cutoff))
-            .collect(Collectors.toList());
-        
-        if (!oldMetrics.isEmpty()) {
-            healthMetricsRepository.deleteAll(oldMetrics);
-            logger.debug("Cleaned up {} old health metrics records", oldMetrics.size());
-        }
+            .filter(snapshot -> snapshot.getTotalTransactions() > 0)
+            .collect(Collectors.toMap(
+                GatewayHealthSnapshot::getGatewayName,
+                GatewayHealthSnapshot::getSuccessRate
+            ));
     }
     
-    private GatewayHealthMetrics getCurrentOrCreateMetrics(String gatewayName) {
+    @PostConstruct
+    public void restoreHealthState() {
         LocalDateTime windowStart = LocalDateTime.now()
             .minusMinutes(paymentProperties.getHealth().getMonitoringWindowMinutes());
         
-        List<GatewayHealthMetrics> recentMetrics = healthMetricsRepository
-            .findByGatewayNameAndWindowStartAfter(gatewayName, windowStart);
-        
-        if (recentMetrics.isEmpty()) {
-            return new GatewayHealthMetrics(gatewayName);
+        Map<String, GatewayHealthMetrics> latestMetrics = new HashMap<>();
+        for (GatewayHealthMetrics metrics : healthMetricsRepository.findAllByWindowStartAfter(windowStart)) {
+            healthStateEngine.restore(metrics.getGatewayName(), toEpochMillis(metrics.getWindowStart()),
+                metrics.getSuccessfulTransactions(), metrics.getFailedTransactions());
+            latestMetrics.merge(metrics.getGatewayName(), metrics,
+                (a, b) -> a.getWindowStart().isAfter(b.getWindowStart()) ? a : b);
         }
         
-        return recentMetrics.get(0);
+        latestMetrics.values().stream()
+            .filter(metrics -> !metrics.isCurrentlyHealthy() && metrics.getDisabledUntil() != null)
+            .forEach(metrics -> healthStateEngine.restoreDisabled(
+                metrics.getGatewayName(), toEpochMillis(metrics.getDisabledUntil())));
+        
+        if (!latestMetrics.isEmpty()) {
+            logger.info("Restored health state for {} gateways from persisted metrics", latestMetrics.size());
+        }
     }
     
-    private void evaluateGatewayHealth(GatewayHealthMetrics metrics) {
-        double threshold = paymentProperties.getHealth().getSuccessRateThreshold();
+    // Deletes expired rows in chunks, each in its own short transaction, so the cost depends on
+    // the rows expired since the last run rather than on the size of the table
+    @Scheduled(fixedRateString = "${payment.health.cleanup-interval-ms:300000}")
+    public void cleanupOldMetrics() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now()
+            .minusMinutes(paymentProperties.getHealth().getMonitoringWindowMinutes() * 2);
+        int chunkSize = paymentProperties.getHealth().getCleanupChunkSize();
+        Pageable firstChunk = PageRequest.of(0, chunkSize);
         
-        if (metrics.getSuccessRate() < threshold && metrics.getTotalTransactions() >= 5) {
-            LocalDateTime disableUntil = LocalDateTime.now()
-                .plusMinutes(paymentProperties.getHealth().getDisableDurationMinutes());
-            
-            metrics.markAsUnhealthy(disableUntil);
-            
-            logger.warn("Gateway {} marked as unhealthy. Success rate: {}% (threshold: {}%). " +
-                       "Disabled until: {}", 
-                       metrics.getGatewayName(), metrics.getSuccessRate(), threshold, disableUntil);
+        long purged = 0;
+        List<Long> expiredIds;
+        do {
+            expiredIds = healthMetricsRepository.findIdsByWindowStartBefore(cutoff, firstChunk);
+            if (!expiredIds.isEmpty()) {
+                purged += healthMetricsRepository.deleteAllByIdIn(expiredIds);
+            }
+        } while (expiredIds.size() == chunkSize);
+        
+        long elapsedNanos = System.nanoTime() - started;
+        paymentMetrics.recordRetention(purged, elapsedNanos);
+        if (purged > 0) {
+            logger.debug("Cleaned up {} old health metrics records in {} ms", 
+                        purged, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
         }
     }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.GatewayHealthChangedEvent;
+import com.fairoz.model.CircuitState;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayHealthSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+@Component
+public class GatewayHealthStateEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GatewayHealthStateEngine.class);
+    
+    private static final long MIN_TRANSACTIONS_FOR_EVALUATION = 5;
+    
+    private final PaymentProperties paymentProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentMap<String, GatewayHealthState> states = new ConcurrentHashMap<>();
+    // Only configured gateways get state, so free-form callback gateway names cannot grow the map. Any other
+    // name reads as a healthy gateway without history, and its outcomes are dropped.
+    private final Set<String> configuredGateways;
+    private final GatewayHealthState untracked;
+    
+    @Autowired
+    public GatewayHealthStateEngine(PaymentProperties paymentProperties,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.paymentProperties = paymentProperties;
+        this.eventPublisher = eventPublisher;
+        this.configuredGateways = paymentProperties.getGateways() == null ? Set.of()
+            : paymentProperties.getGateways().stream().map(GatewayConfig::getName).collect(Collectors.toUnmodifiableSet());
+        this.untracked = new GatewayHealthState(PaymentMetrics.UNKNOWN_GATEWAY, newWindow());
+    }
+    
+    public boolean isHealthy(String gatewayName) {
+        return isHealthy(gatewayName, System.currentTimeMillis());
+    }
+    
+    public boolean isHealthy(String gatewayName, long nowMillis) {
+        AtomicReference<GatewayHealthSnapshot> status = stateFor(gatewayName).status;
+        GatewayHealthSnapshot current = status.get();
+        
+        if (current.isHealthy()) {
+            return true;
+        }
+        if (nowMillis < current.getDisabledUntilMillis()) {
+            return false;
+        }
+        
+        if (status.compareAndSet(current, halfOpen(current, nowMillis))) {
+            logger.info("Gateway {} circuit half-open, allowing {} probe calls", 
+                       gatewayName, paymentProperties.getCircuitBreaker().getHalfOpenProbes());
+            eventPublisher.publishEvent(new GatewayHealthChangedEvent(gatewayName, true));
+        }
+        return true;
+    }
+    
+    public boolean isProbing(String gatewayName) {
+        return stateFor(gatewayName).status.get().getCircuitState() == CircuitState.HALF_OPEN;
+    }
+    
+    public boolean tryAcquireProbe(String gatewayName) {
+        return tryAcquireProbe(gatewayName, System.currentTimeMillis());
+    }
+    
+    public boolean tryAcquireProbe(String gatewayName, long nowMillis) {
+        AtomicReference<GatewayHealthSnapshot> status = stateFor(gatewayName).status;
+        while (true) {
+            GatewayHealthSnapshot current = status.get();
+            if (current.getCircuitState() != CircuitState.HALF_OPEN) {
+                return current.getCircuitState() == CircuitState.CLOSED;
+            }
+            if (current.getProbesRemaining() > 0) {
+                if (status.compareAndSet(current, current.withProbeIssued())) {
+                    return true;
+                }
+                continue;
+            }
+            // Probes that never report back (rejected or lost) must not wedge the circuit half-open
+            if (nowMillis < current.getDisabledUntilMillis()) {
+                return false;
+            }
+            status.compareAndSet(current, halfOpen(current, nowMillis));
+        }
+    }
+    
+    public void recordCall(String gatewayName, boolean isSuccess, long elapsedNanos) {
+        recordCall(gatewayName, isSuccess, elapsedNanos, System.currentTimeMillis());
+    }
+    
+    public void recordCall(String gatewayName, boolean isSuccess, long elapsedNanos, long nowMillis) {
+        GatewayHealthState state = stateFor(gatewayName);
+        if (state == untracked) {
+            return;
+        }
+        GatewayHealthSnapshot current = state.status.get();
+        PaymentProperties.CircuitBreakerConfig breaker = paymentProperties.getCircuitBreaker();
+        boolean slow = elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(breaker.getSlowCallDurationMs());
+        
+        switch (current.getCircuitState()) {
+            case CLOSED -> {
+                int failures = isSuccess ? reset(state.consecutiveFailures) : state.consecutiveFailures.incrementAndGet();
+                int slowCalls = slow ? state.consecutiveSlowCalls.incrementAndGet() : reset(state.consecutiveSlowCalls);
+                if (failures >= breaker.getConsecutiveFailures()) {
+                    open(state, current, nowMillis, failures + " consecutive failed calls");
+                } else if (slowCalls >= breaker.getConsecutiveSlowCalls()) {
+                    open(state, current, nowMillis, slowCalls + " consecutive calls slower than "
+                        + breaker.getSlowCallDurationMs() + " ms");
+                }
+            }
+            case HALF_OPEN -> recordProbe(state, isSuccess, slow, nowMillis);
+            case OPEN -> {
+                // Calls that were already in flight when the circuit opened carry no new information
+            }
+        }
+    }
+    
+    public void recordResult(String gatewayName, boolean isSuccess) {
+        recordResult(gatewayName, isSuccess, System.currentTimeMillis());
+    }
+    
+    public void recordResult(String gatewayName, boolean isSuccess, long nowMillis) {
+        recordResults(gatewayName, isSuccess ? 1 : 0, isSuccess ? 0 : 1, nowMillis);
+    }
+    
+    public void recordResults(String gatewayName, long successes, long failures) {
+        recordResults(gatewayName, successes, failures, System.currentTimeMillis());
+    }
+    
+    public void recordResults(String gatewayName, long successes, long failures, long nowMillis) {
+        GatewayHealthState state = stateFor(gatewayName);
+        if (state == untracked) {
+            return;
+        }
+        SlidingWindowCounter window = state.window;
+        window.add(nowMillis, successes, failures);
+        
+        // Only a closed circuit is tripped by the success rate; half-open probes decide on their own calls
+        GatewayHealthSnapshot current = state.status.get();
+        if (current.getCircuitState() != CircuitState.CLOSED) {
+            return;
+        }
+        
+        long total = window.total(nowMillis);
+        if (total < MIN_TRANSACTIONS_FOR_EVALUATION) {
+            return;
+        }
+        
+        long successful = window.successes(nowMillis);
+        double successRate = (successful * 100.0) / total;
+        double threshold = paymentProperties.getHealth().getSuccessRateThreshold();
+        if (successRate >= threshold) {
+            return;
+        }
+        
+        open(state, current, current.withCounts(total, successful), nowMillis,
+            "success rate " + successRate + "% below threshold " + threshold + "%");
+    }
+    
+    public double getSuccessRate(String gatewayName) {
+        return getSnapshot(gatewayName).getSuccessRate();
+    }
+    
+    public GatewayHealthSnapshot getSnapshot(String gatewayName) {
+        return getSnapshot(gatewayName, System.currentTimeMillis());
+    }
+    
+    public GatewayHealthSnapshot getSnapshot(String gatewayName, long nowMillis) {
+        return snapshotOf(stateFor(gatewayName), nowMillis);
+    }
+    
+    public Map<String, GatewayHealthSnapshot> getSnapshots() {
+        long nowMillis = System.currentTimeMillis();
+        Map<String, GatewayHealthSnapshot> snapshots = new LinkedHashMap<>();
+        states.forEach((gatewayName, state) -> snapshots.put(gatewayName, snapshotOf(state, nowMillis)));
+        return snapshots;
+    }
+    
+    public void restore(String gatewayName, long timestampMillis, long successes, long failures) {
+        GatewayHealthState state = stateFor(gatewayName);
+        if (state != untracked) {
+            state.window.add(timestampMillis, successes, failures);
+        }
+    }
+    
+    public void restoreDisabled(String gatewayName, long disabledUntilMillis) {
+        GatewayHealthState state = stateFor(gatewayName);
+        if (state != untracked) {
+            state.status.updateAndGet(current -> current.open(disabledUntilMillis));
+        }
+    }
+    
+    private void recordProbe(GatewayHealthState state, boolean isSuccess, boolean slow, long nowMillis) {
+        int requiredProbes = paymentProperties.getCircuitBreaker().getHalfOpenProbes();
+        while (true) {
+            GatewayHealthSnapshot current = state.status.get();
+            if (current.getCircuitState() != CircuitState.HALF_OPEN) {
+                return;
+            }
+            if (!isSuccess || slow) {
+                open(state, current, nowMillis, isSuccess ? "slow probe call" : "failed probe call");
+                return;
+            }
+            
+            GatewayHealthSnapshot probed = current.withProbeSucceeded();
+            if (probed.getProbeSuccesses() < requiredProbes) {
+                if (state.status.compareAndSet(current, probed)) {
+                    return;
+                }
+                continue;
+            }
+            if (state.status.compareAndSet(current, current.close())) {
+                // Failures that opened the circuit must not trip it again straight away
+                state.window = newWindow();
+                state.consecutiveFailures.set(0);
+                state.consecutiveSlowCalls.set(0);
+                logger.info("Gateway {} circuit closed after {} successful probe calls",
+                           current.getGatewayName(), probed.getProbeSuccesses());
+                eventPublisher.publishEvent(new GatewayHealthChangedEvent(current.getGatewayName(), true));
+                return;
+            }
+        }
+    }
+    
+    private void open(GatewayHealthState state, GatewayHealthSnapshot current, long nowMillis, String reason) {
+        open(state, current, current, nowMillis, reason);
+    }
+    
+    private void open(GatewayHealthState state, GatewayHealthSnapshot current, GatewayHealthSnapshot observed,
+                      long nowMillis, String reason) {
+        long openDurationMs = paymentProperties.getCircuitBreaker().getOpenDurationMs();
+        if (state.status.compareAndSet(current, observed.open(nowMillis + openDurationMs))) {
+            state.consecutiveFailures.set(0);
+            state.consecutiveSlowCalls.set(0);
+            logger.warn("Gateway {} circuit opened: {}. Probing again in {} ms",
+                       current.getGatewayName(), reason, openDurationMs);
+            eventPublisher.publishEvent(new GatewayHealthChangedEvent(current.getGatewayName(), false));
+        }
+    }
+    
+    private GatewayHealthSnapshot halfOpen(GatewayHealthSnapshot current, long nowMillis) {
+        PaymentProperties.CircuitBreakerConfig breaker = paymentProperties.getCircuitBreaker();
+        return current.halfOpen(nowMillis + breaker.getOpenDurationMs(), breaker.getHalfOpenProbes());
+    }
+    
+    private static int reset(AtomicInteger counter) {
+        // Skip the write on the common all-good path so healthy gateways do not contend on the counter
+        if (counter.get() != 0) {
+            counter.set(0);
+        }
+        return 0;
+    }
+    
+    private GatewayHealthSnapshot snapshotOf(GatewayHealthState state, long nowMillis) {
+        SlidingWindowCounter window = state.window;
+        return state.status.get().withCounts(window.total(nowMillis), window.successes(nowMillis));
+    }
+    
+    private GatewayHealthState stateFor(String gatewayName) {
+        GatewayHealthState state = states.get(gatewayName);
+        if (state != null) {
+            return state;
+        }
+        if (!configuredGateways.contains(gatewayName)) {
+            return untracked;
+        }
+        return states.computeIfAbsent(gatewayName, name -> new GatewayHealthState(name, newWindow()));
+    }
+    
+    private SlidingWindowCounter newWindow() {
+        PaymentProperties.HealthConfig health = paymentProperties.getHealth();
+        long windowMillis = health.getMonitoringWindowMinutes() * 60_000L;
+        long bucketMillis = health.getBucketSeconds() * 1000L;
+        return new SlidingWindowCounter(windowMillis, bucketMillis);
+    }
+    
+    private static final class GatewayHealthState {
+        private volatile SlidingWindowCounter window;
+        private final AtomicReference<GatewayHealthSnapshot> status;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicInteger consecutiveSlowCalls = new AtomicInteger();
+        
+        private GatewayHealthState(String gatewayName, SlidingWindowCounter window) {
+            this.window = window;
+            this.status = new AtomicReference<>(GatewayHealthSnapshot.initial(gatewayName));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class GatewayLatencyTracker {
+    
+    private final double alpha;
+    private final ConcurrentMap<String, GatewayLatency> latencies = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public GatewayLatencyTracker(PaymentProperties paymentProperties) {
+        double configured = paymentProperties.getRouting().getLatencyEwmaAlpha();
+        if (configured <= 0 || configured > 1) {
+            throw new IllegalArgumentException("payment.routing.latency-ewma-alpha must be in (0, 1]");
+        }
+        this.alpha = configured;
+    }
+    
+    public void record(String gateway, long elapsedNanos, boolean success) {
+        GatewayLatency latency = latencyFor(gateway);
+        latency.update(latency.latencyNanos, elapsedNanos, alpha);
+        latency.update(latency.successRate, success ? 1.0 : 0.0, alpha);
+    }
+    
+    public double getLatencyMillis(String gateway) {
+        return latencyFor(gateway).getLatencyNanos() / 1_000_000.0;
+    }
+    
+    public double getSuccessRate(String gateway) {
+        return latencyFor(gateway).getSuccessRate();
+    }
+    
+    GatewayLatency latencyFor(String gateway) {
+        GatewayLatency latency = latencies.get(gateway);
+        if (latency != null) {
+            return latency;
+        }
+        return latencies.computeIfAbsent(gateway, name -> new GatewayLatency());
+    }
+    
+    // Averages are stored as double bits so updates are a lock-free CAS
+    static final class GatewayLatency {
+        private final AtomicLong latencyNanos = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicLong successRate = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        
+        double getLatencyNanos() {
+            double value = Double.longBitsToDouble(latencyNanos.get());
+            return Double.isNaN(value) ? 0.0 : value;
+        }
+        
+        double getSuccessRate() {
+            double value = Double.longBitsToDouble(successRate.get());
+            return Double.isNaN(value) ? 1.0 : value;
+        }
+        
+        // Lower is better: a gateway that fails half its calls costs as much as one twice as slow
+        double cost() {
+            return getLatencyNanos() / Math.max(getSuccessRate(), 0.01);
+        }
+        
+        private void update(AtomicLong average, double sample, double alpha) {
+            while (true) {
+                long currentBits = average.get();
+                double current = Double.longBitsToDouble(currentBits);
+                double next = Double.isNaN(current) ? sample : current + alpha * (sample - current);
+                if (average.compareAndSet(currentBits, Double.doubleToRawLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayMetricsRollup;
+import com.fairoz.repository.GatewayMetricsRollupRepository;
+import com.fairoz.service.MinuteRollupSeries.Bucket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-gateway, per-minute outcome and latency rollups for the monitoring API. Counts are kept in memory,
+// so dashboards read them without touching the database, and are flushed to gateway_metrics_rollups as
+// deltas added to the minute's row; on startup the recent minutes are loaded back.
+@Service
+public class GatewayMetricsRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GatewayMetricsRollupService.class);
+    
+    private final GatewayMetricsRollupRepository rollupRepository;
+    private final PaymentProperties paymentProperties;
+    private final int windowMinutes;
+    // Only configured gateways are tracked, so free-form callback gateway names cannot grow the map
+    private final Map<String, MinuteRollupSeries> series;
+    
+    @Autowired
+    public GatewayMetricsRollupService(GatewayMetricsRollupRepository rollupRepository,
+                                       PaymentProperties paymentProperties) {
+        this.rollupRepository = rollupRepository;
+        this.paymentProperties = paymentProperties;
+        this.windowMinutes = Math.max(1, paymentProperties.getRollup().getWindowMinutes());
+        Map<String, MinuteRollupSeries> gatewaySeries = new LinkedHashMap<>();
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gateway : paymentProperties.getGateways()) {
+                gatewaySeries.put(gateway.getName(), new MinuteRollupSeries(windowMinutes));
+            }
+        }
+        this.series = gatewaySeries;
+    }
+    
+    public void recordOutcomes(String gatewayName, long successes, long failures) {
+        MinuteRollupSeries gatewaySeries = series.get(gatewayName);
+        if (gatewaySeries != null) {
+            gatewaySeries.recordOutcomes(System.currentTimeMillis(), successes, failures);
+        }
+    }
+    
+    public void recordCall(String gatewayName, long elapsedNanos) {
+        MinuteRollupSeries gatewaySeries = series.get(gatewayName);
+        if (gatewaySeries != null) {
+            gatewaySeries.recordCall(System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+    }
+    
+    // Null for gateways that are not configured
+    public List<Bucket> getTimeseries(String gatewayName, int minutes) {
+        checkMinutes(minutes);
+        MinuteRollupSeries gatewaySeries = series.get(gatewayName);
+        return gatewaySeries == null ? null : gatewaySeries.buckets(System.currentTimeMillis(), minutes);
+    }
+    
+    public Map<String, Bucket> getTotals(int minutes) {
+        int clamped = Math.min(Math.max(1, minutes), windowMinutes);
+        long now = System.currentTimeMillis();
+        Map<String, Bucket> totals = new HashMap<>();
+        series.forEach((gatewayName, gatewaySeries) -> totals.put(gatewayName, gatewaySeries.total(now, clamped)));
+        return totals;
+    }
+    
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+    
+    @PostConstruct
+    public void restoreRollups() {
+        LocalDateTime windowStart = toLocalDateTime(
+            (System.currentTimeMillis() / MinuteRollupSeries.MINUTE_MILLIS - windowMinutes + 1) * MinuteRollupSeries.MINUTE_MILLIS);
+        int restored = 0;
+        for (GatewayMetricsRollup rollup : rollupRepository.findAllByMinuteStartAfter(windowStart)) {
+            MinuteRollupSeries gatewaySeries = series.get(rollup.getGatewayName());
+            if (gatewaySeries != null) {
+                gatewaySeries.restore(new Bucket(toEpochMillis(rollup.getMinuteStart()),
+                    rollup.getSuccessfulTransactions(), rollup.getFailedTransactions(),
+                    rollup.getGatewayCalls(), rollup.getLatencySumMicros()));
+                restored++;
+            }
+        }
+        if (restored > 0) {
+            logger.info("Restored {} gateway metric rollups from the last {} minutes", restored, windowMinutes);
+        }
+    }
+    
+    @Scheduled(fixedRateString = "${payment.rollup.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        int written = 0;
+        for (Map.Entry<String, MinuteRollupSeries> entry : series.entrySet()) {
+            try {
+                for (Bucket delta : entry.getValue().unflushed()) {
+                    write(entry.getKey(), delta);
+                    entry.getValue().markFlushed(delta);
+                    written++;
+                }
+            } catch (RuntimeException e) {
+                // Unwritten deltas stay pending and are retried on the next flush
+                logger.error("Failed to flush metric rollups for gateway: {}", entry.getKey(), e);
+            }
+        }
+        if (written > 0) {
+            logger.debug("Flushed {} gateway metric rollup deltas", written);
+        }
+        return written;
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush metric rollups on shutdown", e);
+        }
+    }
+    
+    @Scheduled(fixedRateString = "${payment.rollup.cleanup-interval-ms:300000}")
+    public void cleanupOldRollups() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(paymentProperties.getRollup().getRetentionHours());
+        int chunkSize = paymentProperties.getHealth().getCleanupChunkSize();
+        Pageable firstChunk = PageRequest.of(0, chunkSize);
+        
+        long purged = 0;
+        List<Long> expiredIds;
+        do {
+            expiredIds = rollupRepository.findIdsByMinuteStartBefore(cutoff, firstChunk);
+            if (!expiredIds.isEmpty()) {
+                purged += rollupRepository.deleteAllByIdIn(expiredIds);
+            }
+        } while (expiredIds.size() == chunkSize);
+        
+        if (purged > 0) {
+            logger.debug("Cleaned up {} expired gateway metric rollups", purged);
+        }
+    }
+    
+    private void write(String gatewayName, Bucket delta) {
+        LocalDateTime minuteStart = toLocalDateTime(delta.getMinuteStartMillis());
+        if (addToRollup(gatewayName, minuteStart, delta) > 0) {
+            return;
+        }
+        try {
+            rollupRepository.save(new GatewayMetricsRollup(gatewayName, minuteStart, delta.getSuccesses(),
+                delta.getFailures(), delta.getCalls(), delta.getLatencyMicros()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the minute's row first
+            addToRollup(gatewayName, minuteStart, delta);
+        }
+    }
+    
+    private int addToRollup(String gatewayName, LocalDateTime minuteStart, Bucket delta) {
+        return rollupRepository.addToRollup(gatewayName, minuteStart, delta.getSuccesses(), delta.getFailures(),
+            delta.getCalls(), delta.getLatencyMicros());
+    }
+    
+    private void checkMinutes(int minutes) {
+        if (minutes < 1 || minutes > windowMinutes) {
+            throw new IllegalArgumentException("minutes must be between 1 and " + windowMinutes);
+        }
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
\ No newline at end of file
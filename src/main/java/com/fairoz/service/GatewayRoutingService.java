@@ -1,15 +1,19 @@
 package com.fairoz.service;
 
 import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.GatewayHealthChangedEvent;
 import com.fairoz.model.GatewayConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class GatewayRoutingService {
@@ -18,68 +22,124 @@ public class GatewayRoutingService {
     
     private final PaymentProperties paymentProperties;
     private final GatewayHealthService gatewayHealthService;
-    private final Random random;
+    private final GatewaySelector gatewaySelector;
+    private final GatewayConcurrencyLimiter concurrencyLimiter;
+    private final PaymentMetrics paymentMetrics;
+    
+    private volatile RoutingSnapshot routingSnapshot;
     
     @Autowired
     public GatewayRoutingService(PaymentProperties paymentProperties, 
-                                GatewayHealthService gatewayHealthService) {
+                                GatewayHealthService gatewayHealthService,
+                                GatewaySelector gatewaySelector,
+                                GatewayConcurrencyLimiter concurrencyLimiter,
+                                PaymentMetrics paymentMetrics) {
         this.paymentProperties = paymentProperties;
         this.gatewayHealthService = gatewayHealthService;
-        this.random = new Random();
+        this.gatewaySelector = gatewaySelector;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.paymentMetrics = paymentMetrics;
     }
     
     public String selectGateway() {
-        List<GatewayConfig> availableGateways = getAvailableGateways();
+        long started = System.nanoTime();
+        RoutingSnapshot snapshot = getRoutingSnapshot();
         
-        if (availableGateways.isEmpty()) {
+        if (snapshot.isEmpty()) {
             logger.error("No healthy gateways available for routing");
             throw new RuntimeException("No healthy gateways available");
         }
         
-        String selectedGateway = performWeightedSelection(availableGateways);
+        String selectedGateway = select(snapshot);
+        paymentMetrics.recordSelection(System.nanoTime() - started);
+        if (selectedGateway == null) {
+            logger.error("All available gateways are half-open and out of probe calls");
+            throw new RuntimeException("No healthy gateways available");
+        }
         
         logger.info("Selected gateway: {} from {} available gateways", 
-                   selectedGateway, availableGateways.size());
+                   selectedGateway, snapshot.size());
         
         return selectedGateway;
     }
     
+    // Half-open gateways only take calls their circuit breaker has a probe permit for
+    public String select(RoutingSnapshot snapshot) {
+        String selectedGateway = snapshot.select();
+        if (snapshot.isProbing(selectedGateway) && !gatewayHealthService.tryAcquireProbe(selectedGateway)) {
+            selectedGateway = snapshot.selectClosed();
+        }
+        if (selectedGateway == null || concurrencyLimiter.hasCapacity(selectedGateway)) {
+            return selectedGateway;
+        }
+        return reroute(snapshot, selectedGateway);
+    }
+    
     public List<String> getHealthyGateways() {
-        return getAvailableGateways()
-            .stream()
-            .map(GatewayConfig::getName)
-            .collect(Collectors.toList());
+        return getRoutingSnapshot().getGatewayNames();
     }
     
-    private List<GatewayConfig> getAvailableGateways() {
-        return paymentProperties.getGateways()
-            .stream()
-            .filter(gateway -> gateway.getEnabled())
-            .filter(gateway -> gatewayHealthService.isGatewayHealthy(gateway.getName()))
-            .collect(Collectors.toList());
+    public RoutingSnapshot getRoutingSnapshot() {
+        RoutingSnapshot snapshot = routingSnapshot;
+        return snapshot != null ? snapshot : refreshRoutingSnapshot();
     }
     
-    private String performWeightedSelection(List<GatewayConfig> gateways) {
-        int totalWeight = gateways.stream()
-            .mapToInt(GatewayConfig::getWeight)
-            .sum();
-        
-        if (totalWeight == 0) {
-            return gateways.get(random.nextInt(gateways.size())).getName();
+    @EventListener
+    public void onGatewayHealthChanged(GatewayHealthChangedEvent event) {
+        logger.debug("Gateway {} health changed to {}, refreshing routing snapshot", 
+                    event.getGatewayName(), event.isHealthy() ? "healthy" : "unhealthy");
+        refreshRoutingSnapshot();
+    }
+    
+    @Scheduled(fixedDelayString = "${payment.routing.refresh-interval-ms:1000}")
+    public synchronized RoutingSnapshot refreshRoutingSnapshot() {
+        while (true) {
+            RoutingSnapshot current = routingSnapshot;
+            List<GatewayConfig> gateways = paymentProperties.getGateways();
+            
+            if (current != null && current.matches(gateways, gatewayHealthService)) {
+                return current;
+            }
+            
+            List<GatewayConfig> availableGateways = new ArrayList<>();
+            Set<String> probingGateways = new HashSet<>();
+            for (GatewayConfig gateway : gateways) {
+                if (gateway.getEnabled() && gatewayHealthService.isGatewayHealthy(gateway.getName())) {
+                    availableGateways.add(gateway);
+                    if (gatewayHealthService.isGatewayProbing(gateway.getName())) {
+                        probingGateways.add(gateway.getName());
+                    }
+                }
+            }
+            
+            if (routingSnapshot != current) {
+                continue;
+            }
+            
+            RoutingSnapshot next = RoutingSnapshot.build(
+                current == null ? 1 : current.getVersion() + 1, availableGateways, probingGateways, gatewaySelector);
+            routingSnapshot = next;
+            paymentMetrics.setHealthyGateways(next.size());
+            
+            logger.info("Published routing snapshot v{} with {} available gateways: {} (half-open: {})", 
+                       next.getVersion(), next.size(), next.getGatewayNames(), next.getProbingGateways());
+            return next;
         }
-        
-        int randomWeight = random.nextInt(totalWeight);
-        int currentWeight = 0;
-        
-        for (GatewayConfig gateway : gateways) {
-            currentWeight += gateway.getWeight();
-            if (randomWeight < currentWeight) {
-                logger.debug("Gateway selection: {} selected with weight {} (total weight: {}, random: {})", 
-                           gateway.getName(), gateway.getWeight(), totalWeight, randomWeight);
-                return gateway.getName();
+    }
+    
+    // Moves a selection off a gateway at its concurrency limit to the next-best gateway with spare capacity.
+    // If every gateway is saturated the original choice stands and the call executor rejects it.
+    private String reroute(RoutingSnapshot snapshot, String saturatedGateway) {
+        Set<String> excluded = new HashSet<>();
+        excluded.add(saturatedGateway);
+        for (String next = snapshot.nextBest(excluded); next != null; next = snapshot.nextBest(excluded)) {
+            if (concurrencyLimiter.hasCapacity(next)) {
+                paymentMetrics.recordLimitReroute(saturatedGateway);
+                logger.debug("Gateway {} at its concurrency limit, routing to {}", saturatedGateway, next);
+                return next;
             }
+            excluded.add(next);
         }
-        
-        return gateways.get(gateways.size() - 1).getName();
+        return saturatedGateway;
     }
 }
\ No newline at end of file
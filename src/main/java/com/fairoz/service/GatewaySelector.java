@@ -0,0 +1,17 @@
+package com.fairoz.service;
+
+import com.fairoz.model.GatewayConfig;
+
+import java.util.List;
+
+public interface GatewaySelector {
+    
+    Selection prepare(List<GatewayConfig> gateways);
+    
+    interface Selection {
+        
+        String select();
+        
+        int size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.model.GatewayHealthSnapshot;
+import com.fairoz.repository.GatewayHealthMetricsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class HealthMetricsWriteBehindService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HealthMetricsWriteBehindService.class);
+    
+    private static final long IDLE_POLL_MILLIS = 100;
+    
+    private final GatewayHealthMetricsRepository healthMetricsRepository;
+    private final GatewayHealthStateEngine healthStateEngine;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<HealthOutcome> queue;
+    // Built once from the configured gateways; outcomes for any other name are not persisted
+    private final Map<String, HealthOutcome[]> outcomes;
+    private final AtomicLong droppedOutcomes = new AtomicLong();
+    
+    private volatile boolean running;
+    private Thread writerThread;
+    
+    @Autowired
+    public HealthMetricsWriteBehindService(GatewayHealthMetricsRepository healthMetricsRepository,
+                                           GatewayHealthStateEngine healthStateEngine,
+                                           PaymentProperties paymentProperties) {
+        this.healthMetricsRepository = healthMetricsRepository;
+        this.healthStateEngine = healthStateEngine;
+        PaymentProperties.HealthConfig health = paymentProperties.getHealth();
+        this.flushSize = health.getFlushSize();
+        this.flushIntervalMillis = health.getFlushIntervalMs();
+        this.queue = new ArrayBlockingQueue<>(health.getQueueCapacity());
+        Map<String, HealthOutcome[]> byGateway = new HashMap<>();
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gateway : paymentProperties.getGateways()) {
+                String name = gateway.getName();
+                byGateway.put(name, new HealthOutcome[] { new HealthOutcome(name, 0, 1), new HealthOutcome(name, 1, 0) });
+            }
+        }
+        this.outcomes = Map.copyOf(byGateway);
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runWriterLoop, "health-metrics-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(flushIntervalMillis + 1000);
+        }
+    }
+    
+    public boolean enqueue(String gatewayName, boolean isSuccess) {
+        HealthOutcome[] cached = outcomes.get(gatewayName);
+        if (cached == null) {
+            return false;
+        }
+        if (queue.offer(cached[isSuccess ? 1 : 0])) {
+            return true;
+        }
+        
+        recordDropped(1);
+        return false;
+    }
+    
+    public boolean enqueue(String gatewayName, long successes, long failures) {
+        if (!outcomes.containsKey(gatewayName)) {
+            return false;
+        }
+        if (queue.offer(new HealthOutcome(gatewayName, successes, failures))) {
+            return true;
+        }
+        
+        recordDropped(successes + failures);
+        return false;
+    }
+    
+    // Warns on the first drop and then each time the total crosses another thousand, however many
+    // outcomes a single drop carries
+    private void recordDropped(long count) {
+        long before = droppedOutcomes.getAndAdd(count);
+        long after = before + count;
+        if (before == 0 || before / 1000 != after / 1000) {
+            logger.warn("Health metrics queue is full, dropped {} outcomes so far", after);
+        }
+    }
+    
+    public int flushPending() {
+        int flushed = 0;
+        List<HealthOutcome> batch = new ArrayList<>(flushSize);
+        while (queue.drainTo(batch, flushSize) > 0) {
+            flushed += batch.size();
+            flush(batch);
+            batch.clear();
+        }
+        return flushed;
+    }
+    
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    public long getDroppedOutcomes() {
+        return droppedOutcomes.get();
+    }
+    
+    private void runWriterLoop() {
+        List<HealthOutcome> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                HealthOutcome first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (running && batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    HealthOutcome next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Failed to persist {} health outcomes", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        try {
+            flushPending();
+        } catch (RuntimeException e) {
+            logger.error("Failed to persist health outcomes on shutdown", e);
+        }
+    }
+    
+    private void flush(List<HealthOutcome> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        Map<String, GatewayHealthMetrics> aggregated = new HashMap<>();
+        for (HealthOutcome outcome : batch) {
+            if (!outcomes.containsKey(outcome.gatewayName)) {
+                continue;
+            }
+            aggregated.computeIfAbsent(outcome.gatewayName, GatewayHealthMetrics::new)
+                .recordTransactions(outcome.successes, outcome.failures);
+        }
+        
+        if (aggregated.isEmpty()) {
+            return;
+        }
+        for (GatewayHealthMetrics metrics : aggregated.values()) {
+            GatewayHealthSnapshot snapshot = healthStateEngine.getSnapshot(metrics.getGatewayName());
+            if (!snapshot.isHealthy()) {
+                metrics.markAsUnhealthy(LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(snapshot.getDisabledUntilMillis()), ZoneId.systemDefault()));
+            }
+        }
+        
+        healthMetricsRepository.saveAll(aggregated.values());
+        logger.debug("Flushed {} health outcomes as {} gateway metric rows", batch.size(), aggregated.size());
+    }
+    
+    private static final class HealthOutcome {
+        private final String gatewayName;
+        private final long successes;
+        private final long failures;
+        
+        private HealthOutcome(String gatewayName, long successes, long failures) {
+            this.gatewayName = gatewayName;
+            this.successes = successes;
+            this.failures = failures;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.fairoz.service;
+
+import java.util.Set;
+
+// Where gateway call outcomes are pooled before the health state engine evaluates them
+public interface HealthStateStore {
+    
+    void recordResults(String gatewayName, long successes, long failures);
+    
+    Set<String> getPeers();
+}
@@ -0,0 +1,29 @@
+package com.fairoz.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(prefix = "payment.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class InProcessHealthStateStore implements HealthStateStore {
+    
+    private final GatewayHealthStateEngine healthStateEngine;
+    
+    @Autowired
+    public InProcessHealthStateStore(GatewayHealthStateEngine healthStateEngine) {
+        this.healthStateEngine = healthStateEngine;
+    }
+    
+    @Override
+    public void recordResults(String gatewayName, long successes, long failures) {
+        healthStateEngine.recordResults(gatewayName, successes, failures);
+    }
+    
+    @Override
+    public Set<String> getPeers() {
+        return Set.of();
+    }
+}
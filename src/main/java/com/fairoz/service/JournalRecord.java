@@ -0,0 +1,144 @@
+package com.fairoz.service;
+
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One transaction state change in the journal. Every record carries a snapshot of the transaction,
+// but only the columns that belong to its type are projected, so records for one transaction commute
+// with each other except within the same type.
+final class JournalRecord {
+    
+    enum Type {
+        INITIATED,
+        GATEWAY_ASSIGNED,
+        STATUS_CHANGED
+    }
+    
+    private final Type type;
+    private final Transaction transaction;
+    private long sequence;
+    
+    JournalRecord(Type type, Transaction transaction) {
+        this.type = type;
+        this.transaction = copyOf(transaction);
+    }
+    
+    Type getType() {
+        return type;
+    }
+    
+    Transaction getTransaction() {
+        return transaction;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+    
+    // Applies the columns a change record carries onto another snapshot of the same transaction
+    void applyTo(Transaction target) {
+        switch (type) {
+            case INITIATED -> {
+                return;
+            }
+            case GATEWAY_ASSIGNED -> {
+                target.setSelectedGateway(transaction.getSelectedGateway());
+                target.setGatewayTransactionId(transaction.getGatewayTransactionId());
+            }
+            case STATUS_CHANGED -> {
+                target.setStatus(transaction.getStatus());
+                target.setFailureReason(transaction.getFailureReason());
+            }
+        }
+        target.setUpdatedAt(transaction.getUpdatedAt());
+    }
+    
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeLong(transaction.getId());
+            out.writeUTF(transaction.getOrderId());
+            out.writeUTF(transaction.getAmount().toPlainString());
+            PaymentInstrument instrument = transaction.getPaymentInstrument();
+            out.writeBoolean(instrument != null);
+            if (instrument != null) {
+                writeNullable(out, instrument.getType());
+                writeNullable(out, instrument.getCardNumber());
+                writeNullable(out, instrument.getExpiry());
+                writeNullable(out, instrument.getCvv());
+                writeNullable(out, instrument.getHolderName());
+            }
+            writeNullable(out, transaction.getSelectedGateway());
+            out.writeUTF(transaction.getStatus().name());
+            writeNullable(out, transaction.getFailureReason());
+            writeNullable(out, transaction.getGatewayTransactionId());
+            out.writeUTF(transaction.getCreatedAt().toString());
+            out.writeUTF(transaction.getUpdatedAt().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    static JournalRecord decode(long sequence, DataInput in) throws IOException {
+        Type type = Type.values()[in.readByte()];
+        Transaction transaction = new Transaction();
+        transaction.setId(in.readLong());
+        transaction.setOrderId(in.readUTF());
+        transaction.setAmount(new BigDecimal(in.readUTF()));
+        if (in.readBoolean()) {
+            transaction.setPaymentInstrument(new PaymentInstrument(
+                readNullable(in), readNullable(in), readNullable(in), readNullable(in), readNullable(in)));
+        }
+        transaction.setSelectedGateway(readNullable(in));
+        transaction.setStatus(TransactionStatus.valueOf(in.readUTF()));
+        transaction.setFailureReason(readNullable(in));
+        transaction.setGatewayTransactionId(readNullable(in));
+        transaction.setCreatedAt(LocalDateTime.parse(in.readUTF()));
+        transaction.setUpdatedAt(LocalDateTime.parse(in.readUTF()));
+        
+        JournalRecord record = new JournalRecord(type, transaction);
+        record.setSequence(sequence);
+        return record;
+    }
+    
+    static Transaction copyOf(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getOrderId(), transaction.getAmount(),
+            transaction.getPaymentInstrument());
+        copy.setId(transaction.getId());
+        copy.setSelectedGateway(transaction.getSelectedGateway());
+        copy.setStatus(transaction.getStatus());
+        copy.setFailureReason(transaction.getFailureReason());
+        copy.setGatewayTransactionId(transaction.getGatewayTransactionId());
+        copy.setCreatedAt(transaction.getCreatedAt());
+        copy.setUpdatedAt(transaction.getUpdatedAt());
+        copy.setVersion(transaction.getVersion());
+        return copy;
+    }
+    
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
\ No newline at end of file
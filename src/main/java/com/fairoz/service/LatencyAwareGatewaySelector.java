@@ -0,0 +1,60 @@
+package com.fairoz.service;
+
+import com.fairoz.model.GatewayConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "payment.routing", name = "strategy", havingValue = "latency-aware")
+public class LatencyAwareGatewaySelector implements GatewaySelector {
+    
+    private final GatewayLatencyTracker latencyTracker;
+    private final AliasTableGatewaySelector weightedSelector = new AliasTableGatewaySelector();
+    
+    @Autowired
+    public LatencyAwareGatewaySelector(GatewayLatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+    
+    @Override
+    public Selection prepare(List<GatewayConfig> gateways) {
+        AliasTableGatewaySelector.AliasTable weighted = weightedSelector.prepare(gateways);
+        GatewayLatencyTracker.GatewayLatency[] latencies = new GatewayLatencyTracker.GatewayLatency[gateways.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = latencyTracker.latencyFor(gateways.get(i).getName());
+        }
+        return new PowerOfTwoChoices(weighted, latencies);
+    }
+    
+    // Draws two candidates by configured weight and keeps the cheaper one, so a degraded gateway
+    // only wins when it is drawn twice and still receives enough traffic to notice its recovery
+    static final class PowerOfTwoChoices implements Selection {
+        
+        private final AliasTableGatewaySelector.AliasTable weighted;
+        private final GatewayLatencyTracker.GatewayLatency[] latencies;
+        
+        PowerOfTwoChoices(AliasTableGatewaySelector.AliasTable weighted,
+                          GatewayLatencyTracker.GatewayLatency[] latencies) {
+            this.weighted = weighted;
+            this.latencies = latencies;
+        }
+        
+        @Override
+        public String select() {
+            int first = weighted.selectIndex();
+            int second = weighted.selectIndex();
+            if (first != second && latencies[second].cost() < latencies[first].cost()) {
+                first = second;
+            }
+            return weighted.name(first);
+        }
+        
+        @Override
+        public int size() {
+            return weighted.size();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,239 @@
+package com.fairoz.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Per-minute counters for one gateway in a ring of buckets. Recording is lock-free like SlidingWindowCounter;
+// reads cost one pass over the requested minutes. The flusher tracks what it has persisted per bucket, so
+// each flush writes only the counts added since the previous one.
+public final class MinuteRollupSeries {
+    
+    public static final long MINUTE_MILLIS = 60_000L;
+    
+    private static final long RESETTING = -1L;
+    
+    private final int bucketCount;
+    private final AtomicLongArray minutes;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+    private final AtomicLongArray calls;
+    private final AtomicLongArray latencyMicros;
+    // Only touched by the flusher
+    private final long[] flushedMinutes;
+    private final Bucket[] flushed;
+    
+    public MinuteRollupSeries(int bucketCount) {
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("Bucket count must be positive");
+        }
+        this.bucketCount = bucketCount;
+        this.minutes = new AtomicLongArray(bucketCount);
+        this.successes = new AtomicLongArray(bucketCount);
+        this.failures = new AtomicLongArray(bucketCount);
+        this.calls = new AtomicLongArray(bucketCount);
+        this.latencyMicros = new AtomicLongArray(bucketCount);
+        this.flushedMinutes = new long[bucketCount];
+        this.flushed = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            minutes.set(i, Long.MIN_VALUE);
+            flushedMinutes[i] = Long.MIN_VALUE;
+        }
+    }
+    
+    public void recordOutcomes(long timestampMillis, long successCount, long failureCount) {
+        int slot = slotFor(timestampMillis / MINUTE_MILLIS);
+        if (slot < 0) {
+            return;
+        }
+        if (successCount > 0) {
+            successes.addAndGet(slot, successCount);
+        }
+        if (failureCount > 0) {
+            failures.addAndGet(slot, failureCount);
+        }
+    }
+    
+    public void recordCall(long timestampMillis, long latencyMicrosValue) {
+        int slot = slotFor(timestampMillis / MINUTE_MILLIS);
+        if (slot < 0) {
+            return;
+        }
+        calls.incrementAndGet(slot);
+        latencyMicros.addAndGet(slot, latencyMicrosValue);
+    }
+    
+    // Loads persisted counts on startup; they count as already flushed
+    public synchronized void restore(Bucket bucket) {
+        long minute = bucket.getMinuteStartMillis() / MINUTE_MILLIS;
+        int slot = slotFor(minute);
+        if (slot < 0) {
+            return;
+        }
+        successes.addAndGet(slot, bucket.getSuccesses());
+        failures.addAndGet(slot, bucket.getFailures());
+        calls.addAndGet(slot, bucket.getCalls());
+        latencyMicros.addAndGet(slot, bucket.getLatencyMicros());
+        markFlushed(bucket);
+    }
+    
+    // Every minute of the range, oldest first, including minutes without traffic
+    public List<Bucket> buckets(long nowMillis, int minuteCount) {
+        long currentMinute = nowMillis / MINUTE_MILLIS;
+        int count = Math.min(minuteCount, bucketCount);
+        List<Bucket> result = new ArrayList<>(count);
+        for (long minute = currentMinute - count + 1; minute <= currentMinute; minute++) {
+            Bucket bucket = read((int) Math.floorMod(minute, (long) bucketCount), minute);
+            result.add(bucket != null ? bucket : new Bucket(minute * MINUTE_MILLIS, 0, 0, 0, 0));
+        }
+        return result;
+    }
+    
+    public Bucket total(long nowMillis, int minuteCount) {
+        long successCount = 0;
+        long failureCount = 0;
+        long callCount = 0;
+        long latencySum = 0;
+        for (Bucket bucket : buckets(nowMillis, minuteCount)) {
+            successCount += bucket.getSuccesses();
+            failureCount += bucket.getFailures();
+            callCount += bucket.getCalls();
+            latencySum += bucket.getLatencyMicros();
+        }
+        long currentMinute = nowMillis / MINUTE_MILLIS;
+        long firstMinute = currentMinute - Math.min(minuteCount, bucketCount) + 1;
+        return new Bucket(firstMinute * MINUTE_MILLIS, successCount, failureCount, callCount, latencySum);
+    }
+    
+    // Counts added since the last flush, one delta per minute that changed
+    public synchronized List<Bucket> unflushed() {
+        List<Bucket> deltas = new ArrayList<>();
+        for (int slot = 0; slot < bucketCount; slot++) {
+            long minute = minutes.get(slot);
+            if (minute == Long.MIN_VALUE || minute == RESETTING) {
+                continue;
+            }
+            Bucket current = read(slot, minute);
+            if (current == null) {
+                continue;
+            }
+            Bucket base = flushedMinutes[slot] == minute ? flushed[slot] : null;
+            Bucket delta = base == null ? current : current.minus(base);
+            if (!delta.isEmpty()) {
+                deltas.add(delta);
+            }
+        }
+        return deltas;
+    }
+    
+    public synchronized void markFlushed(Bucket delta) {
+        long minute = delta.getMinuteStartMillis() / MINUTE_MILLIS;
+        int slot = (int) Math.floorMod(minute, (long) bucketCount);
+        if (flushedMinutes[slot] == minute && flushed[slot] != null) {
+            flushed[slot] = flushed[slot].plus(delta);
+        } else {
+            flushedMinutes[slot] = minute;
+            flushed[slot] = delta;
+        }
+    }
+    
+    public int getBucketCount() {
+        return bucketCount;
+    }
+    
+    private int slotFor(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) bucketCount);
+        while (true) {
+            long current = minutes.get(slot);
+            if (current == minute) {
+                return slot;
+            }
+            if (current > minute) {
+                return -1;
+            }
+            if (current != RESETTING && minutes.compareAndSet(slot, current, RESETTING)) {
+                successes.set(slot, 0);
+                failures.set(slot, 0);
+                calls.set(slot, 0);
+                latencyMicros.set(slot, 0);
+                minutes.set(slot, minute);
+                return slot;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    // Null when the slot holds another minute or is reset while being read
+    private Bucket read(int slot, long minute) {
+        if (minutes.get(slot) != minute) {
+            return null;
+        }
+        Bucket bucket = new Bucket(minute * MINUTE_MILLIS, successes.get(slot), failures.get(slot),
+            calls.get(slot), latencyMicros.get(slot));
+        return minutes.get(slot) == minute ? bucket : null;
+    }
+    
+    public static final class Bucket {
+        private final long minuteStartMillis;
+        private final long successes;
+        private final long failures;
+        private final long calls;
+        private final long latencyMicros;
+        
+        public Bucket(long minuteStartMillis, long successes, long failures, long calls, long latencyMicros) {
+            this.minuteStartMillis = minuteStartMillis;
+            this.successes = successes;
+            this.failures = failures;
+            this.calls = calls;
+            this.latencyMicros = latencyMicros;
+        }
+        
+        public long getMinuteStartMillis() {
+            return minuteStartMillis;
+        }
+        
+        public long getSuccesses() {
+            return successes;
+        }
+        
+        public long getFailures() {
+            return failures;
+        }
+        
+        public long getTotal() {
+            return successes + failures;
+        }
+        
+        public long getCalls() {
+            return calls;
+        }
+        
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+        
+        // Weighted by volume: successes over all outcomes, not an average of per-bucket rates
+        public Double getSuccessRate() {
+            long total = getTotal();
+            return total > 0 ? successes * 100.0 / total : null;
+        }
+        
+        public Double getAverageLatencyMillis() {
+            return calls > 0 ? latencyMicros / 1000.0 / calls : null;
+        }
+        
+        boolean isEmpty() {
+            return successes == 0 && failures == 0 && calls == 0 && latencyMicros == 0;
+        }
+        
+        Bucket plus(Bucket other) {
+            return new Bucket(minuteStartMillis, successes + other.successes, failures + other.failures,
+                calls + other.calls, latencyMicros + other.latencyMicros);
+        }
+        
+        Bucket minus(Bucket other) {
+            return new Bucket(minuteStartMillis, successes - other.successes, failures - other.failures,
+                calls - other.calls, latencyMicros - other.latencyMicros);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.fairoz.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Concurrent Bloom filter over order IDs. A miss proves the order ID was never added; a hit can be a
+// false positive, so callers confirm it elsewhere. Adding more IDs than the expected count keeps it
+// correct but raises the false-positive rate.
+final class OrderIdFilter {
+    
+    private static final double LN_2 = Math.log(2);
+    
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    
+    OrderIdFilter(int expectedOrderIds, double falsePositiveRate) {
+        int expected = Math.max(1, expectedOrderIds);
+        long bits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * LN_2));
+    }
+    
+    void add(String orderId) {
+        long hash1 = mix(orderId.hashCode());
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+    
+    boolean mightContain(String orderId) {
+        long hash1 = mix(orderId.hashCode());
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Final mixing step of MurmurHash3, spreading the string hash over all 64 bits
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb53fe1a85ec3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
\ No newline at end of file
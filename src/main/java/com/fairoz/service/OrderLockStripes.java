@@ -0,0 +1,72 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class OrderLockStripes {
+    
+    private final Lock[] stripes;
+    private final int mask;
+    
+    @Autowired
+    public OrderLockStripes(PaymentProperties paymentProperties) {
+        int requested = Math.max(1, paymentProperties.getCallback().getLockStripes());
+        int size = Integer.highestOneBit(requested);
+        if (size < requested) {
+            size <<= 1;
+        }
+        
+        this.stripes = new Lock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    public Lock lockFor(String orderId) {
+        return stripes[indexFor(orderId)];
+    }
+    
+    // Locks the stripes of several orders in stripe order, so two writers locking overlapping sets cannot
+    // deadlock; release with unlockAll
+    public List<Lock> lockAll(Collection<String> orderIds) {
+        BitSet indices = new BitSet(stripes.length);
+        orderIds.forEach(orderId -> indices.set(indexFor(orderId)));
+        
+        List<Lock> locked = new ArrayList<>(indices.cardinality());
+        try {
+            for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                locked.add(stripes[i]);
+            }
+        } catch (RuntimeException e) {
+            unlockAll(locked);
+            throw e;
+        }
+        return locked;
+    }
+    
+    public static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+    
+    public int getStripeCount() {
+        return stripes.length;
+    }
+    
+    private int indexFor(String orderId) {
+        int hash = orderId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
\ No newline at end of file
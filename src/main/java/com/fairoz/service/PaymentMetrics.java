@@ -0,0 +1,185 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class PaymentMetrics {
+    
+    // Tag value for gateway names that are not configured, such as typos in callbacks
+    public static final String UNKNOWN_GATEWAY = "unknown";
+    
+    private final Timer selectionTimer;
+    private final Timer callbackTimer;
+    private final Counter failovers;
+    private final Counter hedges;
+    private final Counter retriesDenied;
+    private final Counter duplicateHedgeSuccesses;
+    private final Counter retentionPurged;
+    private final Timer retentionTimer;
+    private final AtomicInteger healthyGateways = new AtomicInteger();
+    // Meters are registered up front for every configured gateway so recording never allocates, and
+    // free-form gateway names from callbacks share one set of meters instead of creating new series
+    private final Map<String, GatewayMeters> gatewayMeters;
+    private final GatewayMeters unknownGatewayMeters;
+    
+    @Autowired
+    public PaymentMetrics(MeterRegistry meterRegistry, PaymentProperties paymentProperties) {
+        this.selectionTimer = Timer.builder("payment.routing.selection")
+            .description("Time to select a gateway for a transaction")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.callbackTimer = Timer.builder("payment.callback.processing")
+            .description("Time to apply a gateway callback, including waiting for its order lock")
+            .publishPercentiles(0.5, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.failovers = Counter.builder("payment.gateway.retries")
+            .description("Extra gateway attempts made for a transaction")
+            .tag("type", "failover")
+            .register(meterRegistry);
+        this.hedges = Counter.builder("payment.gateway.retries")
+            .description("Extra gateway attempts made for a transaction")
+            .tag("type", "hedge")
+            .register(meterRegistry);
+        this.retriesDenied = Counter.builder("payment.gateway.retries.denied")
+            .description("Failovers and hedges skipped because the retry budget was exhausted")
+            .register(meterRegistry);
+        this.duplicateHedgeSuccesses = Counter.builder("payment.gateway.hedge.duplicate_success")
+            .description("Successful gateway charges that lost the race to another attempt for the same order")
+            .register(meterRegistry);
+        this.retentionPurged = Counter.builder("payment.health.retention.purged")
+            .description("Expired gateway_health_metrics rows deleted by retention")
+            .register(meterRegistry);
+        this.retentionTimer = Timer.builder("payment.health.retention.duration")
+            .description("Time taken by a gateway_health_metrics retention run")
+            .register(meterRegistry);
+        Gauge.builder("payment.routing.healthy.gateways", healthyGateways, AtomicInteger::get)
+            .description("Gateways in the current routing snapshot")
+            .register(meterRegistry);
+        
+        Map<String, GatewayMeters> meters = new HashMap<>();
+        if (paymentProperties.getGateways() != null) {
+            for (GatewayConfig gateway : paymentProperties.getGateways()) {
+                meters.put(gateway.getName(), new GatewayMeters(meterRegistry, gateway.getName()));
+            }
+        }
+        this.gatewayMeters = meters;
+        this.unknownGatewayMeters = new GatewayMeters(meterRegistry, UNKNOWN_GATEWAY);
+    }
+    
+    public void recordSelection(long elapsedNanos) {
+        selectionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordCallback(long elapsedNanos) {
+        callbackTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordGatewayCall(String gateway, long elapsedNanos) {
+        metersFor(gateway).callTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordGatewayRejection(String gateway) {
+        metersFor(gateway).rejections.increment();
+    }
+    
+    public void recordLimitReroute(String gateway) {
+        metersFor(gateway).reroutes.increment();
+    }
+    
+    public void recordOutcomes(String gateway, long successes, long failures) {
+        GatewayMeters meters = metersFor(gateway);
+        if (successes > 0) {
+            meters.successes.increment(successes);
+        }
+        if (failures > 0) {
+            meters.failures.increment(failures);
+        }
+    }
+    
+    public void recordFailover() {
+        failovers.increment();
+    }
+    
+    public void recordHedge() {
+        hedges.increment();
+    }
+    
+    public void recordDuplicateHedgeSuccess() {
+        duplicateHedgeSuccesses.increment();
+    }
+    
+    public void recordRetryDenied() {
+        retriesDenied.increment();
+    }
+    
+    public void recordRetention(long purgedRows, long elapsedNanos) {
+        retentionPurged.increment(purgedRows);
+        retentionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    // Returns 0 until the gateway has recorded calls in the current percentile window
+    public long getGatewayCallPercentileNanos(String gateway, double percentile) {
+        for (ValueAtPercentile value : metersFor(gateway).callTimer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return (long) value.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        return 0;
+    }
+    
+    public void setHealthyGateways(int count) {
+        healthyGateways.set(count);
+    }
+    
+    private GatewayMeters metersFor(String gateway) {
+        return gatewayMeters.getOrDefault(gateway, unknownGatewayMeters);
+    }
+    
+    private static final class GatewayMeters {
+        private final Timer callTimer;
+        private final Counter rejections;
+        private final Counter reroutes;
+        private final Counter successes;
+        private final Counter failures;
+        
+        private GatewayMeters(MeterRegistry meterRegistry, String gateway) {
+            this.callTimer = Timer.builder("payment.gateway.call")
+                .description("Latency of calls to the payment gateway")
+                .tag("gateway", gateway)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            this.rejections = Counter.builder("payment.gateway.rejections")
+                .description("Calls rejected because the gateway was at its concurrency limit")
+                .tag("gateway", gateway)
+                .register(meterRegistry);
+            this.reroutes = Counter.builder("payment.gateway.limit.reroutes")
+                .description("Selections moved off the gateway because it was at its concurrency limit")
+                .tag("gateway", gateway)
+                .register(meterRegistry);
+            this.successes = Counter.builder("payment.gateway.outcomes")
+                .description("Transaction outcomes reported by gateway callbacks")
+                .tags("gateway", gateway, "outcome", "success")
+                .register(meterRegistry);
+            this.failures = Counter.builder("payment.gateway.outcomes")
+                .description("Transaction outcomes reported by gateway callbacks")
+                .tags("gateway", gateway, "outcome", "failure")
+                .register(meterRegistry);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class PendingTransactionCache {
+    
+    private static final String CACHE_NAME = "pending-transactions";
+    
+    private final int maxSize;
+    private final long ttlMillis;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Every entry shares the same TTL, so insertion order is also expiry order
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Invalidated and replaced entries stay queued until eviction reaches them, so the queue is bounded
+    // separately; ConcurrentLinkedQueue.size() walks the whole queue
+    private final AtomicInteger queuedEntries = new AtomicInteger();
+    private final long maxQueuedEntries;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+    
+    @Autowired
+    public PendingTransactionCache(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        PaymentProperties.CallbackConfig callback = paymentProperties.getCallback();
+        this.maxSize = callback.getCacheMaxSize();
+        this.ttlMillis = callback.getCacheTtlSeconds() * 1000L;
+        this.maxQueuedEntries = 2L * maxSize;
+        
+        Gauge.builder("cache.size", entries, ConcurrentMap::size)
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "result", "miss")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", sizeEvictions, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "cause", "size")
+            .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", expiredEvictions, LongAdder::sum)
+            .tags("cache", CACHE_NAME, "cause", "expired")
+            .register(meterRegistry);
+    }
+    
+    public void put(String orderId, Long transactionId) {
+        put(orderId, transactionId, System.currentTimeMillis());
+    }
+    
+    public void put(String orderId, Long transactionId, long nowMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        
+        Entry entry = new Entry(orderId, transactionId, nowMillis + ttlMillis);
+        entries.put(orderId, entry);
+        insertionOrder.add(entry);
+        queuedEntries.incrementAndGet();
+        // Only a put that finds work to do evicts, and only if no other thread already is: that thread
+        // keeps evicting until the cache is back under its bounds
+        if (needsEviction(nowMillis) && evictionLock.tryLock()) {
+            try {
+                evict(nowMillis);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+    
+    private boolean needsEviction(long nowMillis) {
+        if (entries.size() > maxSize || queuedEntries.get() > maxQueuedEntries) {
+            return true;
+        }
+        Entry oldest = insertionOrder.peek();
+        return oldest != null && (oldest.expiresAtMillis <= nowMillis || entries.get(oldest.orderId) != oldest);
+    }
+    
+    public Long getTransactionId(String orderId) {
+        return getTransactionId(orderId, System.currentTimeMillis());
+    }
+    
+    public Long getTransactionId(String orderId, long nowMillis) {
+        Entry entry = entries.get(orderId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis <= nowMillis) {
+            if (entries.remove(orderId, entry)) {
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        return entry.transactionId;
+    }
+    
+    public void invalidate(String orderId) {
+        entries.remove(orderId);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    int getQueuedEntries() {
+        return queuedEntries.get();
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    public long getEvictions() {
+        return sizeEvictions.sum() + expiredEvictions.sum();
+    }
+    
+    @Scheduled(fixedRate = 60000) // Every minute
+    public void evictExpired() {
+        evictionLock.lock();
+        try {
+            evict(System.currentTimeMillis());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    // Callers hold evictionLock
+    private void evict(long nowMillis) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            boolean expired = oldest.expiresAtMillis <= nowMillis;
+            if (!expired && entries.size() <= maxSize && queuedEntries.get() <= maxQueuedEntries
+                    && entries.get(oldest.orderId) == oldest) {
+                return;
+            }
+            insertionOrder.poll();
+            queuedEntries.decrementAndGet();
+            // Entries replaced or invalidated since insertion are already gone from the map
+            if (entries.remove(oldest.orderId, oldest)) {
+                (expired ? expiredEvictions : sizeEvictions).increment();
+            }
+        }
+    }
+    
+    private static final class Entry {
+        private final String orderId;
+        private final Long transactionId;
+        private final long expiresAtMillis;
+        
+        private Entry(String orderId, Long transactionId, long expiresAtMillis) {
+            this.orderId = orderId;
+            this.transactionId = transactionId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class RetryBudget {
+    
+    // Balances are kept in thousandths of a retry so fractional deposits stay integer CAS updates
+    private static final long SCALE = 1000;
+    
+    private final long depositPerRequest;
+    private final long minBalancePerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastTopUpSecond = new AtomicLong();
+    
+    @Autowired
+    public RetryBudget(PaymentProperties paymentProperties) {
+        PaymentProperties.RetryBudgetConfig config = paymentProperties.getFailover().getRetryBudget();
+        this.depositPerRequest = Math.round(config.getRatio() * SCALE);
+        this.minBalancePerSecond = config.getMinRetriesPerSecond() * SCALE;
+        this.maxBalance = config.getMaxBalance() * SCALE;
+        this.balance = new AtomicLong(minBalancePerSecond);
+    }
+    
+    public void recordRequest() {
+        deposit(depositPerRequest);
+    }
+    
+    public boolean tryWithdraw() {
+        return tryWithdraw(System.currentTimeMillis());
+    }
+    
+    public boolean tryWithdraw(long nowMillis) {
+        topUp(nowMillis / 1000);
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+    
+    public double getAvailableRetries() {
+        return balance.get() / (double) SCALE;
+    }
+    
+    private void deposit(long amount) {
+        while (true) {
+            long current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(maxBalance, current + amount))) {
+                return;
+            }
+        }
+    }
+    
+    // Guarantees a small number of retries every second even when request volume is too low to earn them
+    private void topUp(long nowSecond) {
+        long last = lastTopUpSecond.get();
+        if (nowSecond <= last || !lastTopUpSecond.compareAndSet(last, nowSecond)) {
+            return;
+        }
+        while (true) {
+            long current = balance.get();
+            if (current >= minBalancePerSecond || balance.compareAndSet(current, minBalancePerSecond)) {
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
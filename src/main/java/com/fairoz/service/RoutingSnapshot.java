@@ -0,0 +1,128 @@
+package com.fairoz.service;
+
+import com.fairoz.model.GatewayConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public final class RoutingSnapshot {
+    
+    private final long version;
+    private final long createdAtMillis;
+    private final List<String> gatewayNames;
+    private final int[] weights;
+    private final Set<String> probingGateways;
+    private final GatewaySelector.Selection selection;
+    // Selection over gateways with a closed circuit, used when a half-open gateway is out of probes
+    private final GatewaySelector.Selection closedSelection;
+    
+    private RoutingSnapshot(long version, long createdAtMillis, List<String> gatewayNames, int[] weights,
+                            Set<String> probingGateways, GatewaySelector.Selection selection,
+                            GatewaySelector.Selection closedSelection) {
+        this.version = version;
+        this.createdAtMillis = createdAtMillis;
+        this.gatewayNames = gatewayNames;
+        this.weights = weights;
+        this.probingGateways = probingGateways;
+        this.selection = selection;
+        this.closedSelection = closedSelection;
+    }
+    
+    public static RoutingSnapshot build(long version, List<GatewayConfig> availableGateways,
+                                        Set<String> probingGateways, GatewaySelector gatewaySelector) {
+        List<String> names = new ArrayList<>(availableGateways.size());
+        List<GatewayConfig> closedGateways = new ArrayList<>(availableGateways.size());
+        int[] weights = new int[availableGateways.size()];
+        for (int i = 0; i < weights.length; i++) {
+            names.add(availableGateways.get(i).getName());
+            weights[i] = availableGateways.get(i).getWeight();
+            if (!probingGateways.contains(availableGateways.get(i).getName())) {
+                closedGateways.add(availableGateways.get(i));
+            }
+        }
+        
+        GatewaySelector.Selection selection = availableGateways.isEmpty()
+            ? null : gatewaySelector.prepare(availableGateways);
+        GatewaySelector.Selection closedSelection;
+        if (probingGateways.isEmpty()) {
+            closedSelection = selection;
+        } else {
+            closedSelection = closedGateways.isEmpty() ? null : gatewaySelector.prepare(closedGateways);
+        }
+        return new RoutingSnapshot(version, System.currentTimeMillis(), Collections.unmodifiableList(names),
+            weights, Set.copyOf(probingGateways), selection, closedSelection);
+    }
+    
+    public boolean matches(List<GatewayConfig> gateways, GatewayHealthService gatewayHealthService) {
+        int index = 0;
+        for (GatewayConfig gateway : gateways) {
+            if (!gateway.getEnabled() || !gatewayHealthService.isGatewayHealthy(gateway.getName())) {
+                continue;
+            }
+            if (index >= weights.length || !gatewayNames.get(index).equals(gateway.getName())
+                || weights[index] != gateway.getWeight()
+                || probingGateways.contains(gateway.getName()) != gatewayHealthService.isGatewayProbing(gateway.getName())) {
+                return false;
+            }
+            index++;
+        }
+        return index == weights.length;
+    }
+    
+    public boolean isEmpty() {
+        return selection == null;
+    }
+    
+    public String select() {
+        return selection.select();
+    }
+    
+    public boolean isProbing(String gatewayName) {
+        return !probingGateways.isEmpty() && probingGateways.contains(gatewayName);
+    }
+    
+    // Returns null when every gateway in the snapshot is half-open
+    public String selectClosed() {
+        return closedSelection == null ? null : closedSelection.select();
+    }
+    
+    // Highest-weight gateway with a closed circuit that is not excluded, or null when none is left
+    public String nextBest(Set<String> excluded) {
+        String best = null;
+        int bestWeight = -1;
+        for (int i = 0; i < weights.length; i++) {
+            String name = gatewayNames.get(i);
+            if (weights[i] > bestWeight && !excluded.contains(name) && !probingGateways.contains(name)) {
+                best = name;
+                bestWeight = weights[i];
+            }
+        }
+        return best;
+    }
+    
+    public Set<String> getProbingGateways() {
+        return probingGateways;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+    
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - createdAtMillis;
+    }
+    
+    public List<String> getGatewayNames() {
+        return gatewayNames;
+    }
+    
+    public int size() {
+        return weights.length;
+    }
+}
\ No newline at end of file
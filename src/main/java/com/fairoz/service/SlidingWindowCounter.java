@@ -0,0 +1,90 @@
+package com.fairoz.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class SlidingWindowCounter {
+    
+    private static final long RESETTING = -1L;
+    
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+    
+    public SlidingWindowCounter(long windowMillis, long bucketMillis) {
+        if (windowMillis <= 0 || bucketMillis <= 0) {
+            throw new IllegalArgumentException("Window and bucket durations must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = (int) Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis);
+        this.epochs = new AtomicLongArray(bucketCount);
+        this.successes = new AtomicLongArray(bucketCount);
+        this.failures = new AtomicLongArray(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+    
+    public void record(long nowMillis, boolean isSuccess) {
+        add(nowMillis, isSuccess ? 1 : 0, isSuccess ? 0 : 1);
+    }
+    
+    public void add(long timestampMillis, long successCount, long failureCount) {
+        long epoch = timestampMillis / bucketMillis;
+        int slot = (int) Math.floorMod(epoch, (long) bucketCount);
+        
+        while (true) {
+            long current = epochs.get(slot);
+            if (current == epoch) {
+                break;
+            }
+            if (current > epoch) {
+                return;
+            }
+            if (current != RESETTING && epochs.compareAndSet(slot, current, RESETTING)) {
+                successes.set(slot, 0);
+                failures.set(slot, 0);
+                epochs.set(slot, epoch);
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        
+        if (successCount > 0) {
+            successes.addAndGet(slot, successCount);
+        }
+        if (failureCount > 0) {
+            failures.addAndGet(slot, failureCount);
+        }
+    }
+    
+    public long successes(long nowMillis) {
+        return sum(successes, nowMillis);
+    }
+    
+    public long failures(long nowMillis) {
+        return sum(failures, nowMillis);
+    }
+    
+    public long total(long nowMillis) {
+        return successes(nowMillis) + failures(nowMillis);
+    }
+    
+    public int getBucketCount() {
+        return bucketCount;
+    }
+    
+    private long sum(AtomicLongArray counters, long nowMillis) {
+        long currentEpoch = nowMillis / bucketMillis;
+        long oldestEpoch = currentEpoch - bucketCount;
+        long sum = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long epoch = epochs.get(i);
+            if (epoch > oldestEpoch && epoch <= currentEpoch) {
+                sum += counters.get(i);
+            }
+        }
+        return sum;
+    }
+}
\ No newline at end of file
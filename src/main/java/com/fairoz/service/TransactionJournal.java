@@ -0,0 +1,597 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.Transaction;
+import com.fairoz.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Optional write-ahead journal for transaction state changes. Appends are written to a memory-mapped
+// segment file and made durable with one force() per group of concurrent appends; a projector thread
+// then materialises them into the transactions table. Changes not yet projected are served from memory,
+// and whatever was journaled but not projected before a crash is replayed on startup.
+@Component
+public class TransactionJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+    
+    // length, CRC32 of sequence and body, sequence
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    // Matches allocationSize of transactions_seq, so journaled IDs never overlap the ones Hibernate hands out
+    private static final int ID_BLOCK_SIZE = 50;
+    // Marks a reserved order ID whose INITIATED record is not committed yet
+    private static final long RESERVED = Long.MAX_VALUE;
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long PROJECTION_RETRY_MILLIS = 1000;
+    private static final long PROJECTION_WAIT_MILLIS = 10_000;
+    private static final double ORDER_ID_FALSE_POSITIVE_RATE = 0.01;
+    
+    private final PaymentProperties.JournalConfig config;
+    private final TransactionRepository transactionRepository;
+    private final TransactionProjector transactionProjector;
+    private final BlockingQueue<PendingAppend> appendQueue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<JournalRecord> committed = new LinkedBlockingQueue<>();
+    // Latest state of every transaction with changes not yet in the table, keyed by order ID
+    private final ConcurrentMap<String, Unprojected> unprojected = new ConcurrentHashMap<>();
+    private final Deque<Segment> closedSegments = new ConcurrentLinkedDeque<>();
+    private final AtomicLong appendedSequence = new AtomicLong();
+    private final AtomicLong projectedSequence = new AtomicLong();
+    private final Object projectionMonitor = new Object();
+    private final Timer fsyncTimer;
+    private final DistributionSummary commitBatchSize;
+    private final Counter orderIdChecks;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer sequenceBytes = ByteBuffer.allocate(Long.BYTES);
+    
+    private volatile boolean running;
+    private volatile boolean failed;
+    private Path directory;
+    private Thread writerThread;
+    private Thread projectorThread;
+    // Only the writer thread touches the current segment and the next sequence
+    private Segment segment;
+    private long nextSequence;
+    private long nextId;
+    private long idBlockEnd = -1;
+    // Every order ID in the table or the journal, so new orders skip the uniqueness read; seeded on start
+    private OrderIdFilter knownOrderIds;
+    
+    @Autowired
+    public TransactionJournal(PaymentProperties paymentProperties,
+                              TransactionRepository transactionRepository,
+                              TransactionProjector transactionProjector,
+                              MeterRegistry meterRegistry) {
+        this.config = paymentProperties.getJournal();
+        this.transactionRepository = transactionRepository;
+        this.transactionProjector = transactionProjector;
+        
+        this.fsyncTimer = Timer.builder("payment.journal.fsync.duration")
+            .description("Time to write and force one group commit of journal records")
+            .register(meterRegistry);
+        this.commitBatchSize = DistributionSummary.builder("payment.journal.commit.batch.size")
+            .description("Journal records made durable by one force()")
+            .register(meterRegistry);
+        this.orderIdChecks = Counter.builder("payment.journal.order.id.checks")
+            .description("Journaled initiations whose order ID had to be checked against the transactions table")
+            .register(meterRegistry);
+        Gauge.builder("payment.journal.projection.lag", this, TransactionJournal::getProjectionLag)
+            .description("Journal records committed but not yet projected into the transactions table")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        long checkpoint = readCheckpoint();
+        long lastSequence = recover(checkpoint);
+        seedKnownOrderIds();
+        
+        appendedSequence.set(lastSequence);
+        projectedSequence.set(lastSequence);
+        writeCheckpoint(lastSequence);
+        // Everything recovered is projected now, so old segments are no longer needed
+        for (Path file : listSegments()) {
+            Files.delete(file);
+        }
+        nextSequence = lastSequence + 1;
+        segment = openSegment(nextSequence);
+        
+        running = true;
+        writerThread = new Thread(this::runWriterLoop, "transaction-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        projectorThread = new Thread(this::runProjectorLoop, "transaction-journal-projector");
+        projectorThread.setDaemon(true);
+        projectorThread.start();
+        logger.info("Transaction journal started in {} at sequence {}", directory.toAbsolutePath(), nextSequence);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join(IDLE_POLL_MILLIS + 1000);
+        projectorThread.join(PROJECTION_RETRY_MILLIS + 1000);
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close journal segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+    
+    public boolean isEnabled() {
+        return config.getEnabled();
+    }
+    
+    // Assigns the transaction its ID and journals it; a duplicate order ID fails like the unique constraint would
+    public Transaction initiate(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        transaction.setId(nextId());
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        transaction.setVersion(0L);
+        
+        String orderId = transaction.getOrderId();
+        Unprojected reservation = new Unprojected(RESERVED, JournalRecord.copyOf(transaction));
+        if (unprojected.putIfAbsent(orderId, reservation) != null || isKnownOrderId(orderId)) {
+            unprojected.remove(orderId, reservation);
+            throw new DataIntegrityViolationException("Transaction with order ID " + orderId + " already exists");
+        }
+        knownOrderIds.add(orderId);
+        
+        try {
+            commit(new JournalRecord(JournalRecord.Type.INITIATED, transaction));
+        } catch (RuntimeException e) {
+            unprojected.remove(orderId, reservation);
+            throw e;
+        }
+        return transaction;
+    }
+    
+    // Order IDs inserted into the table by writers that bypass the journal
+    public void registerOrderIds(Collection<String> orderIds) {
+        if (isEnabled()) {
+            orderIds.forEach(knownOrderIds::add);
+        }
+    }
+    
+    public void recordGatewayAssignment(Transaction transaction) {
+        transaction.setUpdatedAt(LocalDateTime.now());
+        commit(new JournalRecord(JournalRecord.Type.GATEWAY_ASSIGNED, transaction));
+    }
+    
+    public void recordStatusChange(Transaction transaction) {
+        transaction.setUpdatedAt(LocalDateTime.now());
+        commit(new JournalRecord(JournalRecord.Type.STATUS_CHANGED, transaction));
+    }
+    
+    // Returns a copy of the latest state of a transaction whose changes are not projected yet, or null
+    public Transaction findUnprojected(String orderId) {
+        Unprojected entry = unprojected.get(orderId);
+        return entry == null ? null : JournalRecord.copyOf(entry.transaction);
+    }
+    
+    // Lets writers that bypass the journal see everything journaled so far in the table
+    public void awaitProjection() {
+        if (!isEnabled()) {
+            return;
+        }
+        long target = appendedSequence.get();
+        long deadline = System.currentTimeMillis() + PROJECTION_WAIT_MILLIS;
+        synchronized (projectionMonitor) {
+            while (projectedSequence.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new RuntimeException("Timed out waiting for the transaction journal to be projected");
+                }
+                try {
+                    projectionMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted waiting for the transaction journal to be projected", e);
+                }
+            }
+        }
+    }
+    
+    public long getProjectionLag() {
+        return appendedSequence.get() - projectedSequence.get();
+    }
+    
+    private void commit(JournalRecord record) {
+        if (!running || failed) {
+            throw new IllegalStateException("Transaction journal is not accepting writes");
+        }
+        byte[] body = record.encode();
+        if (RECORD_HEADER_BYTES + body.length > config.getSegmentSizeBytes()) {
+            throw new IllegalArgumentException("Journal record of " + body.length + " bytes exceeds the segment size");
+        }
+        
+        PendingAppend append = new PendingAppend(record, body);
+        appendQueue.add(append);
+        try {
+            append.future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to journal transaction " + record.getTransaction().getOrderId(),
+                e.getCause());
+        }
+    }
+    
+    // Only order IDs the filter has seen cost a table read: replays, plus about one new order in a hundred
+    private boolean isKnownOrderId(String orderId) {
+        if (!knownOrderIds.mightContain(orderId)) {
+            return false;
+        }
+        orderIdChecks.increment();
+        return transactionRepository.existsByOrderId(orderId);
+    }
+    
+    private void seedKnownOrderIds() {
+        long started = System.currentTimeMillis();
+        knownOrderIds = new OrderIdFilter(config.getOrderIdFilterCapacity(), ORDER_ID_FALSE_POSITIVE_RATE);
+        long[] seeded = new long[1];
+        transactionProjector.forEachOrderId(orderId -> {
+            knownOrderIds.add(orderId);
+            seeded[0]++;
+        });
+        
+        logger.info("Seeded order ID filter with {} transactions in {} ms", seeded[0], 
+                   System.currentTimeMillis() - started);
+        if (seeded[0] > config.getOrderIdFilterCapacity()) {
+            logger.warn("{} transactions exceed the order ID filter capacity of {}; more initiations will read the table",
+                       seeded[0], config.getOrderIdFilterCapacity());
+        }
+    }
+    
+    private synchronized long nextId() {
+        if (nextId > idBlockEnd) {
+            // Same pooled semantics as Hibernate: a sequence value v owns the IDs (v - 50, v]
+            idBlockEnd = transactionProjector.nextIdBlock();
+            nextId = Math.max(1, idBlockEnd - ID_BLOCK_SIZE + 1);
+        }
+        return nextId++;
+    }
+    
+    private void runWriterLoop() {
+        List<PendingAppend> batch = new ArrayList<>(config.getGroupCommitMaxBatch());
+        while (running || !appendQueue.isEmpty()) {
+            try {
+                PendingAppend first = appendQueue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Whatever queued up during the previous force() is made durable by the next one
+                batch.add(first);
+                appendQueue.drainTo(batch, config.getGroupCommitMaxBatch() - 1);
+                if (failed) {
+                    IllegalStateException stopped = new IllegalStateException("Transaction journal stopped after a failed write");
+                    batch.forEach(append -> append.future.completeExceptionally(stopped));
+                    continue;
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                // After a failed force the durable contents of the segment are unknown, so, like a database
+                // after a failed fsync, the journal refuses further writes rather than risk reusing sequences
+                failed = true;
+                logger.error("Failed to journal {} records, refusing further appends", batch.size(), e);
+                batch.forEach(append -> append.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        PendingAppend leftover;
+        while ((leftover = appendQueue.poll()) != null) {
+            leftover.future.completeExceptionally(new IllegalStateException("Transaction journal stopped"));
+        }
+    }
+    
+    private void write(List<PendingAppend> batch) throws IOException {
+        long started = System.nanoTime();
+        int batchStart = segment.buffer.position();
+        for (PendingAppend append : batch) {
+            if (RECORD_HEADER_BYTES + append.body.length > segment.buffer.remaining()) {
+                segment.buffer.force(batchStart, segment.buffer.position() - batchStart);
+                rollSegment();
+                batchStart = 0;
+            }
+            
+            long sequence = nextSequence++;
+            sequenceBytes.putLong(0, sequence);
+            crc.reset();
+            crc.update(sequenceBytes.array());
+            crc.update(append.body);
+            segment.buffer.putInt(append.body.length)
+                .putInt((int) crc.getValue())
+                .putLong(sequence)
+                .put(append.body);
+            append.record.setSequence(sequence);
+        }
+        segment.buffer.force(batchStart, segment.buffer.position() - batchStart);
+        fsyncTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        commitBatchSize.record(batch.size());
+        
+        for (PendingAppend append : batch) {
+            remember(append.record);
+            committed.add(append.record);
+        }
+        appendedSequence.set(nextSequence - 1);
+        batch.forEach(append -> append.future.complete(null));
+    }
+    
+    private void remember(JournalRecord record) {
+        Transaction transaction = record.getTransaction();
+        if (record.getType() == JournalRecord.Type.INITIATED) {
+            unprojected.put(transaction.getOrderId(), new Unprojected(record.getSequence(), transaction));
+            return;
+        }
+        
+        // Apply only the record's own columns, so concurrent changes to other columns are not lost
+        unprojected.compute(transaction.getOrderId(), (orderId, entry) -> {
+            if (entry == null) {
+                return new Unprojected(record.getSequence(), JournalRecord.copyOf(transaction));
+            }
+            Transaction latest = JournalRecord.copyOf(entry.transaction);
+            record.applyTo(latest);
+            return new Unprojected(record.getSequence(), latest);
+        });
+    }
+    
+    private void rollSegment() throws IOException {
+        segment.lastSequence = nextSequence - 1;
+        closedSegments.add(segment);
+        segment.channel.close();
+        segment = openSegment(nextSequence);
+        deleteProjectedSegments(projectedSequence.get());
+    }
+    
+    private void runProjectorLoop() {
+        List<JournalRecord> batch = new ArrayList<>(config.getProjectorBatchSize());
+        while (running || !committed.isEmpty()) {
+            try {
+                JournalRecord first = committed.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                committed.drainTo(batch, config.getProjectorBatchSize() - 1);
+                if (!projectWithRetry(batch)) {
+                    return;
+                }
+                markProjected(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    // Keeps retrying while the database is unavailable; on shutdown the records stay in the journal for replay
+    private boolean projectWithRetry(List<JournalRecord> batch) throws InterruptedException {
+        while (true) {
+            try {
+                transactionProjector.project(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    logger.warn("Leaving {} unprojected journal records for replay on restart",
+                               batch.size() + committed.size());
+                    return false;
+                }
+                logger.error("Failed to project {} journal records, retrying", batch.size(), e);
+                Thread.sleep(PROJECTION_RETRY_MILLIS);
+            }
+        }
+    }
+    
+    private void markProjected(List<JournalRecord> batch) {
+        long lastSequence = batch.get(batch.size() - 1).getSequence();
+        try {
+            writeCheckpoint(lastSequence);
+        } catch (IOException e) {
+            // A stale checkpoint only means more is replayed on restart
+            logger.warn("Failed to write journal checkpoint {}: {}", lastSequence, e.getMessage());
+        }
+        
+        for (JournalRecord record : batch) {
+            unprojected.computeIfPresent(record.getTransaction().getOrderId(),
+                (orderId, entry) -> entry.sequence <= lastSequence ? null : entry);
+        }
+        deleteProjectedSegments(lastSequence);
+        
+        synchronized (projectionMonitor) {
+            projectedSequence.set(lastSequence);
+            projectionMonitor.notifyAll();
+        }
+    }
+    
+    private synchronized void deleteProjectedSegments(long projected) {
+        Segment oldest;
+        while ((oldest = closedSegments.peek()) != null && oldest.lastSequence <= projected) {
+            closedSegments.poll();
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete projected journal segment {}: {}", oldest.path, e.getMessage());
+            }
+        }
+    }
+    
+    // Projects every record after the checkpoint and returns the last valid sequence in the journal
+    private long recover(long checkpoint) throws IOException {
+        long lastSequence = checkpoint;
+        int replayed = 0;
+        List<JournalRecord> batch = new ArrayList<>(config.getProjectorBatchSize());
+        for (Path file : listSegments()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                JournalRecord record;
+                while ((record = readRecord(buffer, file)) != null) {
+                    lastSequence = Math.max(lastSequence, record.getSequence());
+                    if (record.getSequence() <= checkpoint) {
+                        continue;
+                    }
+                    batch.add(record);
+                    replayed++;
+                    if (batch.size() >= config.getProjectorBatchSize()) {
+                        transactionProjector.project(batch);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            transactionProjector.project(batch);
+        }
+        
+        if (replayed > 0) {
+            logger.info("Replayed {} journal records after checkpoint {}", replayed, checkpoint);
+        }
+        return lastSequence;
+    }
+    
+    // Returns null at the end of the written part of a segment, including a record torn by a crash
+    private JournalRecord readRecord(MappedByteBuffer buffer, Path file) throws IOException {
+        if (buffer.remaining() < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        long sequence = buffer.getLong();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+        
+        byte[] body = new byte[length];
+        buffer.get(body);
+        sequenceBytes.putLong(0, sequence);
+        crc.reset();
+        crc.update(sequenceBytes.array());
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+            logger.warn("Ignoring torn journal record at offset {} of {}", start, file.getFileName());
+            return null;
+        }
+        return JournalRecord.decode(sequence, new DataInputStream(new ByteArrayInputStream(body)));
+    }
+    
+    private Segment openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping beyond the end grows the file with zeroes, which read back as the end of the segment
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentSizeBytes());
+        return new Segment(path, channel, buffer);
+    }
+    
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+    
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        // A checkpoint torn by a crash replays the whole journal, which projection tolerates
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+    
+    private void writeCheckpoint(long sequence) throws IOException {
+        Files.write(directory.resolve(CHECKPOINT_FILE), ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+    }
+    
+    private static final class PendingAppend {
+        private final JournalRecord record;
+        private final byte[] body;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        private PendingAppend(JournalRecord record, byte[] body) {
+            this.record = record;
+            this.body = body;
+        }
+    }
+    
+    private static final class Unprojected {
+        private final long sequence;
+        private final Transaction transaction;
+        
+        private Unprojected(long sequence, Transaction transaction) {
+            this.sequence = sequence;
+            this.transaction = transaction;
+        }
+    }
+    
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile long lastSequence = Long.MAX_VALUE;
+        
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.fairoz.service;
+
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+import com.fairoz.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Materialises journaled state changes into the transactions table. Projection is idempotent, so
+// records replayed after a crash between a projection and its checkpoint are harmless.
+@Component
+public class TransactionProjector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionProjector.class);
+    
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (id, order_id, amount, type, card_number, expiry, cvv, holder_name, " +
+        "selected_gateway, status, failure_reason, gateway_transaction_id, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_GATEWAY_ASSIGNMENT =
+        "UPDATE transactions SET selected_gateway = ?, gateway_transaction_id = ?, updated_at = ?, " +
+        "version = version + 1 WHERE id = ?";
+    // Status changes only apply from a status the state machine allows, so a change decided on a stale read
+    // or replayed after a crash cannot overwrite a newer status. Unused source slots repeat a real source.
+    private static final int STATUS_SOURCE_SLOTS = TransactionStatus.values().length;
+    private static final String UPDATE_STATUS =
+        "UPDATE transactions SET status = ?, failure_reason = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status IN (" + String.join(", ", Collections.nCopies(STATUS_SOURCE_SLOTS, "?")) + ")";
+    
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    public TransactionProjector(TransactionRepository transactionRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // Reserves a block of IDs from the same pooled sequence Hibernate uses for directly saved transactions
+    public long nextIdBlock() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR transactions_seq", Long.class);
+    }
+    
+    public void forEachOrderId(Consumer<String> action) {
+        jdbcTemplate.query("SELECT order_id FROM transactions", (RowCallbackHandler) row -> action.accept(row.getString(1)));
+    }
+    
+    public void project(List<JournalRecord> records) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(records));
+        } catch (DataIntegrityViolationException e) {
+            // A batch or direct insert won the order ID; project the rest one by one and drop the loser
+            logger.warn("Projecting {} journal records conflicted with existing rows, retrying individually",
+                       records.size());
+            for (JournalRecord record : records) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(List.of(record)));
+                } catch (DataIntegrityViolationException conflict) {
+                    logger.error("Dropping journal record {} ({}) for order {}: {}", record.getSequence(),
+                                record.getType(), record.getTransaction().getOrderId(), conflict.getMessage());
+                }
+            }
+        }
+    }
+    
+    private void apply(List<JournalRecord> records) {
+        List<Transaction> initiated = new ArrayList<>();
+        List<Transaction> assignments = new ArrayList<>();
+        List<Transaction> statusChanges = new ArrayList<>();
+        for (JournalRecord record : records) {
+            switch (record.getType()) {
+                case INITIATED -> initiated.add(record.getTransaction());
+                case GATEWAY_ASSIGNED -> assignments.add(record.getTransaction());
+                case STATUS_CHANGED -> statusChanges.add(record.getTransaction());
+            }
+        }
+        
+        // Inserts go first so later changes in the same batch find their row; each kind of change
+        // touches its own columns and keeps journal order within the kind
+        if (!initiated.isEmpty()) {
+            Set<Long> ids = new HashSet<>();
+            initiated.forEach(transaction -> ids.add(transaction.getId()));
+            Set<Long> projected = new HashSet<>(transactionRepository.findIdsByIdIn(ids));
+            initiated.removeIf(transaction -> !projected.add(transaction.getId()));
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, initiated, initiated.size(), (statement, transaction) -> {
+                PaymentInstrument instrument = transaction.getPaymentInstrument() != null
+                    ? transaction.getPaymentInstrument() : new PaymentInstrument();
+                statement.setLong(1, transaction.getId());
+                statement.setString(2, transaction.getOrderId());
+                statement.setBigDecimal(3, transaction.getAmount());
+                statement.setString(4, instrument.getType());
+                statement.setString(5, instrument.getCardNumber());
+                statement.setString(6, instrument.getExpiry());
+                statement.setString(7, instrument.getCvv());
+                statement.setString(8, instrument.getHolderName());
+                statement.setString(9, transaction.getSelectedGateway());
+                statement.setString(10, transaction.getStatus().name());
+                statement.setString(11, transaction.getFailureReason());
+                statement.setString(12, transaction.getGatewayTransactionId());
+                statement.setTimestamp(13, Timestamp.valueOf(transaction.getCreatedAt()));
+                statement.setTimestamp(14, Timestamp.valueOf(transaction.getUpdatedAt()));
+            });
+        }
+        if (!assignments.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_GATEWAY_ASSIGNMENT, assignments, assignments.size(), (statement, transaction) -> {
+                statement.setString(1, transaction.getSelectedGateway());
+                statement.setString(2, transaction.getGatewayTransactionId());
+                statement.setTimestamp(3, Timestamp.valueOf(transaction.getUpdatedAt()));
+                statement.setLong(4, transaction.getId());
+            });
+        }
+        statusChanges.removeIf(transaction -> {
+            if (!TransactionStatus.sourcesOf(transaction.getStatus()).isEmpty()) {
+                return false;
+            }
+            logger.error("Dropping journaled change of order {} to unreachable status {}", 
+                        transaction.getOrderId(), transaction.getStatus());
+            return true;
+        });
+        if (!statusChanges.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_STATUS, statusChanges, statusChanges.size(), (statement, transaction) -> {
+                statement.setString(1, transaction.getStatus().name());
+                statement.setString(2, transaction.getFailureReason());
+                statement.setTimestamp(3, Timestamp.valueOf(transaction.getUpdatedAt()));
+                statement.setLong(4, transaction.getId());
+                Set<TransactionStatus> sources = TransactionStatus.sourcesOf(transaction.getStatus());
+                Iterator<TransactionStatus> source = sources.iterator();
+                String fallback = sources.iterator().next().name();
+                for (int slot = 0; slot < STATUS_SOURCE_SLOTS; slot++) {
+                    statement.setString(5 + slot, source.hasNext() ? source.next().name() : fallback);
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
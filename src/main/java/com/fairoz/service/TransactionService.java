@@ -10,99 +10,190 @@ import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
 
 @Service
-@Transactional
 public class TransactionService {
     
     private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
     
     private final TransactionRepository transactionRepository;
     private final GatewayRoutingService gatewayRoutingService;
-    private final PaymentGatewayService paymentGatewayService;
+    private final GatewayFailoverService gatewayFailoverService;
     private final GatewayHealthService gatewayHealthService;
+    private final PendingTransactionCache pendingTransactionCache;
+    private final TransactionJournal transactionJournal;
+    private final OrderLockStripes orderLockStripes;
+    private final PaymentMetrics paymentMetrics;
     
     @Autowired
     public TransactionService(TransactionRepository transactionRepository,
                              GatewayRoutingService gatewayRoutingService,
-                             PaymentGatewayService paymentGatewayService,
-                             GatewayHealthService gatewayHealthService) {
+                             GatewayFailoverService gatewayFailoverService,
+                             GatewayHealthService gatewayHealthService,
+                             PendingTransactionCache pendingTransactionCache,
+                             TransactionJournal transactionJournal,
+                             OrderLockStripes orderLockStripes,
+                             PaymentMetrics paymentMetrics) {
         this.transactionRepository = transactionRepository;
         this.gatewayRoutingService = gatewayRoutingService;
-        this.paymentGatewayService = paymentGatewayService;
+        this.gatewayFailoverService = gatewayFailoverService;
         this.gatewayHealthService = gatewayHealthService;
+        this.pendingTransactionCache = pendingTransactionCache;
+        this.transactionJournal = transactionJournal;
+        this.orderLockStripes = orderLockStripes;
+        this.paymentMetrics = paymentMetrics;
     }
     
     public InitiateTransactionResponse initiateTransaction(InitiateTransactionRequest request) {
-        if (transactionRepository.existsByOrderId(request.getOrderId())) {
-            throw new IllegalArgumentException("Transaction with order ID " + request.getOrderId() + " already exists");
-        }
-        
-        String selectedGateway = gatewayRoutingService.selectGateway();
-        
+        return initiateTransactionAsync(request).join();
+    }
+    
+    // The insert comes first, so a replayed request never takes a probe permit or a limiter slot; the
+    // gateway is stored by the assignment update made once the gateway answers
+    public CompletableFuture<InitiateTransactionResponse> initiateTransactionAsync(InitiateTransactionRequest request) {
         Transaction transaction = new Transaction(
             request.getOrderId(), 
             request.getAmount(), 
             request.getPaymentInstrument()
         );
-        transaction.setSelectedGateway(selectedGateway);
         
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        Transaction savedTransaction;
+        try {
+            savedTransaction = transactionJournal.isEnabled()
+                ? initiateJournaled(transaction)
+                : transactionRepository.save(transaction);
+        } catch (DataIntegrityViolationException e) {
+            return CompletableFuture.completedFuture(replayExistingTransaction(request, e));
+        }
+        
+        String selectedGateway;
+        try {
+            selectedGateway = gatewayRoutingService.selectGateway();
+        } catch (RuntimeException e) {
+            failUnrouted(savedTransaction);
+            throw e;
+        }
+        savedTransaction.setSelectedGateway(selectedGateway);
         
         logger.info("Transaction initiated: {} with gateway: {} for amount: {}", 
                    request.getOrderId(), selectedGateway, request.getAmount());
         
+        return callGateway(savedTransaction, request, true);
+    }
+    
+    // A transaction no gateway could take is failed, so replays report it instead of waiting on it forever
+    private void failUnrouted(Transaction transaction) {
+        String reason = "No healthy gateways available";
+        if (transactionJournal.isEnabled()) {
+            transaction.setStatus(TransactionStatus.FAILURE);
+            transaction.setFailureReason(reason);
+            transactionJournal.recordStatusChange(transaction);
+        } else {
+            transactionRepository.transitionStatusById(transaction.getId(), TransactionStatus.FAILURE,
+                TransactionStatus.sourcesOf(TransactionStatus.FAILURE), reason, LocalDateTime.now());
+        }
+    }
+    
+    // Batch inserts hold the same stripe, so an order cannot be journaled while a batch is inserting it
+    private Transaction initiateJournaled(Transaction transaction) {
+        Lock lock = orderLockStripes.lockFor(transaction.getOrderId());
+        lock.lock();
         try {
-            Map<String, Object> paymentDetails = new HashMap<>();
-            paymentDetails.put("type", request.getPaymentInstrument().getType());
-            paymentDetails.put("cardNumber", request.getPaymentInstrument().getCardNumber());
-            
-            PaymentGatewayResponse gatewayResponse = paymentGatewayService.processPayment(
-                selectedGateway, 
+            return transactionJournal.initiate(transaction);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    CompletableFuture<InitiateTransactionResponse> callGateway(Transaction savedTransaction, 
+                                                               InitiateTransactionRequest request) {
+        return callGateway(savedTransaction, request, false);
+    }
+    
+    private CompletableFuture<InitiateTransactionResponse> callGateway(Transaction savedTransaction,
+                                                                       InitiateTransactionRequest request,
+                                                                       boolean gatewayUnsaved) {
+        pendingTransactionCache.put(savedTransaction.getOrderId(), savedTransaction.getId());
+        
+        Map<String, Object> paymentDetails = new HashMap<>();
+        paymentDetails.put("type", request.getPaymentInstrument().getType());
+        paymentDetails.put("cardNumber", request.getPaymentInstrument().getCardNumber());
+        
+        return gatewayFailoverService.submit(
+                savedTransaction.getSelectedGateway(), 
                 request.getOrderId(), 
                 request.getAmount().doubleValue(), 
-                paymentDetails
-            );
-            
-            if (gatewayResponse.getTransactionId() != null) {
-                savedTransaction.setGatewayTransactionId(gatewayResponse.getTransactionId());
-                transactionRepository.save(savedTransaction);
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error processing payment for transaction: {}", request.getOrderId(), e);
+                paymentDetails)
+            .handle((outcome, error) -> {
+                try {
+                    if (error != null) {
+                        if (gatewayUnsaved) {
+                            saveGatewayAssignment(savedTransaction, true);
+                        }
+                        throw error;
+                    }
+                    PaymentGatewayResponse gatewayResponse = outcome.getResponse();
+                    if (gatewayUnsaved || !outcome.getGateway().equals(savedTransaction.getSelectedGateway())) {
+                        // Not stored yet, or failed over or hedged: the transaction belongs to the gateway that answered
+                        savedTransaction.setSelectedGateway(outcome.getGateway());
+                        savedTransaction.setGatewayTransactionId(gatewayResponse.getTransactionId());
+                        saveGatewayAssignment(savedTransaction, true);
+                    } else if (gatewayResponse.getTransactionId() != null) {
+                        savedTransaction.setGatewayTransactionId(gatewayResponse.getTransactionId());
+                        saveGatewayAssignment(savedTransaction, false);
+                    }
+                } catch (Throwable e) {
+                    logger.error("Error processing payment for transaction: {}", request.getOrderId(), e);
+                }
+                
+                return toResponse(savedTransaction);
+            });
+    }
+    
+    private void saveGatewayAssignment(Transaction transaction, boolean reassigned) {
+        if (transactionJournal.isEnabled()) {
+            transactionJournal.recordGatewayAssignment(transaction);
+        } else if (reassigned) {
+            transactionRepository.updateGatewayAssignment(transaction.getId(), transaction.getSelectedGateway(), 
+                transaction.getGatewayTransactionId(), LocalDateTime.now());
+        } else {
+            transactionRepository.updateGatewayTransactionId(
+                transaction.getId(), transaction.getGatewayTransactionId(), LocalDateTime.now());
         }
-        
-        return new InitiateTransactionResponse(
-            savedTransaction.getId(),
-            savedTransaction.getOrderId(),
-            savedTransaction.getAmount(),
-            savedTransaction.getSelectedGateway(),
-            savedTransaction.getStatus(),
-            savedTransaction.getGatewayTransactionId(),
-            savedTransaction.getCreatedAt()
-        );
     }
     
     public void processCallback(CallbackRequest callbackRequest) {
-        Transaction transaction = transactionRepository.findByOrderId(callbackRequest.getOrderId())
-            .orElseThrow(() -> new IllegalArgumentException("Transaction not found for order ID: " + callbackRequest.getOrderId()));
-        
-        boolean isSuccess = "success".equals(callbackRequest.getStatus());
-        TransactionStatus newStatus = isSuccess ? TransactionStatus.SUCCESS : TransactionStatus.FAILURE;
-        
-        transaction.setStatus(newStatus);
-        if (!isSuccess && callbackRequest.getReason() != null) {
-            transaction.setFailureReason(callbackRequest.getReason());
+        long started = System.nanoTime();
+        try {
+            applyAndRecordCallback(callbackRequest);
+        } finally {
+            paymentMetrics.recordCallback(System.nanoTime() - started);
         }
+    }
+    
+    private void applyAndRecordCallback(CallbackRequest callbackRequest) {
+        boolean applied = transactionJournal.isEnabled()
+            ? applyJournaledCallback(callbackRequest)
+            : transitionStatus(callbackRequest);
         
-        transactionRepository.save(transaction);
+        TransactionStatus newStatus = callbackStatus(callbackRequest);
+        if (!applied) {
+            logger.info("Callback ignored, transaction cannot move to {}: {} - Gateway: {}", 
+                       newStatus, callbackRequest.getOrderId(), callbackRequest.getGateway());
+            return;
+        }
         
+        boolean isSuccess = newStatus == TransactionStatus.SUCCESS;
         gatewayHealthService.recordTransactionResult(callbackRequest.getGateway(), isSuccess);
         
         logger.info("Transaction callback processed: {} - Status: {} - Gateway: {}", 
@@ -113,4 +204,99 @@ public class TransactionService {
                        callbackRequest.getOrderId(), callbackRequest.getReason());
         }
     }
+    
+    static TransactionStatus callbackStatus(CallbackRequest callbackRequest) {
+        return "success".equals(callbackRequest.getStatus()) ? TransactionStatus.SUCCESS : TransactionStatus.FAILURE;
+    }
+    
+    static boolean applyCallback(Transaction transaction, CallbackRequest callbackRequest) {
+        TransactionStatus newStatus = callbackStatus(callbackRequest);
+        if (!transaction.getStatus().canTransitionTo(newStatus)) {
+            return false;
+        }
+        
+        transaction.setStatus(newStatus);
+        transaction.setFailureReason(failureReason(newStatus, callbackRequest));
+        return true;
+    }
+    
+    private static String failureReason(TransactionStatus status, CallbackRequest callbackRequest) {
+        return status == TransactionStatus.FAILURE ? callbackRequest.getReason() : null;
+    }
+    
+    // One conditional UPDATE: the database checks the current status, so concurrent callbacks for the
+    // same order cannot both apply and nothing has to be loaded
+    private boolean transitionStatus(CallbackRequest callbackRequest) {
+        String orderId = callbackRequest.getOrderId();
+        TransactionStatus newStatus = callbackStatus(callbackRequest);
+        Set<TransactionStatus> fromStatuses = TransactionStatus.sourcesOf(newStatus);
+        String failureReason = failureReason(newStatus, callbackRequest);
+        
+        // Recently initiated orders resolve from the cache and are updated by primary key
+        Long cachedId = pendingTransactionCache.getTransactionId(orderId);
+        pendingTransactionCache.invalidate(orderId);
+        int updated = cachedId != null
+            ? transactionRepository.transitionStatusById(cachedId, newStatus, fromStatuses, failureReason, LocalDateTime.now())
+            : transactionRepository.transitionStatus(orderId, newStatus, fromStatuses, failureReason, LocalDateTime.now());
+        if (updated == 1) {
+            return true;
+        }
+        
+        if (cachedId == null && !transactionRepository.existsByOrderId(orderId)) {
+            throw new IllegalArgumentException("Transaction not found for order ID: " + orderId);
+        }
+        return false;
+    }
+    
+    // Journaled callbacks for one order apply one at a time, so reading the latest state and journaling
+    // the change is atomic per order; other orders proceed on other stripes
+    private boolean applyJournaledCallback(CallbackRequest callbackRequest) {
+        Lock lock = orderLockStripes.lockFor(callbackRequest.getOrderId());
+        lock.lock();
+        try {
+            pendingTransactionCache.invalidate(callbackRequest.getOrderId());
+            Transaction transaction = findByOrderId(callbackRequest.getOrderId())
+                .orElseThrow(() -> new IllegalArgumentException("Transaction not found for order ID: " + callbackRequest.getOrderId()));
+            
+            if (!applyCallback(transaction, callbackRequest)) {
+                return false;
+            }
+            transactionJournal.recordStatusChange(transaction);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Changes still waiting in the journal are newer than the table
+    private Optional<Transaction> findByOrderId(String orderId) {
+        Transaction journaled = transactionJournal.findUnprojected(orderId);
+        return journaled != null ? Optional.of(journaled) : transactionRepository.findByOrderId(orderId);
+    }
+    
+    private InitiateTransactionResponse replayExistingTransaction(InitiateTransactionRequest request, 
+                                                                  DataIntegrityViolationException cause) {
+        Transaction existing = findByOrderId(request.getOrderId())
+            .orElseThrow(() -> cause);
+        
+        if (existing.getAmount().compareTo(request.getAmount()) != 0) {
+            throw new IllegalArgumentException("Transaction with order ID " + request.getOrderId() + " already exists");
+        }
+        
+        logger.info("Replaying existing transaction for order: {} with gateway: {}", 
+                   existing.getOrderId(), existing.getSelectedGateway());
+        return toResponse(existing);
+    }
+    
+    InitiateTransactionResponse toResponse(Transaction transaction) {
+        return new InitiateTransactionResponse(
+            transaction.getId(),
+            transaction.getOrderId(),
+            transaction.getAmount(),
+            transaction.getSelectedGateway(),
+            transaction.getStatus(),
+            transaction.getGatewayTransactionId(),
+            transaction.getCreatedAt()
+        );
+    }
 }
\ No newline at end of file
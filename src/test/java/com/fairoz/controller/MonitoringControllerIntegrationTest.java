@@ -0,0 +1,92 @@
+package com.fairoz.controller;
+
+import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.model.GatewayMetricsRollup;
+import com.fairoz.repository.GatewayMetricsRollupRepository;
+import com.fairoz.service.GatewayHealthService;
+import com.fairoz.service.GatewayMetricsRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = PaymentGatewayRouterApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:rolluptestdb",
+    "payment.rollup.flush-interval-ms=3600000"
+})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MonitoringControllerIntegrationTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private GatewayHealthService gatewayHealthService;
+    
+    @Autowired
+    private GatewayMetricsRollupService rollupService;
+    
+    @Autowired
+    private GatewayMetricsRollupRepository rollupRepository;
+    
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+    
+    @Test
+    void testGatewayTimeseries_ShouldServeVolumeWeightedRollups() throws Exception {
+        gatewayHealthService.recordTransactionResults("razorpay", 9, 1);
+        gatewayHealthService.recordTransactionResult("razorpay", true);
+        
+        mockMvc.perform(get("/monitoring/gateways/razorpay/timeseries").param("minutes", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gateway").value("razorpay"))
+                .andExpect(jsonPath("$.total_transactions").value(11))
+                .andExpect(jsonPath("$.points.length()").value(5))
+                .andExpect(jsonPath("$.points[0].minute_start").isString());
+        
+        mockMvc.perform(get("/monitoring/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transaction_volumes.razorpay").value(11));
+    }
+    
+    @Test
+    void testFlush_ShouldPersistRollupsAddingLaterDeltas() {
+        gatewayHealthService.recordTransactionResults("payu", 4, 1);
+        rollupService.flush();
+        gatewayHealthService.recordTransactionResults("payu", 0, 5);
+        rollupService.flush();
+        
+        List<GatewayMetricsRollup> rollups = rollupRepository.findAll();
+        assertEquals(10, rollups.stream()
+            .filter(rollup -> rollup.getGatewayName().equals("payu"))
+            .mapToLong(rollup -> rollup.getSuccessfulTransactions() + rollup.getFailedTransactions())
+            .sum());
+    }
+    
+    @Test
+    void testGatewayTimeseries_UnknownGatewayOrInvalidRange() throws Exception {
+        mockMvc.perform(get("/monitoring/gateways/stripe/timeseries"))
+                .andExpect(status().isNotFound());
+        
+        mockMvc.perform(get("/monitoring/gateways/razorpay/timeseries").param("minutes", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
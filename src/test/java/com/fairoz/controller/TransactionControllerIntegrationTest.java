@@ -1,11 +1,16 @@
 package com.fairoz.controller;
 
 import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.dto.BatchInitiateTransactionRequest;
 import com.fairoz.dto.CallbackRequest;
 import com.fairoz.dto.InitiateTransactionRequest;
 import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.TransactionStatus;
 import com.fairoz.repository.TransactionRepository;
+import com.fairoz.service.GatewayHealthStateEngine;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,11 +20,24 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +53,9 @@ class TransactionControllerIntegrationTest {
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private GatewayHealthStateEngine healthStateEngine;
+    
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     
@@ -50,9 +71,7 @@ class TransactionControllerIntegrationTest {
         PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
         InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
         
-        mockMvc.perform(post("/transactions/initiate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performInitiate(request)
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.order_id").value("ORD123"))
                 .andExpect(jsonPath("$.amount").value(499.0))
@@ -76,15 +95,72 @@ class TransactionControllerIntegrationTest {
     void testInitiateTransaction_DuplicateOrderId() throws Exception {
         PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
         InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        InitiateTransactionRequest conflicting = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(599.0), paymentInstrument);
         
-        mockMvc.perform(post("/transactions/initiate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+        performInitiate(request)
                 .andExpect(status().isOk());
         
-        mockMvc.perform(post("/transactions/initiate")
+        performInitiate(conflicting)
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void testInitiateTransaction_Replay_ShouldReturnOriginalTransaction() throws Exception {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        InitiateTransactionRequest request = new InitiateTransactionRequest("ORD125", BigDecimal.valueOf(499.0), paymentInstrument);
+        
+        String original = performInitiate(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Number transactionId = JsonPath.read(original, "$.transaction_id");
+        
+        performInitiate(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transaction_id").value(transactionId))
+                .andExpect(jsonPath("$.order_id").value("ORD125"));
+        
+        assertEquals(1, transactionRepository.count());
+    }
+    
+    @Test
+    void testInitiateTransactionBatch_ShouldStreamOneResultPerItem() throws Exception {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        performInitiate(new InitiateTransactionRequest("ORD1", BigDecimal.valueOf(499.0), paymentInstrument))
+                .andExpect(status().isOk());
+        
+        BatchInitiateTransactionRequest batch = new BatchInitiateTransactionRequest(List.of(
+            new InitiateTransactionRequest("ORD1", BigDecimal.valueOf(499.0), paymentInstrument),
+            new InitiateTransactionRequest("ORD2", BigDecimal.valueOf(100.0), paymentInstrument),
+            new InitiateTransactionRequest("ORD3", BigDecimal.valueOf(200.0), paymentInstrument),
+            new InitiateTransactionRequest("ORD3", BigDecimal.valueOf(300.0), paymentInstrument)
+        ));
+        
+        MvcResult result = mockMvc.perform(post("/transactions/initiate/batch")
                 .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(request)))
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(10_000);
+        
+        Map<String, List<String>> outcomes = new HashMap<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            outcomes.computeIfAbsent(node.get("order_id").asText(), orderId -> new ArrayList<>())
+                .add(node.get("outcome").asText());
+        }
+        
+        assertEquals(List.of("REPLAYED"), outcomes.get("ORD1"));
+        assertEquals(List.of("INITIATED"), outcomes.get("ORD2"));
+        assertEquals(2, outcomes.get("ORD3").size());
+        assertTrue(outcomes.get("ORD3").containsAll(List.of("INITIATED", "REJECTED")));
+        assertEquals(3, transactionRepository.count());
+    }
+    
+    @Test
+    void testInitiateTransactionBatch_Empty_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/transactions/initiate/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchInitiateTransactionRequest(List.of()))))
                 .andExpect(status().isBadRequest());
     }
     
@@ -93,9 +169,7 @@ class TransactionControllerIntegrationTest {
         PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
         InitiateTransactionRequest initiateRequest = new InitiateTransactionRequest("ORD124", BigDecimal.valueOf(299.0), paymentInstrument);
         
-        mockMvc.perform(post("/transactions/initiate")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(initiateRequest)))
+        performInitiate(initiateRequest)
                 .andExpect(status().isOk());
         
         CallbackRequest callbackRequest = new CallbackRequest("ORD124", "success", "razorpay", null);
@@ -107,6 +181,79 @@ class TransactionControllerIntegrationTest {
                 .andExpect(content().string("Callback processed successfully"));
     }
     
+    @Test
+    void testProcessCallback_ConcurrentDuplicates_ShouldApplyOnce() throws Exception {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        performInitiate(new InitiateTransactionRequest("ORD125", BigDecimal.valueOf(299.0), paymentInstrument))
+                .andExpect(status().isOk());
+        String callback = objectMapper.writeValueAsString(new CallbackRequest("ORD125", "success", "razorpay", null));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> mockMvc.perform(post("/transactions/callback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(callback))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(TransactionStatus.SUCCESS, transactionRepository.findByOrderId("ORD125").orElseThrow().getStatus());
+        assertEquals(1, healthStateEngine.getSnapshot("razorpay").getTotalTransactions());
+    }
+    
+    @Test
+    void testProcessCallback_LateFailureAfterSuccess_ShouldBeIgnored() throws Exception {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        performInitiate(new InitiateTransactionRequest("ORD126", BigDecimal.valueOf(299.0), paymentInstrument))
+                .andExpect(status().isOk());
+        
+        for (CallbackRequest callbackRequest : List.of(
+                new CallbackRequest("ORD126", "success", "razorpay", null),
+                new CallbackRequest("ORD126", "failure", "razorpay", "Timeout"))) {
+            mockMvc.perform(post("/transactions/callback")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(callbackRequest)))
+                    .andExpect(status().isOk());
+        }
+        
+        assertEquals(TransactionStatus.SUCCESS, transactionRepository.findByOrderId("ORD126").orElseThrow().getStatus());
+        assertEquals(1, healthStateEngine.getSnapshot("razorpay").getTotalTransactions());
+    }
+    
+    @Test
+    void testProcessCallbacksBulk_ShouldApplyNdjsonStream() throws Exception {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        performInitiate(new InitiateTransactionRequest("ORD1", BigDecimal.valueOf(499.0), paymentInstrument))
+                .andExpect(status().isOk());
+        performInitiate(new InitiateTransactionRequest("ORD2", BigDecimal.valueOf(199.0), paymentInstrument))
+                .andExpect(status().isOk());
+        
+        String callbacks = String.join("\n",
+            objectMapper.writeValueAsString(new CallbackRequest("ORD1", "success", "razorpay", null)),
+            objectMapper.writeValueAsString(new CallbackRequest("ORD2", "failure", "payu", "Customer Cancelled")),
+            objectMapper.writeValueAsString(new CallbackRequest("ORD404", "success", "razorpay", null)),
+            "{\"order_id\":");
+        
+        mockMvc.perform(post("/transactions/callback/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(callbacks))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.applied").value(2))
+                .andExpect(jsonPath("$.not_found").value(1))
+                .andExpect(jsonPath("$.invalid").value(1));
+        
+        assertEquals(TransactionStatus.SUCCESS, transactionRepository.findByOrderId("ORD1").orElseThrow().getStatus());
+        assertEquals("Customer Cancelled", transactionRepository.findByOrderId("ORD2").orElseThrow().getFailureReason());
+    }
+    
     @Test
     void testProcessCallback_TransactionNotFound() throws Exception {
         CallbackRequest callbackRequest = new CallbackRequest("ORD999", "success", "razorpay", null);
@@ -117,4 +264,14 @@ class TransactionControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Invalid request")));
     }
+    
+    private ResultActions performInitiate(InitiateTransactionRequest request) throws Exception {
+        MvcResult result = mockMvc.perform(post("/transactions/initiate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
\ No newline at end of file
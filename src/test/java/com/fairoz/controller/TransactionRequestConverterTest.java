@@ -0,0 +1,106 @@
+package com.fairoz.controller;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.GatewayConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRequestConverterTest {
+    
+    private ObjectMapper objectMapper;
+    private TransactionRequestConverter converter;
+    
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(
+            new GatewayConfig("razorpay", 40, true),
+            new GatewayConfig("payu", 35, true)));
+        converter = new TransactionRequestConverter(objectMapper, paymentProperties);
+    }
+    
+    private Object read(Class<?> type, String json) throws IOException {
+        return converter.read(type, new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    @Test
+    void testRead_InitiateRequest_ShouldMatchDatabind() throws IOException {
+        String json = """
+            {"order_id": "ORD123", "amount": 499.0, "extra": {"nested": [1, 2]},
+             "payment_instrument": {"type": "card", "card_number": "****1234", "expiry": "12/25",
+                                    "cvv": "123", "holder_name": "John Doe", "issuer": "VISA"}}
+            """;
+        
+        InitiateTransactionRequest fast = (InitiateTransactionRequest) read(InitiateTransactionRequest.class, json);
+        InitiateTransactionRequest expected = objectMapper.readValue(json, InitiateTransactionRequest.class);
+        
+        assertEquals(expected.getOrderId(), fast.getOrderId());
+        assertEquals(expected.getAmount(), fast.getAmount());
+        assertEquals(expected.getPaymentInstrument().getType(), fast.getPaymentInstrument().getType());
+        assertEquals(expected.getPaymentInstrument().getCardNumber(), fast.getPaymentInstrument().getCardNumber());
+        assertEquals(expected.getPaymentInstrument().getExpiry(), fast.getPaymentInstrument().getExpiry());
+        assertEquals(expected.getPaymentInstrument().getCvv(), fast.getPaymentInstrument().getCvv());
+        assertEquals(expected.getPaymentInstrument().getHolderName(), fast.getPaymentInstrument().getHolderName());
+    }
+    
+    @Test
+    void testRead_AmountAsString_ShouldParseDecimal() throws IOException {
+        InitiateTransactionRequest request = (InitiateTransactionRequest) read(InitiateTransactionRequest.class,
+            "{\"order_id\": \"ORD1\", \"amount\": \"12.50\", \"payment_instrument\": null}");
+        
+        assertEquals(new BigDecimal("12.50"), request.getAmount());
+        assertNull(request.getPaymentInstrument());
+    }
+    
+    @Test
+    void testRead_Callback_ShouldShareConfiguredGatewayAndStatusStrings() throws IOException {
+        CallbackRequest request = (CallbackRequest) read(CallbackRequest.class,
+            "{\"order_id\": \"ORD1\", \"status\": \"failure\", \"gateway\": \"payu\", \"reason\": \"Timeout\"}");
+        CallbackRequest unknown = (CallbackRequest) read(CallbackRequest.class,
+            "{\"order_id\": \"ORD2\", \"status\": \"pending\", \"gateway\": \"stripe\"}");
+        
+        assertEquals("ORD1", request.getOrderId());
+        assertSame("failure", request.getStatus());
+        assertSame("payu", request.getGateway());
+        assertEquals("Timeout", request.getReason());
+        assertEquals("pending", unknown.getStatus());
+        assertEquals("stripe", unknown.getGateway());
+    }
+    
+    @Test
+    void testRead_MalformedOrEmptyBody_ShouldBeNotReadable() {
+        assertThrows(HttpMessageNotReadableException.class,
+            () -> read(CallbackRequest.class, "{\"order_id\": \"ORD1\", \"status\": "));
+        assertThrows(HttpMessageNotReadableException.class,
+            () -> read(CallbackRequest.class, "[{\"order_id\": \"ORD1\"}]"));
+        assertThrows(HttpMessageNotReadableException.class,
+            () -> read(CallbackRequest.class, "{\"order_id\": {\"id\": 1}}"));
+        assertThrows(HttpMessageNotReadableException.class,
+            () -> read(InitiateTransactionRequest.class, "{\"amount\": \"lots\"}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read(CallbackRequest.class, ""));
+    }
+    
+    @Test
+    void testCanReadAndWrite_ShouldOnlyReadSingleRequestBodies() {
+        assertTrue(converter.canRead(CallbackRequest.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canRead(InitiateTransactionRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(CallbackRequest.class, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canRead(String.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(CallbackRequest.class, MediaType.APPLICATION_JSON));
+    }
+}
\ No newline at end of file
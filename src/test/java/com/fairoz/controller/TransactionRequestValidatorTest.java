@@ -0,0 +1,106 @@
+package com.fairoz.controller;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.PaymentInstrument;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRequestValidatorTest {
+    
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private TransactionRequestValidator requestValidator;
+    
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = new SpringValidatorAdapter(validatorFactory.getValidator());
+        requestValidator = new TransactionRequestValidator(new PaymentProperties());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+    
+    private static Set<String> errors(Validator validator, Object request) {
+        Errors errors = new BeanPropertyBindingResult(request, "request");
+        validator.validate(request, errors);
+        return errors.getFieldErrors().stream()
+            .map(error -> error.getField() + "|" + error.getCode() + "|" + error.getDefaultMessage())
+            .collect(Collectors.toSet());
+    }
+    
+    private void assertSameErrors(Object request) {
+        assertEquals(errors(beanValidator, request), errors(requestValidator, request));
+    }
+    
+    @Test
+    void testValidate_CallbackRequests_ShouldMatchBeanValidation() {
+        List<CallbackRequest> requests = List.of(
+            new CallbackRequest("ORD1", "success", "razorpay", null),
+            new CallbackRequest("ORD1", "failure", "payu", "Timeout"),
+            new CallbackRequest(null, null, null, null),
+            new CallbackRequest(" ", "", "\t", null),
+            new CallbackRequest("ORD1", "SUCCESS", "razorpay", null),
+            new CallbackRequest("ORD1", "success\n", "razorpay", null),
+            new CallbackRequest("ORD1", "  ", "razorpay", null));
+        
+        for (CallbackRequest request : requests) {
+            assertSameErrors(request);
+        }
+    }
+    
+    @Test
+    void testValidate_InitiateRequests_ShouldMatchBeanValidation() {
+        List<InitiateTransactionRequest> requests = List.of(
+            new InitiateTransactionRequest("ORD1", new BigDecimal("499.0"), instrument("card", "12/25")),
+            new InitiateTransactionRequest(null, null, null),
+            new InitiateTransactionRequest("", BigDecimal.ZERO, instrument(" ", "13/25")),
+            new InitiateTransactionRequest("ORD1", new BigDecimal("-1"), instrument(null, "00/25")),
+            new InitiateTransactionRequest("ORD1", new BigDecimal("0.01"), instrument("card", null)),
+            new InitiateTransactionRequest("ORD1", BigDecimal.ONE, instrument("card", "1/25")),
+            new InitiateTransactionRequest("ORD1", BigDecimal.ONE, instrument("card", "10/2a")),
+            new InitiateTransactionRequest("ORD1", BigDecimal.ONE, instrument("card", "10-25")),
+            new InitiateTransactionRequest("ORD1", BigDecimal.ONE, instrument("card", "12/25\n")));
+        
+        for (InitiateTransactionRequest request : requests) {
+            assertSameErrors(request);
+        }
+    }
+    
+    @Test
+    void testValidate_ShouldRejectWithFieldPathsUsedByErrorResponses() {
+        InitiateTransactionRequest request =
+            new InitiateTransactionRequest("ORD1", BigDecimal.ONE, instrument("card", "99/99"));
+        Errors errors = new BeanPropertyBindingResult(request, "request");
+        requestValidator.validate(request, errors);
+        
+        FieldError error = errors.getFieldError();
+        assertNotNull(error);
+        assertEquals("paymentInstrument.expiry", error.getField());
+        assertEquals("99/99", error.getRejectedValue());
+        assertEquals("Expiry must be in MM/YY format", error.getDefaultMessage());
+    }
+    
+    private static PaymentInstrument instrument(String type, String expiry) {
+        return new PaymentInstrument(type, "****1234", expiry, "123", "John Doe");
+    }
+}
\ No newline at end of file
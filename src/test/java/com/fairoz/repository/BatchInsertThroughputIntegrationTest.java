@@ -0,0 +1,98 @@
+package com.fairoz.repository;
+
+import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = PaymentGatewayRouterApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:batchtestdb",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class BatchInsertThroughputIntegrationTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchInsertThroughputIntegrationTest.class);
+    
+    private static final int TRANSACTIONS = 5000;
+    private static final int METRIC_ROWS = 1000;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private GatewayHealthMetricsRepository healthMetricsRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void testSaveAll_Transactions_ShouldBatchInserts() {
+        List<Transaction> transactions = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Transaction transaction = new Transaction("BULK" + i, BigDecimal.valueOf(100),
+                new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+            transaction.setSelectedGateway("razorpay");
+            transactions.add(transaction);
+        }
+        
+        long started = System.nanoTime();
+        transactionRepository.saveAll(transactions);
+        long elapsedNanos = System.nanoTime() - started;
+        
+        logger.info("Inserted {} transactions in {} ms ({} inserts/s) using {} JDBC statements",
+                   TRANSACTIONS, elapsedNanos / 1_000_000, TRANSACTIONS * 1_000_000_000L / elapsedNanos,
+                   statistics.getPrepareStatementCount());
+        
+        assertEquals(TRANSACTIONS, transactionRepository.count());
+        assertTrue(statistics.getPrepareStatementCount() < TRANSACTIONS / 10,
+            "Expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+    }
+    
+    @Test
+    void testSaveAll_HealthMetricCheckpoints_ShouldBatchInserts() {
+        List<GatewayHealthMetrics> checkpoints = new ArrayList<>(METRIC_ROWS);
+        for (int i = 0; i < METRIC_ROWS; i++) {
+            GatewayHealthMetrics metrics = new GatewayHealthMetrics("gateway" + (i % 3));
+            metrics.recordTransactions(9, 1);
+            checkpoints.add(metrics);
+        }
+        
+        long started = System.nanoTime();
+        healthMetricsRepository.saveAll(checkpoints);
+        long elapsedNanos = System.nanoTime() - started;
+        
+        logger.info("Inserted {} health metric rows in {} ms ({} inserts/s) using {} JDBC statements",
+                   METRIC_ROWS, elapsedNanos / 1_000_000, METRIC_ROWS * 1_000_000_000L / elapsedNanos,
+                   statistics.getPrepareStatementCount());
+        
+        assertTrue(statistics.getPrepareStatementCount() < METRIC_ROWS / 10,
+            "Expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.fairoz.service;
+
+import com.fairoz.model.GatewayConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasTableGatewaySelectorTest {
+    
+    private final AliasTableGatewaySelector gatewaySelector = new AliasTableGatewaySelector();
+    
+    @Test
+    void testSelect_ShouldFollowConfiguredWeights() {
+        GatewaySelector.Selection selection = gatewaySelector.prepare(List.of(
+            new GatewayConfig("razorpay", 40, true),
+            new GatewayConfig("payu", 35, true),
+            new GatewayConfig("cashfree", 25, true)
+        ));
+        
+        Map<String, Integer> counts = new HashMap<>();
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            counts.merge(selection.select(), 1, Integer::sum);
+        }
+        
+        assertEquals(3, selection.size());
+        assertEquals(0.40, counts.get("razorpay") / (double) samples, 0.01);
+        assertEquals(0.35, counts.get("payu") / (double) samples, 0.01);
+        assertEquals(0.25, counts.get("cashfree") / (double) samples, 0.01);
+    }
+    
+    @Test
+    void testSelect_ZeroWeight_ShouldNeverBeSelected() {
+        GatewaySelector.Selection selection = gatewaySelector.prepare(List.of(
+            new GatewayConfig("razorpay", 0, true),
+            new GatewayConfig("payu", 10, true)
+        ));
+        
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("payu", selection.select());
+        }
+    }
+    
+    @Test
+    void testSelect_AllZeroWeights_ShouldSelectUniformly() {
+        GatewaySelector.Selection selection = gatewaySelector.prepare(List.of(
+            new GatewayConfig("razorpay", 0, true),
+            new GatewayConfig("payu", 0, true)
+        ));
+        
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            counts.merge(selection.select(), 1, Integer::sum);
+        }
+        
+        assertEquals(2, counts.size());
+    }
+    
+    @Test
+    void testPrepare_NoGateways_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> gatewaySelector.prepare(List.of()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.BatchTransactionResult;
+import com.fairoz.dto.BatchTransactionResult.Outcome;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.repository.TransactionRepository;
+import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionServiceTest {
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private GatewayHealthService gatewayHealthService;
+    
+    @Mock
+    private PaymentGatewayService paymentGatewayService;
+    
+    private BatchTransactionService batchTransactionService;
+    private final AtomicLong ids = new AtomicLong();
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(new GatewayConfig("razorpay", 40, true)));
+        paymentProperties.getBatch().setChunkSize(2);
+        paymentProperties.getBatch().setMaxSize(10);
+        
+        PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry(), paymentProperties);
+        GatewayConcurrencyLimiter concurrencyLimiter = new GatewayConcurrencyLimiter(paymentProperties, new SimpleMeterRegistry());
+        GatewayRoutingService gatewayRoutingService = new GatewayRoutingService(
+            paymentProperties, gatewayHealthService, new AliasTableGatewaySelector(), concurrencyLimiter, paymentMetrics);
+        GatewayCallExecutor gatewayCallExecutor = new GatewayCallExecutor(
+            paymentGatewayService, concurrencyLimiter, paymentMetrics, 
+            new GatewayLatencyTracker(paymentProperties), mock(GatewayHealthStateEngine.class),
+            mock(GatewayMetricsRollupService.class));
+        GatewayFailoverService gatewayFailoverService = new GatewayFailoverService(
+            gatewayCallExecutor, gatewayRoutingService, new RetryBudget(paymentProperties), paymentMetrics, paymentProperties, mock(ApplicationEventPublisher.class));
+        TransactionJournal transactionJournal = new TransactionJournal(
+            paymentProperties, transactionRepository, mock(TransactionProjector.class), new SimpleMeterRegistry());
+        OrderLockStripes orderLockStripes = new OrderLockStripes(paymentProperties);
+        TransactionService transactionService = new TransactionService(
+            transactionRepository, gatewayRoutingService, gatewayFailoverService, gatewayHealthService,
+            new PendingTransactionCache(paymentProperties, new SimpleMeterRegistry()), transactionJournal,
+            orderLockStripes, paymentMetrics);
+        
+        batchTransactionService = new BatchTransactionService(transactionRepository, gatewayRoutingService, 
+            transactionService, transactionJournal, orderLockStripes, paymentProperties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        batchTransactionService.shutdown();
+    }
+    
+    @Test
+    void testInitiateBatch_ShouldInsertEachChunkInOneSaveAndCallGateways() {
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of());
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        when(paymentGatewayService.processPayment(anyString(), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse("RAZORPAY_1", true, null));
+        
+        Map<String, BatchTransactionResult> results = initiate(List.of(
+            request("ORD1", 100), request("ORD2", 100), request("ORD3", 100)));
+        
+        assertEquals(3, results.size());
+        results.values().forEach(result -> {
+            assertEquals(Outcome.INITIATED, result.getOutcome());
+            assertEquals("razorpay", result.getTransaction().getSelectedGateway());
+            assertEquals("RAZORPAY_1", result.getTransaction().getGatewayTransactionId());
+        });
+        verify(transactionRepository, times(2)).findAllByOrderIdIn(any());
+        verify(transactionRepository, times(2)).saveAll(anyList());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+    
+    @Test
+    void testInitiateBatch_ExistingOrders_ShouldReplayOrReject() {
+        Transaction existingSameAmount = existing("ORD1", 100);
+        Transaction existingOtherAmount = existing("ORD2", 999);
+        
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(transactionRepository.findAllByOrderIdIn(any()))
+            .thenReturn(List.of(existingSameAmount, existingOtherAmount));
+        
+        Map<String, BatchTransactionResult> results = initiate(List.of(request("ORD1", 100), request("ORD2", 100)));
+        
+        assertEquals(Outcome.REPLAYED, results.get("ORD1").getOutcome());
+        assertEquals(existingSameAmount.getId(), results.get("ORD1").getTransaction().getTransactionId());
+        assertEquals(Outcome.REJECTED, results.get("ORD2").getOutcome());
+        verify(transactionRepository, never()).saveAll(anyList());
+        verifyNoInteractions(paymentGatewayService);
+    }
+    
+    @Test
+    void testInitiateBatch_DuplicateOrderIdsInBatch_ShouldInsertOnce() {
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of());
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        when(paymentGatewayService.processPayment(anyString(), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse("RAZORPAY_1", true, null));
+        
+        List<BatchTransactionResult> results = initiateAll(List.of(request("ORD1", 100), request("ORD1", 100)));
+        
+        assertEquals(2, results.size());
+        assertEquals(1, results.stream().filter(r -> r.getOutcome() == Outcome.INITIATED).count());
+        assertEquals(1, results.stream().filter(r -> r.getOutcome() == Outcome.REPLAYED).count());
+        verify(paymentGatewayService, times(1)).processPayment(anyString(), anyString(), anyDouble(), any());
+    }
+    
+    @Test
+    void testInitiateBatch_ConcurrentInsertConflict_ShouldFallBackToSingleInserts() {
+        Transaction concurrent = existing("ORD2", 100);
+        
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of());
+        when(transactionRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate order_id"));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            if (transaction.getOrderId().equals("ORD2")) {
+                throw new DataIntegrityViolationException("duplicate order_id");
+            }
+            return assignIds(List.of(transaction)).get(0);
+        });
+        when(transactionRepository.findByOrderId("ORD2")).thenReturn(Optional.of(concurrent));
+        when(paymentGatewayService.processPayment(anyString(), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse("RAZORPAY_1", true, null));
+        
+        Map<String, BatchTransactionResult> results = initiate(List.of(request("ORD1", 100), request("ORD2", 100)));
+        
+        assertEquals(Outcome.INITIATED, results.get("ORD1").getOutcome());
+        assertEquals(Outcome.REPLAYED, results.get("ORD2").getOutcome());
+    }
+    
+    @Test
+    void testInitiateBatch_TooLarge_ShouldThrowException() {
+        List<InitiateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            requests.add(request("ORD" + i, 100));
+        }
+        
+        assertThrows(IllegalArgumentException.class, 
+            () -> batchTransactionService.initiateTransactionBatch(requests, result -> { }));
+        verifyNoInteractions(transactionRepository);
+    }
+    
+    @Test
+    void testInitiateBatch_NoHealthyGateways_ShouldThrowException() {
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(false);
+        
+        assertThrows(RuntimeException.class, 
+            () -> batchTransactionService.initiateTransactionBatch(List.of(request("ORD1", 100)), result -> { }));
+        verifyNoInteractions(transactionRepository);
+    }
+    
+    private Map<String, BatchTransactionResult> initiate(List<InitiateTransactionRequest> requests) {
+        return initiateAll(requests).stream()
+            .collect(Collectors.toMap(BatchTransactionResult::getOrderId, Function.identity()));
+    }
+    
+    private List<BatchTransactionResult> initiateAll(List<InitiateTransactionRequest> requests) {
+        List<BatchTransactionResult> results = Collections.synchronizedList(new ArrayList<>());
+        batchTransactionService.initiateTransactionBatch(requests, results::add).join();
+        return results;
+    }
+    
+    private List<Transaction> assignIds(List<Transaction> transactions) {
+        transactions.forEach(transaction -> transaction.setId(ids.incrementAndGet()));
+        return transactions;
+    }
+    
+    private Transaction existing(String orderId, long amount) {
+        Transaction transaction = new Transaction(orderId, BigDecimal.valueOf(amount), instrument());
+        transaction.setId(ids.incrementAndGet());
+        transaction.setSelectedGateway("razorpay");
+        return transaction;
+    }
+    
+    private static InitiateTransactionRequest request(String orderId, long amount) {
+        return new InitiateTransactionRequest(orderId, BigDecimal.valueOf(amount), instrument());
+    }
+    
+    private static PaymentInstrument instrument() {
+        return new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+    }
+}
\ No newline at end of file
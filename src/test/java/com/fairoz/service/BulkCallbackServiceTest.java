@@ -0,0 +1,150 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.dto.BulkCallbackResponse;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+import com.fairoz.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkCallbackServiceTest {
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private GatewayHealthService gatewayHealthService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private BulkCallbackService bulkCallbackService;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.getCallback().setChunkSize(2);
+        
+        TransactionJournal transactionJournal = new TransactionJournal(
+            paymentProperties, transactionRepository, mock(TransactionProjector.class), new SimpleMeterRegistry());
+        bulkCallbackService = new BulkCallbackService(transactionRepository, gatewayHealthService,
+            new PendingTransactionCache(paymentProperties, new SimpleMeterRegistry()), transactionJournal, 
+            new OrderLockStripes(paymentProperties), transactionManager,
+            new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), paymentProperties);
+    }
+    
+    @Test
+    void testProcessCallbacks_ShouldLoadEachChunkWithOneQueryAndAggregateHealth() throws Exception {
+        Transaction first = transaction("ORD1");
+        Transaction second = transaction("ORD2");
+        Transaction third = transaction("ORD3");
+        
+        when(transactionRepository.findAllByOrderIdIn(any()))
+            .thenReturn(List.of(first, second), List.of(third));
+        
+        BulkCallbackResponse response = bulkCallbackService.processCallbacks(ndjson(
+            "{\"order_id\":\"ORD1\",\"status\":\"success\",\"gateway\":\"razorpay\"}",
+            "{\"order_id\":\"ORD2\",\"status\":\"failure\",\"gateway\":\"razorpay\",\"reason\":\"Declined\"}",
+            "",
+            "{\"order_id\":\"ORD3\",\"status\":\"success\",\"gateway\":\"payu\"}"
+        ));
+        
+        assertEquals(3, response.getReceived());
+        assertEquals(3, response.getApplied());
+        assertEquals(0, response.getNotFound());
+        assertEquals(0, response.getInvalid());
+        
+        assertEquals(TransactionStatus.SUCCESS, first.getStatus());
+        assertEquals(TransactionStatus.FAILURE, second.getStatus());
+        assertEquals("Declined", second.getFailureReason());
+        assertEquals(TransactionStatus.SUCCESS, third.getStatus());
+        
+        verify(transactionRepository, times(2)).findAllByOrderIdIn(any());
+        verify(transactionRepository, never()).findByOrderId(anyString());
+        verify(gatewayHealthService).recordTransactionResults("razorpay", 1, 1);
+        verify(gatewayHealthService).recordTransactionResults("payu", 1, 0);
+        verify(gatewayHealthService, never()).recordTransactionResult(anyString(), anyBoolean());
+    }
+    
+    @Test
+    void testProcessCallbacks_ShouldCountInvalidAndUnknownCallbacks() throws Exception {
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of());
+        
+        BulkCallbackResponse response = bulkCallbackService.processCallbacks(ndjson(
+            "{\"order_id\":\"UNKNOWN\",\"status\":\"success\",\"gateway\":\"razorpay\"}",
+            "{\"order_id\":\"ORD1\",\"status\":\"pending\",\"gateway\":\"razorpay\"}",
+            "not json"
+        ));
+        
+        assertEquals(3, response.getReceived());
+        assertEquals(0, response.getApplied());
+        assertEquals(1, response.getNotFound());
+        assertEquals(2, response.getInvalid());
+        verify(gatewayHealthService, never()).recordTransactionResults(anyString(), anyLong(), anyLong());
+    }
+    
+    @Test
+    void testProcessCallbacks_RepeatedStatus_ShouldCountDuplicateOnce() throws Exception {
+        Transaction transaction = transaction("ORD1");
+        
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of(transaction));
+        
+        BulkCallbackResponse response = bulkCallbackService.processCallbacks(ndjson(
+            "{\"order_id\":\"ORD1\",\"status\":\"success\",\"gateway\":\"razorpay\"}",
+            "{\"order_id\":\"ORD1\",\"status\":\"success\",\"gateway\":\"razorpay\"}"
+        ));
+        
+        assertEquals(1, response.getApplied());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(0, response.getNotFound());
+        verify(gatewayHealthService).recordTransactionResults("razorpay", 1, 0);
+    }
+    
+    @Test
+    void testProcessCallbacks_FailureAfterSuccess_ShouldNotOverwrite() throws Exception {
+        Transaction transaction = transaction("ORD1");
+        
+        when(transactionRepository.findAllByOrderIdIn(any())).thenReturn(List.of(transaction));
+        
+        BulkCallbackResponse response = bulkCallbackService.processCallbacks(ndjson(
+            "{\"order_id\":\"ORD1\",\"status\":\"success\",\"gateway\":\"razorpay\"}",
+            "{\"order_id\":\"ORD1\",\"status\":\"failure\",\"gateway\":\"razorpay\",\"reason\":\"Timeout\"}"
+        ));
+        
+        assertEquals(1, response.getApplied());
+        assertEquals(1, response.getDuplicates());
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        assertNull(transaction.getFailureReason());
+        verify(gatewayHealthService).recordTransactionResults("razorpay", 1, 0);
+    }
+    
+    private static Transaction transaction(String orderId) {
+        return new Transaction(orderId, BigDecimal.valueOf(100),
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+    }
+    
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
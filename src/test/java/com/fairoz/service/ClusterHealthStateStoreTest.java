@@ -0,0 +1,190 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterHealthStateStoreTest {
+    
+    private final List<ClusterHealthStateStore> stores = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (ClusterHealthStateStore store : stores) {
+            store.stop();
+        }
+    }
+    
+    private PaymentProperties paymentProperties(String... peers) {
+        PaymentProperties.HealthConfig health = new PaymentProperties.HealthConfig();
+        health.setSuccessRateThreshold(90.0);
+        health.setMonitoringWindowMinutes(15);
+        
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setHealth(health);
+        paymentProperties.setGateways(List.of(
+            new GatewayConfig("razorpay", 60, true),
+            new GatewayConfig("payu", 40, true)
+        ));
+        paymentProperties.getCluster().setEnabled(true);
+        paymentProperties.getCluster().setBindAddress("127.0.0.1");
+        paymentProperties.getCluster().setPort(0);
+        paymentProperties.getCluster().setGossipIntervalMs(20L);
+        paymentProperties.getCluster().setNodeExpiryIntervals(5);
+        paymentProperties.getCluster().setSharedSecret("test-secret");
+        paymentProperties.getCluster().setPeers(List.of(peers));
+        return paymentProperties;
+    }
+    
+    private ClusterHealthStateStore startStore(GatewayHealthStateEngine engine, PaymentProperties paymentProperties)
+            throws Exception {
+        ClusterHealthStateStore store = new ClusterHealthStateStore(engine, paymentProperties);
+        stores.add(store);
+        store.start();
+        return store;
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Cluster did not converge within a second");
+            Thread.sleep(10);
+        }
+    }
+    
+    @Test
+    void testRecordResults_ShouldConvergeAcrossNodesWithinASecond() throws Exception {
+        PaymentProperties seedProperties = paymentProperties();
+        GatewayHealthStateEngine seedEngine = new GatewayHealthStateEngine(seedProperties, event -> { });
+        ClusterHealthStateStore seed = startStore(seedEngine, seedProperties);
+        
+        PaymentProperties joinerProperties = paymentProperties("127.0.0.1:" + seed.getLocalPort());
+        GatewayHealthStateEngine joinerEngine = new GatewayHealthStateEngine(joinerProperties, event -> { });
+        ClusterHealthStateStore joiner = startStore(joinerEngine, joinerProperties);
+        
+        // The seed learns the joiner from its gossip, and from then on gossips back
+        await(() -> seed.getPeers().contains(joiner.getNodeId()) && joiner.getPeers().contains(seed.getNodeId()));
+        
+        seed.recordResults("razorpay", 8, 2);
+        joiner.recordResults("razorpay", 10, 0);
+        joiner.recordResults("payu", 0, 5);
+        
+        await(() -> joinerEngine.getSnapshot("razorpay").getTotalTransactions() == 20
+            && seedEngine.getSnapshot("razorpay").getTotalTransactions() == 20);
+        assertEquals(18, seedEngine.getSnapshot("razorpay").getSuccessfulTransactions());
+        assertEquals(18, joinerEngine.getSnapshot("razorpay").getSuccessfulTransactions());
+        
+        // payu's outcomes were all failures, so the seed trips the circuit without seeing a single callback
+        await(() -> !seedEngine.isHealthy("payu"));
+    }
+    
+    @Test
+    void testGossip_ShouldBeIdempotent() throws Exception {
+        PaymentProperties seedProperties = paymentProperties();
+        GatewayHealthStateEngine seedEngine = new GatewayHealthStateEngine(seedProperties, event -> { });
+        ClusterHealthStateStore seed = startStore(seedEngine, seedProperties);
+        
+        PaymentProperties joinerProperties = paymentProperties("127.0.0.1:" + seed.getLocalPort());
+        GatewayHealthStateEngine joinerEngine = new GatewayHealthStateEngine(joinerProperties, event -> { });
+        ClusterHealthStateStore joiner = startStore(joinerEngine, joinerProperties);
+        await(() -> joiner.getPeers().contains(seed.getNodeId()));
+        
+        seed.recordResults("razorpay", 3, 1);
+        await(() -> joinerEngine.getSnapshot("razorpay").getTotalTransactions() == 4);
+        
+        // Repeated gossip of unchanged counters must not be counted again
+        for (int i = 0; i < 5; i++) {
+            seed.gossip();
+        }
+        Thread.sleep(100);
+        
+        assertEquals(4, joinerEngine.getSnapshot("razorpay").getTotalTransactions());
+        assertEquals(4, seedEngine.getSnapshot("razorpay").getTotalTransactions());
+    }
+    
+    @Test
+    void testConstructor_InvalidPeer_ShouldThrowException() {
+        PaymentProperties paymentProperties = paymentProperties("localhost");
+        GatewayHealthStateEngine engine = new GatewayHealthStateEngine(paymentProperties, event -> { });
+        
+        assertThrows(IllegalArgumentException.class, () -> new ClusterHealthStateStore(engine, paymentProperties));
+    }
+    
+    @Test
+    void testConstructor_MissingSharedSecret_ShouldThrowException() {
+        PaymentProperties paymentProperties = paymentProperties();
+        paymentProperties.getCluster().setSharedSecret(null);
+        GatewayHealthStateEngine engine = new GatewayHealthStateEngine(paymentProperties, event -> { });
+        
+        assertThrows(IllegalArgumentException.class, () -> new ClusterHealthStateStore(engine, paymentProperties));
+    }
+    
+    @Test
+    void testConstructor_ConfiguredNodeId_ShouldBeUsedAsIs() {
+        PaymentProperties paymentProperties = paymentProperties();
+        paymentProperties.getCluster().setNodeId("router-1");
+        GatewayHealthStateEngine engine = new GatewayHealthStateEngine(paymentProperties, event -> { });
+        
+        assertEquals("router-1", new ClusterHealthStateStore(engine, paymentProperties).getNodeId());
+    }
+    
+    @Test
+    void testReceive_WrongSharedSecret_ShouldBeIgnored() throws Exception {
+        PaymentProperties seedProperties = paymentProperties();
+        GatewayHealthStateEngine seedEngine = new GatewayHealthStateEngine(seedProperties, event -> { });
+        ClusterHealthStateStore seed = startStore(seedEngine, seedProperties);
+        
+        PaymentProperties intruderProperties = paymentProperties("127.0.0.1:" + seed.getLocalPort());
+        intruderProperties.getCluster().setSharedSecret("guessed-secret");
+        GatewayHealthStateEngine intruderEngine = new GatewayHealthStateEngine(intruderProperties, event -> { });
+        ClusterHealthStateStore intruder = startStore(intruderEngine, intruderProperties);
+        
+        intruder.recordResults("razorpay", 0, 50);
+        Thread.sleep(200);
+        
+        assertTrue(seed.getPeers().isEmpty());
+        assertEquals(0, seedEngine.getSnapshot("razorpay").getTotalTransactions());
+    }
+    
+    @Test
+    void testRemoteNode_NotHeardFrom_ShouldBeForgotten() throws Exception {
+        PaymentProperties seedProperties = paymentProperties();
+        GatewayHealthStateEngine seedEngine = new GatewayHealthStateEngine(seedProperties, event -> { });
+        ClusterHealthStateStore seed = startStore(seedEngine, seedProperties);
+        
+        PaymentProperties joinerProperties = paymentProperties("127.0.0.1:" + seed.getLocalPort());
+        GatewayHealthStateEngine joinerEngine = new GatewayHealthStateEngine(joinerProperties, event -> { });
+        ClusterHealthStateStore joiner = startStore(joinerEngine, joinerProperties);
+        await(() -> seed.getKnownNodes().contains(joiner.getNodeId()));
+        
+        joiner.stop();
+        
+        await(() -> seed.getKnownNodes().isEmpty() && seed.getPeers().isEmpty());
+    }
+    
+    @Test
+    void testEncode_ShouldSplitNodesAcrossDatagramsWithinTheLimit() throws Exception {
+        PaymentProperties seedProperties = paymentProperties();
+        GatewayHealthStateEngine seedEngine = new GatewayHealthStateEngine(seedProperties, event -> { });
+        ClusterHealthStateStore seed = startStore(seedEngine, seedProperties);
+        for (int i = 0; i < 2; i++) {
+            PaymentProperties joinerProperties = paymentProperties("127.0.0.1:" + seed.getLocalPort());
+            GatewayHealthStateEngine joinerEngine = new GatewayHealthStateEngine(joinerProperties, event -> { });
+            startStore(joinerEngine, joinerProperties).recordResults("razorpay", 1, 0);
+        }
+        seed.recordResults("razorpay", 1, 0);
+        await(() -> seed.getKnownNodes().size() == 2);
+        
+        List<byte[]> datagrams = seed.encode(160);
+        
+        assertEquals(3, datagrams.size());
+        datagrams.forEach(datagram -> assertTrue(datagram.length <= 160));
+    }
+}
\ No newline at end of file
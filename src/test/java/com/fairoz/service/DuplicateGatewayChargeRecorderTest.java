@@ -0,0 +1,57 @@
+package com.fairoz.service;
+
+import com.fairoz.event.DuplicateGatewayChargeEvent;
+import com.fairoz.model.DuplicateGatewayCharge;
+import com.fairoz.repository.DuplicateGatewayChargeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DuplicateGatewayChargeRecorderTest {
+    
+    @Mock
+    private DuplicateGatewayChargeRepository duplicateGatewayChargeRepository;
+    
+    private DuplicateGatewayChargeRecorder recorder;
+    
+    @BeforeEach
+    void setUp() {
+        recorder = new DuplicateGatewayChargeRecorder(duplicateGatewayChargeRepository);
+    }
+    
+    @Test
+    void testOnDuplicateGatewayCharge_ShouldPersistLosingCharge() {
+        recorder.onDuplicateGatewayCharge(new DuplicateGatewayChargeEvent(
+            "ORD123", 499.0, "payu", "PAYU_12345", "razorpay", "RAZORPAY_12345"));
+        
+        ArgumentCaptor<DuplicateGatewayCharge> captor = ArgumentCaptor.forClass(DuplicateGatewayCharge.class);
+        verify(duplicateGatewayChargeRepository).save(captor.capture());
+        DuplicateGatewayCharge charge = captor.getValue();
+        assertEquals("ORD123", charge.getOrderId());
+        assertEquals(0, BigDecimal.valueOf(499).compareTo(charge.getAmount()));
+        assertEquals("payu", charge.getGatewayName());
+        assertEquals("PAYU_12345", charge.getGatewayTransactionId());
+        assertEquals("razorpay", charge.getWinningGatewayName());
+        assertEquals("RAZORPAY_12345", charge.getWinningGatewayTransactionId());
+    }
+    
+    @Test
+    void testOnDuplicateGatewayCharge_WhenSaveFails_ShouldNotThrow() {
+        when(duplicateGatewayChargeRepository.save(any(DuplicateGatewayCharge.class)))
+            .thenThrow(new DataAccessResourceFailureException("database unavailable"));
+        
+        assertDoesNotThrow(() -> recorder.onDuplicateGatewayCharge(new DuplicateGatewayChargeEvent(
+            "ORD123", 499.0, "payu", "PAYU_12345", "razorpay", "RAZORPAY_12345")));
+    }
+}
\ No newline at end of file
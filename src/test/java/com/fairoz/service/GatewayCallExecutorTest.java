@@ -0,0 +1,80 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GatewayCallExecutorTest {
+    
+    @Mock
+    private PaymentGatewayService paymentGatewayService;
+    
+    private GatewayCallExecutor gatewayCallExecutor;
+    
+    @BeforeEach
+    void setUp() {
+        GatewayConfig razorpay = new GatewayConfig("razorpay", 40, true);
+        razorpay.setMaxConcurrentCalls(1);
+        
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(razorpay));
+        
+        gatewayCallExecutor = new GatewayCallExecutor(paymentGatewayService, 
+            new GatewayConcurrencyLimiter(paymentProperties, new SimpleMeterRegistry()), 
+            new PaymentMetrics(new SimpleMeterRegistry(), paymentProperties), 
+            new GatewayLatencyTracker(paymentProperties), mock(GatewayHealthStateEngine.class),
+            mock(GatewayMetricsRollupService.class));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        gatewayCallExecutor.shutdown();
+    }
+    
+    @Test
+    void testSubmit_WhenBulkheadFull_ShouldRejectWithoutCallingGateway() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentGatewayService.processPayment(eq("razorpay"), anyString(), anyDouble(), any()))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new PaymentGatewayResponse("RAZORPAY_1", true, null);
+            });
+        
+        CompletableFuture<PaymentGatewayResponse> first = gatewayCallExecutor.submit("razorpay", "ORD1", 10.0, Map.of());
+        PaymentGatewayResponse rejected = gatewayCallExecutor.submit("razorpay", "ORD2", 10.0, Map.of()).join();
+        
+        assertFalse(rejected.isSuccess());
+        assertEquals("Gateway concurrency limit reached", rejected.getErrorMessage());
+        
+        release.countDown();
+        assertEquals("RAZORPAY_1", first.get(5, TimeUnit.SECONDS).getTransactionId());
+        verify(paymentGatewayService, times(1)).processPayment(anyString(), anyString(), anyDouble(), any());
+        assertEquals(1, gatewayCallExecutor.getAvailablePermits("razorpay"));
+    }
+    
+    @Test
+    void testSubmit_UnconfiguredGateway_ShouldStartAtInitialLimit() {
+        assertEquals(20, gatewayCallExecutor.getAvailablePermits("stripe"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayConcurrencyLimiterTest {
+    
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private PaymentProperties paymentProperties;
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        GatewayConfig razorpay = new GatewayConfig("razorpay", 40, true);
+        razorpay.setMaxConcurrentCalls(30);
+        
+        paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(razorpay));
+        paymentProperties.getConcurrencyLimit().setInitialLimit(10);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    // Runs a full round of calls at the current limit, all completing with the given latency
+    private void completeRound(GatewayConcurrencyLimiter limiter, long elapsedNanos, boolean responded) {
+        int calls = 0;
+        while (limiter.tryAcquire("razorpay")) {
+            calls++;
+        }
+        for (int i = 0; i < calls; i++) {
+            limiter.release("razorpay", elapsedNanos, responded);
+        }
+    }
+    
+    @Test
+    void testTryAcquire_ShouldRejectBeyondCurrentLimit() {
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("razorpay"));
+        }
+        
+        assertFalse(limiter.tryAcquire("razorpay"));
+        assertFalse(limiter.hasCapacity("razorpay"));
+        assertEquals(10, limiter.getInFlight("razorpay"));
+        
+        limiter.cancel("razorpay");
+        assertTrue(limiter.hasCapacity("razorpay"));
+        assertEquals(10, limiter.getLimit("razorpay"));
+    }
+    
+    @Test
+    void testRelease_WhenCallsAreFastAndLimitIsUsed_ShouldGrowUpToMaxConcurrentCalls() {
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        
+        completeRound(limiter, FAST_CALL, true);
+        assertTrue(limiter.getLimit("razorpay") > 10);
+        
+        for (int i = 0; i < 20; i++) {
+            completeRound(limiter, FAST_CALL, true);
+        }
+        assertEquals(30, limiter.getLimit("razorpay"));
+    }
+    
+    @Test
+    void testRelease_WhenIdle_ShouldNotGrowLimit() {
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire("razorpay"));
+            limiter.release("razorpay", FAST_CALL, true);
+        }
+        
+        assertEquals(10, limiter.getLimit("razorpay"));
+    }
+    
+    @Test
+    void testRelease_WhenLatencyRisesAboveMinimum_ShouldShrinkLimit() {
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        completeRound(limiter, FAST_CALL, true);
+        int learned = limiter.getLimit("razorpay");
+        
+        completeRound(limiter, FAST_CALL * 10, true);
+        
+        assertTrue(limiter.getLimit("razorpay") < learned);
+    }
+    
+    @Test
+    void testRelease_OnDropOrSlowCall_ShouldBackOffMultiplicatively() {
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        
+        assertTrue(limiter.tryAcquire("razorpay"));
+        limiter.release("razorpay", FAST_CALL, false);
+        assertEquals(9, limiter.getLimit("razorpay"));
+        
+        long slowCall = TimeUnit.MILLISECONDS.toNanos(paymentProperties.getCircuitBreaker().getSlowCallDurationMs());
+        assertTrue(limiter.tryAcquire("razorpay"));
+        limiter.release("razorpay", slowCall, true);
+        assertEquals(8, limiter.getLimit("razorpay"));
+        
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire("razorpay"));
+            limiter.release("razorpay", FAST_CALL, false);
+        }
+        assertEquals(1, limiter.getLimit("razorpay"));
+        assertEquals(1.0, meterRegistry.get("payment.gateway.concurrency.limit").tag("gateway", "razorpay").gauge().value());
+    }
+    
+    @Test
+    void testRelease_WhenDisabled_ShouldKeepMaxConcurrentCalls() {
+        paymentProperties.getConcurrencyLimit().setEnabled(false);
+        GatewayConcurrencyLimiter limiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        
+        assertTrue(limiter.tryAcquire("razorpay"));
+        limiter.release("razorpay", FAST_CALL, false);
+        
+        assertEquals(30, limiter.getLimit("razorpay"));
+        assertEquals(GatewayConcurrencyLimiter.DEFAULT_MAX_CONCURRENT_CALLS, limiter.getLimit("stripe"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.DuplicateGatewayChargeEvent;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.service.GatewayFailoverService.GatewayOutcome;
+import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GatewayFailoverServiceTest {
+    
+    private final PaymentGatewayService paymentGatewayService = mock(PaymentGatewayService.class);
+    private final GatewayHealthService gatewayHealthService = mock(GatewayHealthService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    
+    private PaymentProperties paymentProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayCallExecutor gatewayCallExecutor;
+    private GatewayFailoverService gatewayFailoverService;
+    
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(
+            new GatewayConfig("razorpay", 50, true),
+            new GatewayConfig("payu", 30, true),
+            new GatewayConfig("cashfree", 20, true)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        when(gatewayHealthService.isGatewayHealthy(anyString())).thenReturn(true);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (gatewayFailoverService != null) {
+            gatewayFailoverService.shutdown();
+        }
+        if (gatewayCallExecutor != null) {
+            gatewayCallExecutor.shutdown();
+        }
+    }
+    
+    private void createService() {
+        PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry, paymentProperties);
+        GatewayConcurrencyLimiter concurrencyLimiter = new GatewayConcurrencyLimiter(paymentProperties, meterRegistry);
+        gatewayCallExecutor = new GatewayCallExecutor(paymentGatewayService, concurrencyLimiter, paymentMetrics,
+            new GatewayLatencyTracker(paymentProperties), mock(GatewayHealthStateEngine.class),
+            mock(GatewayMetricsRollupService.class));
+        GatewayRoutingService gatewayRoutingService = new GatewayRoutingService(paymentProperties,
+            gatewayHealthService, new AliasTableGatewaySelector(), concurrencyLimiter, paymentMetrics);
+        gatewayFailoverService = new GatewayFailoverService(gatewayCallExecutor, gatewayRoutingService,
+            new RetryBudget(paymentProperties), paymentMetrics, paymentProperties, eventPublisher);
+    }
+    
+    private GatewayOutcome submit(String gateway) throws Exception {
+        return gatewayFailoverService.submit(gateway, "ORDER_1", 100.0, Map.of())
+            .get(5, TimeUnit.SECONDS);
+    }
+    
+    private void respond(String gateway, boolean success) {
+        when(paymentGatewayService.processPayment(eq(gateway), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse(success ? gateway.toUpperCase() + "_1" : null, success,
+                success ? null : gateway + " declined"));
+    }
+    
+    private double retries(String type) {
+        return meterRegistry.get("payment.gateway.retries").tag("type", type).counter().count();
+    }
+    
+    @Test
+    void testSubmit_WhenFirstGatewaySucceeds_ShouldNotRetry() throws Exception {
+        createService();
+        respond("razorpay", true);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        
+        assertEquals("razorpay", outcome.getGateway());
+        assertTrue(outcome.getResponse().isSuccess());
+        verify(paymentGatewayService, times(1)).processPayment(anyString(), anyString(), anyDouble(), any());
+        assertEquals(0.0, retries("failover"));
+    }
+    
+    @Test
+    void testSubmit_WhenGatewayFailsFast_ShouldFailOverToNextBestGateway() throws Exception {
+        createService();
+        respond("razorpay", false);
+        respond("payu", true);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        
+        assertEquals("payu", outcome.getGateway());
+        assertTrue(outcome.getResponse().isSuccess());
+        assertEquals("PAYU_1", outcome.getResponse().getTransactionId());
+        verify(paymentGatewayService, never()).processPayment(eq("cashfree"), anyString(), anyDouble(), any());
+        assertEquals(1.0, retries("failover"));
+    }
+    
+    @Test
+    void testSubmit_WhenAllAttemptsFail_ShouldReturnLastFailureWithinMaxAttempts() throws Exception {
+        createService();
+        respond("razorpay", false);
+        respond("payu", false);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        
+        assertEquals("payu", outcome.getGateway());
+        assertFalse(outcome.getResponse().isSuccess());
+        verify(paymentGatewayService, times(2)).processPayment(anyString(), anyString(), anyDouble(), any());
+        verify(paymentGatewayService, never()).processPayment(eq("cashfree"), anyString(), anyDouble(), any());
+    }
+    
+    @Test
+    void testSubmit_WhenRetryBudgetExhausted_ShouldNotFailOver() throws Exception {
+        paymentProperties.getFailover().getRetryBudget().setRatio(0.0);
+        paymentProperties.getFailover().getRetryBudget().setMinRetriesPerSecond(0);
+        createService();
+        respond("razorpay", false);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        
+        assertEquals("razorpay", outcome.getGateway());
+        assertFalse(outcome.getResponse().isSuccess());
+        verify(paymentGatewayService, never()).processPayment(eq("payu"), anyString(), anyDouble(), any());
+        assertEquals(1.0, meterRegistry.get("payment.gateway.retries.denied").counter().count());
+    }
+    
+    @Test
+    void testSubmit_WhenFailoverDisabled_ShouldCallOnlySelectedGateway() throws Exception {
+        paymentProperties.getFailover().setEnabled(false);
+        createService();
+        respond("razorpay", false);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        
+        assertEquals("razorpay", outcome.getGateway());
+        assertFalse(outcome.getResponse().isSuccess());
+        verify(paymentGatewayService, times(1)).processPayment(anyString(), anyString(), anyDouble(), any());
+    }
+    
+    @Test
+    void testSubmit_WhenHedgingEnabledAndPrimaryIsSlow_ShouldReturnHedgedResponse() throws Exception {
+        paymentProperties.getFailover().setHedgingEnabled(true);
+        paymentProperties.getFailover().setHedgeMinDelayMs(20L);
+        createService();
+        
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentGatewayService.processPayment(eq("razorpay"), anyString(), anyDouble(), any()))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new PaymentGatewayResponse("RAZORPAY_1", true, null);
+            });
+        respond("payu", true);
+        
+        try {
+            GatewayOutcome outcome = submit("razorpay");
+            
+            assertEquals("payu", outcome.getGateway());
+            assertTrue(outcome.getResponse().isSuccess());
+            assertEquals(1.0, retries("hedge"));
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    @Test
+    void testSubmit_WhenHedgedPrimaryAlsoSucceeds_ShouldReportDuplicateCharge() throws Exception {
+        paymentProperties.getFailover().setHedgingEnabled(true);
+        paymentProperties.getFailover().setHedgeMinDelayMs(20L);
+        createService();
+        
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentGatewayService.processPayment(eq("razorpay"), anyString(), anyDouble(), any()))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new PaymentGatewayResponse("RAZORPAY_1", true, null);
+            });
+        respond("payu", true);
+        
+        GatewayOutcome outcome = submit("razorpay");
+        release.countDown();
+        
+        ArgumentCaptor<DuplicateGatewayChargeEvent> event = ArgumentCaptor.forClass(DuplicateGatewayChargeEvent.class);
+        verify(eventPublisher, timeout(5000)).publishEvent(event.capture());
+        assertEquals("payu", outcome.getGateway());
+        assertEquals("ORDER_1", event.getValue().getOrderId());
+        assertEquals("razorpay", event.getValue().getGatewayName());
+        assertEquals("RAZORPAY_1", event.getValue().getGatewayTransactionId());
+        assertEquals("PAYU_1", event.getValue().getWinningGatewayTransactionId());
+        assertEquals(1.0, meterRegistry.get("payment.gateway.hedge.duplicate_success").counter().count());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.fairoz.service;
+
+import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.repository.GatewayHealthMetricsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = PaymentGatewayRouterApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:retentiontestdb",
+    "payment.health.cleanup-chunk-size=7"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class GatewayHealthRetentionIntegrationTest {
+
+    private static final int EXPIRED_ROWS = 50;
+    private static final int FRESH_ROWS = 10;
+
+    @Autowired
+    private GatewayHealthService gatewayHealthService;
+
+    @Autowired
+    private GatewayHealthMetricsRepository healthMetricsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testCleanupOldMetrics_ShouldDeleteOnlyExpiredRowsInChunks() {
+        List<GatewayHealthMetrics> expired = new ArrayList<>(EXPIRED_ROWS);
+        for (int i = 0; i < EXPIRED_ROWS; i++) {
+            expired.add(new GatewayHealthMetrics("razorpay"));
+        }
+        List<Long> expiredIds = healthMetricsRepository.saveAll(expired).stream()
+            .map(GatewayHealthMetrics::getId)
+            .toList();
+        // window_start is set on insert and not updatable through the entity
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(1));
+        for (Long id : expiredIds) {
+            jdbcTemplate.update("UPDATE gateway_health_metrics SET window_start = ? WHERE id = ?", longAgo, id);
+        }
+
+        List<GatewayHealthMetrics> fresh = new ArrayList<>(FRESH_ROWS);
+        for (int i = 0; i < FRESH_ROWS; i++) {
+            fresh.add(new GatewayHealthMetrics("payu"));
+        }
+        healthMetricsRepository.saveAll(fresh);
+
+        gatewayHealthService.cleanupOldMetrics();
+
+        assertEquals(FRESH_ROWS, healthMetricsRepository.count());
+        assertTrue(healthMetricsRepository.findAllById(expiredIds).isEmpty());
+        assertEquals(EXPIRED_ROWS, meterRegistry.get("payment.health.retention.purged").counter().count());
+        assertTrue(meterRegistry.get("payment.health.retention.duration").timer().count() >= 1);
+    }
+
+    @Test
+    void testWindowStartIndex_ShouldExist() {
+        Integer indexes = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?",
+            Integer.class, "IDX_GATEWAY_HEALTH_METRICS_WINDOW_START");
+
+        assertEquals(1, indexes);
+    }
+}
@@ -0,0 +1,211 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.GatewayHealthChangedEvent;
+import com.fairoz.model.CircuitState;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayHealthSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayHealthStateEngineTest {
+    
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long OPEN_DURATION_MS = 10_000L;
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW_CALL = TimeUnit.MILLISECONDS.toNanos(1500);
+    
+    private final List<Object> events = new ArrayList<>();
+    
+    private GatewayHealthStateEngine healthStateEngine;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties.HealthConfig health = new PaymentProperties.HealthConfig();
+        health.setSuccessRateThreshold(90.0);
+        health.setMonitoringWindowMinutes(15);
+        health.setBucketSeconds(10);
+        
+        PaymentProperties.CircuitBreakerConfig circuitBreaker = new PaymentProperties.CircuitBreakerConfig();
+        circuitBreaker.setConsecutiveFailures(3);
+        circuitBreaker.setSlowCallDurationMs(1000L);
+        circuitBreaker.setConsecutiveSlowCalls(3);
+        circuitBreaker.setOpenDurationMs(OPEN_DURATION_MS);
+        circuitBreaker.setHalfOpenProbes(2);
+        
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setHealth(health);
+        paymentProperties.setCircuitBreaker(circuitBreaker);
+        paymentProperties.setGateways(List.of(
+            new GatewayConfig("razorpay", 50, true),
+            new GatewayConfig("payu", 30, true),
+            new GatewayConfig("cashfree", 20, true)
+        ));
+        
+        healthStateEngine = new GatewayHealthStateEngine(paymentProperties, events::add);
+    }
+    
+    @Test
+    void testIsHealthy_UnknownGateway_ShouldBeHealthy() {
+        assertTrue(healthStateEngine.isHealthy("razorpay", NOW));
+    }
+    
+    @Test
+    void testRecordResults_UnconfiguredGateway_ShouldNotBeTracked() {
+        healthStateEngine.recordResults("razorpay-typo", 0, 10, NOW);
+        
+        assertTrue(healthStateEngine.isHealthy("razorpay-typo", NOW + 1));
+        assertEquals(0, healthStateEngine.getSnapshot("razorpay-typo", NOW).getTotalTransactions());
+        assertFalse(healthStateEngine.getSnapshots().containsKey("razorpay-typo"));
+    }
+    
+    @Test
+    void testRecordResult_BelowThreshold_ShouldDisableGateway() {
+        for (int i = 0; i < 5; i++) {
+            healthStateEngine.recordResult("razorpay", false, NOW);
+        }
+        
+        assertFalse(healthStateEngine.isHealthy("razorpay", NOW + 1));
+        assertEquals(0.0, healthStateEngine.getSnapshot("razorpay", NOW).getSuccessRate());
+    }
+    
+    @Test
+    void testRecordResults_AggregatedOutcomes_ShouldEvaluateOnce() {
+        healthStateEngine.recordResults("razorpay", 2, 8, NOW);
+        
+        assertFalse(healthStateEngine.isHealthy("razorpay", NOW + 1));
+        assertEquals(10, healthStateEngine.getSnapshot("razorpay", NOW).getTotalTransactions());
+        assertEquals(20.0, healthStateEngine.getSnapshot("razorpay", NOW).getSuccessRate());
+    }
+    
+    @Test
+    void testRecordResult_BelowMinimumVolume_ShouldStayHealthy() {
+        for (int i = 0; i < 4; i++) {
+            healthStateEngine.recordResult("razorpay", false, NOW);
+        }
+        
+        assertTrue(healthStateEngine.isHealthy("razorpay", NOW + 1));
+    }
+    
+    @Test
+    void testIsHealthy_AfterOpenDuration_ShouldGoHalfOpen() {
+        for (int i = 0; i < 5; i++) {
+            healthStateEngine.recordResult("payu", false, NOW);
+        }
+        
+        assertFalse(healthStateEngine.isHealthy("payu", NOW + OPEN_DURATION_MS - 1));
+        assertTrue(healthStateEngine.isHealthy("payu", NOW + OPEN_DURATION_MS));
+        assertEquals(CircuitState.HALF_OPEN, healthStateEngine.getSnapshot("payu", NOW + OPEN_DURATION_MS).getCircuitState());
+        assertTrue(healthStateEngine.isProbing("payu"));
+        
+        assertEquals(2, events.size());
+        assertFalse(((GatewayHealthChangedEvent) events.get(0)).isHealthy());
+        assertTrue(((GatewayHealthChangedEvent) events.get(1)).isHealthy());
+    }
+    
+    @Test
+    void testRecordCall_ConsecutiveFailures_ShouldOpenCircuit() {
+        healthStateEngine.recordCall("razorpay", false, FAST_CALL, NOW);
+        healthStateEngine.recordCall("razorpay", false, FAST_CALL, NOW);
+        healthStateEngine.recordCall("razorpay", true, FAST_CALL, NOW);
+        healthStateEngine.recordCall("razorpay", false, FAST_CALL, NOW);
+        healthStateEngine.recordCall("razorpay", false, FAST_CALL, NOW);
+        
+        assertTrue(healthStateEngine.isHealthy("razorpay", NOW + 1));
+        
+        healthStateEngine.recordCall("razorpay", false, FAST_CALL, NOW);
+        
+        assertFalse(healthStateEngine.isHealthy("razorpay", NOW + 1));
+        assertEquals(CircuitState.OPEN, healthStateEngine.getSnapshot("razorpay", NOW + 1).getCircuitState());
+    }
+    
+    @Test
+    void testRecordCall_ConsecutiveSlowCalls_ShouldOpenCircuit() {
+        for (int i = 0; i < 3; i++) {
+            healthStateEngine.recordCall("razorpay", true, SLOW_CALL, NOW);
+        }
+        
+        assertFalse(healthStateEngine.isHealthy("razorpay", NOW + 1));
+    }
+    
+    @Test
+    void testTryAcquireProbe_HalfOpen_ShouldLimitProbeBudget() {
+        openAndWait("razorpay");
+        
+        assertTrue(healthStateEngine.tryAcquireProbe("razorpay", NOW + OPEN_DURATION_MS));
+        assertTrue(healthStateEngine.tryAcquireProbe("razorpay", NOW + OPEN_DURATION_MS));
+        assertFalse(healthStateEngine.tryAcquireProbe("razorpay", NOW + OPEN_DURATION_MS));
+        
+        // Unanswered probes are reissued once the probe deadline passes
+        assertTrue(healthStateEngine.tryAcquireProbe("razorpay", NOW + 2 * OPEN_DURATION_MS));
+    }
+    
+    @Test
+    void testRecordCall_SuccessfulProbes_ShouldCloseCircuitWithFreshWindow() {
+        openAndWait("razorpay");
+        
+        healthStateEngine.recordCall("razorpay", true, FAST_CALL, NOW + OPEN_DURATION_MS);
+        assertEquals(CircuitState.HALF_OPEN, healthStateEngine.getSnapshot("razorpay", NOW + OPEN_DURATION_MS).getCircuitState());
+        healthStateEngine.recordCall("razorpay", true, FAST_CALL, NOW + OPEN_DURATION_MS);
+        
+        GatewayHealthSnapshot snapshot = healthStateEngine.getSnapshot("razorpay", NOW + OPEN_DURATION_MS);
+        assertEquals(CircuitState.CLOSED, snapshot.getCircuitState());
+        assertEquals(0, snapshot.getTotalTransactions());
+        assertTrue(healthStateEngine.tryAcquireProbe("razorpay", NOW + OPEN_DURATION_MS));
+        assertTrue(((GatewayHealthChangedEvent) events.get(events.size() - 1)).isHealthy());
+    }
+    
+    @Test
+    void testRecordCall_FailedProbe_ShouldReopenCircuit() {
+        openAndWait("razorpay");
+        
+        healthStateEngine.recordCall("razorpay", true, SLOW_CALL, NOW + OPEN_DURATION_MS);
+        
+        assertFalse(healthStateEngine.isHealthy("razorpay", NOW + OPEN_DURATION_MS + 1));
+        assertTrue(healthStateEngine.isHealthy("razorpay", NOW + 2 * OPEN_DURATION_MS));
+    }
+    
+    @Test
+    void testRecordResult_OldFailuresOutsideWindow_ShouldNotCount() {
+        for (int i = 0; i < 4; i++) {
+            healthStateEngine.recordResult("cashfree", false, NOW);
+        }
+        for (int i = 0; i < 5; i++) {
+            healthStateEngine.recordResult("cashfree", true, NOW + 16 * 60_000L);
+        }
+        
+        assertTrue(healthStateEngine.isHealthy("cashfree", NOW + 16 * 60_000L));
+    }
+    
+    @Test
+    void testRecordResult_ConcurrentUpdates_ShouldNotLoseCounts() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    healthStateEngine.recordResult("razorpay", true, NOW);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(8000, healthStateEngine.getSnapshot("razorpay", NOW).getTotalTransactions());
+    }
+    
+    private void openAndWait(String gatewayName) {
+        for (int i = 0; i < 3; i++) {
+            healthStateEngine.recordCall(gatewayName, false, FAST_CALL, NOW);
+        }
+        assertFalse(healthStateEngine.tryAcquireProbe(gatewayName, NOW));
+        assertTrue(healthStateEngine.isHealthy(gatewayName, NOW + OPEN_DURATION_MS));
+    }
+}
\ No newline at end of file
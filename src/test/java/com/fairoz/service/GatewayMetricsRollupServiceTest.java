@@ -0,0 +1,109 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayMetricsRollup;
+import com.fairoz.repository.GatewayMetricsRollupRepository;
+import com.fairoz.service.MinuteRollupSeries.Bucket;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GatewayMetricsRollupServiceTest {
+    
+    @Mock
+    private GatewayMetricsRollupRepository rollupRepository;
+    
+    private GatewayMetricsRollupService rollupService;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(new GatewayConfig("razorpay", 40, true)));
+        rollupService = new GatewayMetricsRollupService(rollupRepository, paymentProperties);
+    }
+    
+    @Test
+    void testFlush_ShouldInsertNewMinuteThenAddLaterDeltas() {
+        when(rollupRepository.addToRollup(eq("razorpay"), any(LocalDateTime.class), anyLong(), anyLong(), anyLong(), anyLong()))
+            .thenReturn(0, 1);
+        
+        rollupService.recordOutcomes("razorpay", 3, 1);
+        rollupService.recordCall("razorpay", 2_000_000);
+        assertEquals(1, rollupService.flush());
+        
+        ArgumentCaptor<GatewayMetricsRollup> inserted = ArgumentCaptor.forClass(GatewayMetricsRollup.class);
+        verify(rollupRepository).save(inserted.capture());
+        assertEquals(3, inserted.getValue().getSuccessfulTransactions());
+        assertEquals(1, inserted.getValue().getFailedTransactions());
+        assertEquals(1, inserted.getValue().getGatewayCalls());
+        assertEquals(2_000, inserted.getValue().getLatencySumMicros());
+        assertEquals(0, inserted.getValue().getMinuteStart().getSecond());
+        
+        assertEquals(0, rollupService.flush());
+        
+        rollupService.recordOutcomes("razorpay", 0, 2);
+        assertEquals(1, rollupService.flush());
+        verify(rollupRepository).addToRollup(eq("razorpay"), any(LocalDateTime.class), eq(0L), eq(2L), eq(0L), eq(0L));
+        verify(rollupRepository, times(1)).save(any(GatewayMetricsRollup.class));
+    }
+    
+    @Test
+    void testFlush_ConcurrentInsert_ShouldAddToExistingRow() {
+        when(rollupRepository.addToRollup(eq("razorpay"), any(LocalDateTime.class), eq(1L), eq(0L), eq(0L), eq(0L)))
+            .thenReturn(0, 1);
+        when(rollupRepository.save(any(GatewayMetricsRollup.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_gateway_metrics_rollups_gateway_minute"));
+        
+        rollupService.recordOutcomes("razorpay", 1, 0);
+        
+        assertEquals(1, rollupService.flush());
+        verify(rollupRepository, times(2)).addToRollup(eq("razorpay"), any(LocalDateTime.class), 
+            eq(1L), eq(0L), eq(0L), eq(0L));
+    }
+    
+    @Test
+    void testFlush_DatabaseUnavailable_ShouldKeepDeltasPending() {
+        when(rollupRepository.addToRollup(eq("razorpay"), any(LocalDateTime.class), anyLong(), anyLong(), anyLong(), anyLong()))
+            .thenThrow(new RuntimeException("Database unavailable"))
+            .thenReturn(1);
+        
+        rollupService.recordOutcomes("razorpay", 1, 0);
+        
+        assertEquals(0, rollupService.flush());
+        assertEquals(1, rollupService.flush());
+    }
+    
+    @Test
+    void testRestoreAndRecord_ShouldOnlyTrackConfiguredGateways() {
+        LocalDateTime minuteStart = LocalDateTime.now().withSecond(0).withNano(0);
+        when(rollupRepository.findAllByMinuteStartAfter(any(LocalDateTime.class))).thenReturn(List.of(
+            new GatewayMetricsRollup("razorpay", minuteStart, 8, 2, 0, 0),
+            new GatewayMetricsRollup("retired", minuteStart, 5, 0, 0, 0)));
+        
+        rollupService.restoreRollups();
+        rollupService.recordOutcomes("unknown", 1, 0);
+        
+        Bucket total = rollupService.getTotals(15).get("razorpay");
+        assertEquals(10, total.getTotal());
+        assertEquals(80.0, total.getSuccessRate());
+        assertNull(rollupService.getTimeseries("unknown", 15));
+        assertEquals(0, rollupService.flush());
+        assertThrows(IllegalArgumentException.class, () -> rollupService.getTimeseries("razorpay", 0));
+        assertThrows(IllegalArgumentException.class, () -> rollupService.getTimeseries("razorpay", 61));
+    }
+}
\ No newline at end of file
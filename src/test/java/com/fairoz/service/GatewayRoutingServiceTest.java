@@ -1,15 +1,19 @@
 package com.fairoz.service;
 
 import com.fairoz.config.PaymentProperties;
+import com.fairoz.event.GatewayHealthChangedEvent;
 import com.fairoz.model.GatewayConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,10 +28,22 @@ class GatewayRoutingServiceTest {
     private GatewayHealthService gatewayHealthService;
     
     private GatewayRoutingService gatewayRoutingService;
+    private GatewayConcurrencyLimiter concurrencyLimiter;
     
     @BeforeEach
     void setUp() {
-        gatewayRoutingService = new GatewayRoutingService(paymentProperties, gatewayHealthService);
+        concurrencyLimiter = new GatewayConcurrencyLimiter(new PaymentProperties(), new SimpleMeterRegistry());
+        gatewayRoutingService = new GatewayRoutingService(paymentProperties, gatewayHealthService, new AliasTableGatewaySelector(),
+            concurrencyLimiter,
+            new PaymentMetrics(new SimpleMeterRegistry(), new PaymentProperties()));
+    }
+    
+    private void saturate(String gateway) {
+        int limit = concurrencyLimiter.getLimit(gateway);
+        for (int i = 0; i < limit; i++) {
+            assertTrue(concurrencyLimiter.tryAcquire(gateway));
+        }
+        assertFalse(concurrencyLimiter.hasCapacity(gateway));
     }
     
     @Test
@@ -99,4 +115,82 @@ class GatewayRoutingServiceTest {
         assertEquals(1, healthyGateways.size());
         assertTrue(healthyGateways.contains("razorpay"));
     }
+    
+    @Test
+    void testSelectGateway_WhenGatewayBecomesUnhealthy_ShouldPublishNewSnapshot() {
+        List<GatewayConfig> gateways = Arrays.asList(
+            new GatewayConfig("razorpay", 40, true),
+            new GatewayConfig("payu", 35, true)
+        );
+        
+        when(paymentProperties.getGateways()).thenReturn(gateways);
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true, false);
+        when(gatewayHealthService.isGatewayHealthy("payu")).thenReturn(true);
+        
+        RoutingSnapshot initial = gatewayRoutingService.getRoutingSnapshot();
+        assertEquals(2, initial.size());
+        assertSame(initial, gatewayRoutingService.getRoutingSnapshot());
+        
+        gatewayRoutingService.onGatewayHealthChanged(new GatewayHealthChangedEvent("razorpay", false));
+        
+        RoutingSnapshot refreshed = gatewayRoutingService.getRoutingSnapshot();
+        assertEquals(initial.getVersion() + 1, refreshed.getVersion());
+        assertEquals(List.of("payu"), gatewayRoutingService.getHealthyGateways());
+        assertEquals("payu", gatewayRoutingService.selectGateway());
+    }
+    
+    @Test
+    void testSelectGateway_HalfOpenGatewayOutOfProbes_ShouldRouteToClosedGateway() {
+        List<GatewayConfig> gateways = Arrays.asList(
+            new GatewayConfig("razorpay", 99, true),
+            new GatewayConfig("payu", 1, true)
+        );
+        
+        when(paymentProperties.getGateways()).thenReturn(gateways);
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(gatewayHealthService.isGatewayHealthy("payu")).thenReturn(true);
+        when(gatewayHealthService.isGatewayProbing("razorpay")).thenReturn(true);
+        when(gatewayHealthService.tryAcquireProbe("razorpay")).thenReturn(true, false);
+        
+        List<String> selected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            selected.add(gatewayRoutingService.selectGateway());
+        }
+        
+        assertEquals(Set.of("razorpay"), gatewayRoutingService.getRoutingSnapshot().getProbingGateways());
+        assertEquals(1, selected.stream().filter("razorpay"::equals).count());
+        verify(gatewayHealthService, never()).tryAcquireProbe("payu");
+    }
+    
+    @Test
+    void testSelectGateway_GatewayAtConcurrencyLimit_ShouldRerouteToGatewayWithCapacity() {
+        List<GatewayConfig> gateways = Arrays.asList(
+            new GatewayConfig("razorpay", 99, true),
+            new GatewayConfig("payu", 1, true)
+        );
+        
+        when(paymentProperties.getGateways()).thenReturn(gateways);
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(gatewayHealthService.isGatewayHealthy("payu")).thenReturn(true);
+        saturate("razorpay");
+        
+        for (int i = 0; i < 50; i++) {
+            assertEquals("payu", gatewayRoutingService.selectGateway());
+        }
+        
+        saturate("payu");
+        assertTrue(Arrays.asList("razorpay", "payu").contains(gatewayRoutingService.selectGateway()));
+    }
+    
+    @Test
+    void testSelectGateway_AllGatewaysOutOfProbes_ShouldThrowException() {
+        List<GatewayConfig> gateways = List.of(new GatewayConfig("razorpay", 40, true));
+        
+        when(paymentProperties.getGateways()).thenReturn(gateways);
+        when(gatewayHealthService.isGatewayHealthy("razorpay")).thenReturn(true);
+        when(gatewayHealthService.isGatewayProbing("razorpay")).thenReturn(true);
+        when(gatewayHealthService.tryAcquireProbe("razorpay")).thenReturn(false);
+        
+        assertThrows(RuntimeException.class, () -> gatewayRoutingService.selectGateway());
+    }
 }
\ No newline at end of file
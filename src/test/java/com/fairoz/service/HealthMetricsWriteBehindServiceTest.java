@@ -0,0 +1,133 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import com.fairoz.model.GatewayHealthMetrics;
+import com.fairoz.model.GatewayHealthSnapshot;
+import com.fairoz.repository.GatewayHealthMetricsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HealthMetricsWriteBehindServiceTest {
+    
+    @Mock
+    private GatewayHealthMetricsRepository healthMetricsRepository;
+    
+    @Mock
+    private GatewayHealthStateEngine healthStateEngine;
+    
+    private HealthMetricsWriteBehindService writeBehindService;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties.HealthConfig health = new PaymentProperties.HealthConfig();
+        health.setFlushSize(100);
+        health.setFlushIntervalMs(1000L);
+        health.setQueueCapacity(3);
+        
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setHealth(health);
+        paymentProperties.setGateways(List.of(new GatewayConfig("razorpay", 50, true), new GatewayConfig("payu", 50, true)));
+        
+        writeBehindService = new HealthMetricsWriteBehindService(
+            healthMetricsRepository, healthStateEngine, paymentProperties);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushPending_ShouldWriteOneRowPerGateway() {
+        when(healthStateEngine.getSnapshot(anyString()))
+            .thenAnswer(invocation -> GatewayHealthSnapshot.initial(invocation.getArgument(0)));
+        
+        writeBehindService.enqueue("razorpay", true);
+        writeBehindService.enqueue("razorpay", false);
+        writeBehindService.enqueue("payu", true);
+        
+        assertEquals(3, writeBehindService.flushPending());
+        
+        ArgumentCaptor<Collection<GatewayHealthMetrics>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(healthMetricsRepository).saveAll(captor.capture());
+        
+        List<GatewayHealthMetrics> rows = new ArrayList<>(captor.getValue());
+        assertEquals(2, rows.size());
+        GatewayHealthMetrics razorpay = rows.stream()
+            .filter(metrics -> metrics.getGatewayName().equals("razorpay"))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(2L, razorpay.getTotalTransactions());
+        assertEquals(1L, razorpay.getFailedTransactions());
+        assertEquals(50.0, razorpay.getSuccessRate());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushPending_AggregatedOutcomes_ShouldMergeIntoGatewayRow() {
+        when(healthStateEngine.getSnapshot(anyString()))
+            .thenAnswer(invocation -> GatewayHealthSnapshot.initial(invocation.getArgument(0)));
+        
+        writeBehindService.enqueue("razorpay", 7, 3);
+        writeBehindService.enqueue("razorpay", false);
+        
+        assertEquals(2, writeBehindService.flushPending());
+        
+        ArgumentCaptor<Collection<GatewayHealthMetrics>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(healthMetricsRepository).saveAll(captor.capture());
+        
+        GatewayHealthMetrics razorpay = captor.getValue().iterator().next();
+        assertEquals(11L, razorpay.getTotalTransactions());
+        assertEquals(4L, razorpay.getFailedTransactions());
+    }
+    
+    @Test
+    void testEnqueue_UnconfiguredGateway_ShouldNotPersistOutcome() {
+        assertFalse(writeBehindService.enqueue("unknown-gw", true));
+        assertFalse(writeBehindService.enqueue("unknown-gw", 5, 1));
+        
+        assertEquals(0, writeBehindService.getQueueSize());
+        assertEquals(0, writeBehindService.getDroppedOutcomes());
+        assertEquals(0, writeBehindService.flushPending());
+        verifyNoInteractions(healthMetricsRepository);
+    }
+    
+    @Test
+    void testEnqueue_WhenQueueFull_ShouldDropOutcome() {
+        assertTrue(writeBehindService.enqueue("razorpay", true));
+        assertTrue(writeBehindService.enqueue("razorpay", true));
+        assertTrue(writeBehindService.enqueue("razorpay", true));
+        assertFalse(writeBehindService.enqueue("razorpay", true));
+        
+        assertEquals(3, writeBehindService.getQueueSize());
+        assertEquals(1, writeBehindService.getDroppedOutcomes());
+    }
+    
+    @Test
+    void testEnqueue_AggregatedWhenQueueFull_ShouldCountEveryDroppedOutcome() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(writeBehindService.enqueue("razorpay", 1, 0));
+        }
+        assertFalse(writeBehindService.enqueue("razorpay", 600, 150));
+        assertFalse(writeBehindService.enqueue("razorpay", 400, 0));
+        
+        assertEquals(1150, writeBehindService.getDroppedOutcomes());
+    }
+    
+    @Test
+    void testFlushPending_WithEmptyQueue_ShouldNotWrite() {
+        assertEquals(0, writeBehindService.flushPending());
+        
+        verifyNoInteractions(healthMetricsRepository);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyAwareGatewaySelectorTest {
+    
+    private static final int SAMPLES = 100_000;
+    
+    private GatewayLatencyTracker latencyTracker;
+    private GatewaySelector.Selection selection;
+    
+    @BeforeEach
+    void setUp() {
+        latencyTracker = new GatewayLatencyTracker(new PaymentProperties());
+        selection = new LatencyAwareGatewaySelector(latencyTracker).prepare(List.of(
+            new GatewayConfig("razorpay", 40, true),
+            new GatewayConfig("payu", 35, true),
+            new GatewayConfig("cashfree", 25, true)
+        ));
+    }
+    
+    @Test
+    void testSelect_EqualLatencies_ShouldFollowConfiguredWeights() {
+        Map<String, Integer> counts = sample();
+        
+        assertEquals(3, selection.size());
+        assertEquals(0.40, counts.get("razorpay") / (double) SAMPLES, 0.01);
+        assertEquals(0.35, counts.get("payu") / (double) SAMPLES, 0.01);
+        assertEquals(0.25, counts.get("cashfree") / (double) SAMPLES, 0.01);
+    }
+    
+    @Test
+    void testSelect_SlowGateway_ShouldOnlyWinWhenDrawnTwice() {
+        latencyTracker.record("razorpay", TimeUnit.MILLISECONDS.toNanos(2000), true);
+        latencyTracker.record("payu", TimeUnit.MILLISECONDS.toNanos(100), true);
+        latencyTracker.record("cashfree", TimeUnit.MILLISECONDS.toNanos(120), true);
+        
+        Map<String, Integer> counts = sample();
+        
+        // 0.40 squared: both draws have to land on razorpay
+        assertEquals(0.16, counts.get("razorpay") / (double) SAMPLES, 0.01);
+        assertTrue(counts.get("payu") > counts.get("razorpay"));
+    }
+    
+    @Test
+    void testSelect_FailingGateway_ShouldBePenalisedLikeASlowOne() {
+        latencyTracker.record("razorpay", TimeUnit.MILLISECONDS.toNanos(100), true);
+        latencyTracker.record("payu", TimeUnit.MILLISECONDS.toNanos(100), true);
+        for (int i = 0; i < 20; i++) {
+            latencyTracker.record("cashfree", TimeUnit.MILLISECONDS.toNanos(80), false);
+        }
+        
+        Map<String, Integer> counts = sample();
+        
+        assertEquals(0.0625, counts.get("cashfree") / (double) SAMPLES, 0.01);
+    }
+    
+    @Test
+    void testRecord_ShouldTrackExponentiallyWeightedAverages() {
+        latencyTracker.record("razorpay", TimeUnit.MILLISECONDS.toNanos(100), true);
+        latencyTracker.record("razorpay", TimeUnit.MILLISECONDS.toNanos(200), false);
+        
+        // alpha 0.2: 100 + 0.2 * (200 - 100)
+        assertEquals(120.0, latencyTracker.getLatencyMillis("razorpay"), 0.001);
+        assertEquals(0.8, latencyTracker.getSuccessRate("razorpay"), 0.001);
+        assertEquals(0.0, latencyTracker.getLatencyMillis("payu"), 0.001);
+        assertEquals(1.0, latencyTracker.getSuccessRate("payu"), 0.001);
+    }
+    
+    @Test
+    void testConstructor_InvalidAlpha_ShouldThrowException() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.getRouting().setLatencyEwmaAlpha(1.5);
+        
+        assertThrows(IllegalArgumentException.class, () -> new GatewayLatencyTracker(paymentProperties));
+    }
+    
+    private Map<String, Integer> sample() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            counts.merge(selection.select(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.fairoz.service;
+
+import com.fairoz.service.MinuteRollupSeries.Bucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinuteRollupSeriesTest {
+    
+    private static final long MINUTE = MinuteRollupSeries.MINUTE_MILLIS;
+    private static final long START = 1_000 * MINUTE;
+    
+    @Test
+    void testBuckets_ShouldReturnEveryMinuteOldestFirstWeightedByVolume() {
+        MinuteRollupSeries series = new MinuteRollupSeries(10);
+        series.recordOutcomes(START, 9, 1);
+        series.recordCall(START + 5_000, 200_000);
+        series.recordCall(START + 6_000, 100_000);
+        series.recordOutcomes(START + 2 * MINUTE, 0, 90);
+        
+        List<Bucket> buckets = series.buckets(START + 2 * MINUTE + 30_000, 3);
+        
+        assertEquals(3, buckets.size());
+        assertEquals(START, buckets.get(0).getMinuteStartMillis());
+        assertEquals(90.0, buckets.get(0).getSuccessRate());
+        assertEquals(150.0, buckets.get(0).getAverageLatencyMillis());
+        assertEquals(0, buckets.get(1).getTotal());
+        assertNull(buckets.get(1).getSuccessRate());
+        assertEquals(0.0, buckets.get(2).getSuccessRate());
+        
+        // 9 successes out of 100 outcomes, not the 45% average of the two bucket rates
+        assertEquals(9.0, series.total(START + 2 * MINUTE, 3).getSuccessRate());
+    }
+    
+    @Test
+    void testRecord_ShouldReuseSlotsAndIgnoreExpiredMinutes() {
+        MinuteRollupSeries series = new MinuteRollupSeries(2);
+        series.recordOutcomes(START, 5, 0);
+        series.recordOutcomes(START + 2 * MINUTE, 1, 0);
+        series.recordOutcomes(START, 7, 0);
+        
+        List<Bucket> buckets = series.buckets(START + 2 * MINUTE, 5);
+        
+        assertEquals(2, buckets.size());
+        assertEquals(0, buckets.get(0).getTotal());
+        assertEquals(1, buckets.get(1).getTotal());
+    }
+    
+    @Test
+    void testUnflushed_ShouldReturnOnlyCountsAddedSinceLastFlush() {
+        MinuteRollupSeries series = new MinuteRollupSeries(10);
+        series.restore(new Bucket(START, 10, 0, 4, 400_000));
+        assertTrue(series.unflushed().isEmpty());
+        
+        series.recordOutcomes(START, 2, 1);
+        series.recordOutcomes(START + MINUTE, 1, 0);
+        List<Bucket> deltas = series.unflushed();
+        
+        assertEquals(2, deltas.size());
+        Bucket first = deltas.stream().filter(delta -> delta.getMinuteStartMillis() == START).findFirst().orElseThrow();
+        assertEquals(2, first.getSuccesses());
+        assertEquals(1, first.getFailures());
+        assertEquals(0, first.getCalls());
+        
+        deltas.forEach(series::markFlushed);
+        assertTrue(series.unflushed().isEmpty());
+        
+        series.recordCall(START + MINUTE, 50_000);
+        assertEquals(1, series.unflushed().size());
+        assertEquals(13, series.total(START + MINUTE, 2).getSuccesses());
+    }
+    
+    @Test
+    void testRecordOutcomes_ConcurrentWriters_ShouldNotLoseCounts() throws Exception {
+        MinuteRollupSeries series = new MinuteRollupSeries(5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    series.recordOutcomes(START + (i % 3) * MINUTE, 1, 0);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        
+        assertEquals(80_000, series.total(START + 2 * MINUTE, 3).getTotal());
+    }
+}
\ No newline at end of file
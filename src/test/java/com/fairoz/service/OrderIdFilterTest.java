@@ -0,0 +1,36 @@
+package com.fairoz.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdFilterTest {
+    
+    @Test
+    void testMightContain_AddedOrderIds_ShouldAlwaysMatch() {
+        OrderIdFilter filter = new OrderIdFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("ORD" + i);
+        }
+        
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("ORD" + i));
+        }
+    }
+    
+    @Test
+    void testMightContain_NewOrderIds_ShouldRarelyMatchAtCapacity() {
+        OrderIdFilter filter = new OrderIdFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("ORD" + i);
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("NEW" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+}
\ No newline at end of file
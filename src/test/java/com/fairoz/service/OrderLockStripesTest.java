@@ -0,0 +1,48 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLockStripesTest {
+    
+    @Test
+    void testStripeCount_ShouldRoundUpToPowerOfTwo() {
+        assertEquals(8, stripes(5).getStripeCount());
+        assertEquals(8, stripes(8).getStripeCount());
+        assertEquals(1, stripes(0).getStripeCount());
+    }
+    
+    @Test
+    void testLockFor_SameOrder_ShouldReturnSameLock() {
+        OrderLockStripes orderLockStripes = stripes(64);
+        
+        assertSame(orderLockStripes.lockFor("ORD123"), orderLockStripes.lockFor(new String("ORD123")));
+    }
+    
+    @Test
+    void testLockAll_ShouldHoldEachDistinctStripeOnceUntilUnlocked() {
+        OrderLockStripes orderLockStripes = stripes(64);
+        
+        List<Lock> locks = orderLockStripes.lockAll(List.of("ORD1", "ORD2", "ORD1"));
+        
+        assertEquals(2, locks.size());
+        assertEquals(1, ((ReentrantLock) orderLockStripes.lockFor("ORD1")).getHoldCount());
+        assertTrue(((ReentrantLock) orderLockStripes.lockFor("ORD2")).isHeldByCurrentThread());
+        
+        OrderLockStripes.unlockAll(locks);
+        assertFalse(((ReentrantLock) orderLockStripes.lockFor("ORD1")).isLocked());
+        assertFalse(((ReentrantLock) orderLockStripes.lockFor("ORD2")).isLocked());
+    }
+    
+    private static OrderLockStripes stripes(int count) {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.getCallback().setLockStripes(count);
+        return new OrderLockStripes(paymentProperties);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.GatewayConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentMetricsTest {
+    
+    private MeterRegistry meterRegistry;
+    private PaymentMetrics paymentMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(
+            new GatewayConfig("razorpay", 60, true),
+            new GatewayConfig("payu", 40, true)
+        ));
+        meterRegistry = new SimpleMeterRegistry();
+        paymentMetrics = new PaymentMetrics(meterRegistry, paymentProperties);
+    }
+    
+    @Test
+    void testConstructor_ShouldPreRegisterPerGatewayMeters() {
+        assertNotNull(meterRegistry.find("payment.gateway.call").tag("gateway", "razorpay").timer());
+        assertNotNull(meterRegistry.find("payment.gateway.call").tag("gateway", "payu").timer());
+        assertNotNull(meterRegistry.find("payment.gateway.outcomes").tags("gateway", "payu", "outcome", "failure").counter());
+        assertNotNull(meterRegistry.find("payment.routing.selection").timer());
+        assertNotNull(meterRegistry.find("payment.callback.processing").timer());
+    }
+    
+    @Test
+    void testRecordGatewayCall_ShouldRecordOnGatewayTimer() {
+        paymentMetrics.recordGatewayCall("razorpay", TimeUnit.MILLISECONDS.toNanos(20));
+        paymentMetrics.recordGatewayCall("razorpay", TimeUnit.MILLISECONDS.toNanos(40));
+        
+        Timer timer = meterRegistry.find("payment.gateway.call").tag("gateway", "razorpay").timer();
+        assertEquals(2, timer.count());
+        assertEquals(60, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(0, meterRegistry.find("payment.gateway.call").tag("gateway", "payu").timer().count());
+    }
+    
+    @Test
+    void testRecordOutcomes_ShouldCountSuccessesAndFailures() {
+        paymentMetrics.recordOutcomes("razorpay", 3, 1);
+        paymentMetrics.recordOutcomes("razorpay", 1, 0);
+        
+        assertEquals(4, meterRegistry.find("payment.gateway.outcomes")
+            .tags("gateway", "razorpay", "outcome", "success").counter().count());
+        assertEquals(1, meterRegistry.find("payment.gateway.outcomes")
+            .tags("gateway", "razorpay", "outcome", "failure").counter().count());
+    }
+    
+    @Test
+    void testRecordOutcomes_UnknownGateway_ShouldShareUnknownSeries() {
+        paymentMetrics.recordOutcomes("stripe", 0, 2);
+        paymentMetrics.recordOutcomes("razorpay-typo", 0, 1);
+        paymentMetrics.recordGatewayRejection("stripe");
+        
+        assertNull(meterRegistry.find("payment.gateway.outcomes").tag("gateway", "stripe").counter());
+        assertEquals(3, meterRegistry.find("payment.gateway.outcomes")
+            .tags("gateway", "unknown", "outcome", "failure").counter().count());
+        assertEquals(1, meterRegistry.find("payment.gateway.rejections").tag("gateway", "unknown").counter().count());
+    }
+    
+    @Test
+    void testSetHealthyGateways_ShouldUpdateGauge() {
+        paymentMetrics.setHealthyGateways(2);
+        
+        assertEquals(2, meterRegistry.find("payment.routing.healthy.gateways").gauge().value());
+    }
+}
\ No newline at end of file
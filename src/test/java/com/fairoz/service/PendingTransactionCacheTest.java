@@ -0,0 +1,106 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingTransactionCacheTest {
+    
+    private static final long NOW = 1_700_000_000_000L;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private PendingTransactionCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.getCallback().setCacheMaxSize(2);
+        paymentProperties.getCallback().setCacheTtlSeconds(60);
+        
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PendingTransactionCache(paymentProperties, meterRegistry);
+    }
+    
+    @Test
+    void testGet_ShouldCountHitsAndMisses() {
+        cache.put("ORD1", 1L, NOW);
+        
+        assertEquals(1L, cache.getTransactionId("ORD1", NOW + 1));
+        assertNull(cache.getTransactionId("ORD2", NOW + 1));
+        
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+    
+    @Test
+    void testGet_AfterTtl_ShouldExpire() {
+        cache.put("ORD1", 1L, NOW);
+        
+        assertNull(cache.getTransactionId("ORD1", NOW + 60_000));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+    
+    @Test
+    void testPut_OverCapacity_ShouldEvictOldest() {
+        cache.put("ORD1", 1L, NOW);
+        cache.put("ORD2", 2L, NOW + 1);
+        cache.put("ORD3", 3L, NOW + 2);
+        
+        assertEquals(2, cache.size());
+        assertNull(cache.getTransactionId("ORD1", NOW + 3));
+        assertEquals(3L, cache.getTransactionId("ORD3", NOW + 3));
+        assertEquals(1.0, meterRegistry.get("cache.evictions").tag("cause", "size").functionCounter().count());
+    }
+    
+    @Test
+    void testPut_AfterOldestExpired_ShouldEvictExpiredEntries() {
+        cache.put("ORD1", 1L, NOW);
+        cache.put("ORD2", 2L, NOW + 60_000);
+        
+        assertEquals(1, cache.size());
+        assertEquals(1.0, meterRegistry.get("cache.evictions").tag("cause", "expired").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("cache.evictions").tag("cause", "size").functionCounter().count());
+    }
+    
+    @Test
+    void testInvalidate_ShouldRemoveEntryWithoutCountingEviction() {
+        cache.put("ORD1", 1L, NOW);
+        cache.put("ORD2", 2L, NOW + 1);
+        cache.invalidate("ORD1");
+        cache.put("ORD3", 3L, NOW + 2);
+        
+        assertNull(cache.getTransactionId("ORD1", NOW + 3));
+        assertEquals(2L, cache.getTransactionId("ORD2", NOW + 3));
+        assertEquals(0, cache.getEvictions());
+    }
+    
+    @Test
+    void testInvalidate_ManyOrdersWithinTtl_ShouldKeepQueueBounded() {
+        for (int i = 0; i < 100; i++) {
+            cache.put("ORD" + i, (long) i, NOW + i);
+            cache.invalidate("ORD" + i);
+        }
+        
+        assertEquals(0, cache.size());
+        assertTrue(cache.getQueuedEntries() <= 4);
+        assertEquals(0, cache.getEvictions());
+    }
+    
+    @Test
+    void testPut_WithQueuedStaleEntriesBehindLiveOldest_ShouldKeepQueueBounded() {
+        cache.put("LIVE", 0L, NOW);
+        for (int i = 0; i < 100; i++) {
+            cache.put("ORD" + i, (long) i, NOW + i);
+            cache.invalidate("ORD" + i);
+        }
+        
+        assertTrue(cache.getQueuedEntries() <= 4);
+        assertTrue(cache.size() <= 2);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+    
+    private PaymentProperties paymentProperties;
+    
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getFailover().getRetryBudget().setRatio(0.5);
+        paymentProperties.getFailover().getRetryBudget().setMinRetriesPerSecond(1);
+        paymentProperties.getFailover().getRetryBudget().setMaxBalance(2);
+    }
+    
+    @Test
+    void testTryWithdraw_ShouldBeLimitedToEarnedRetries() {
+        RetryBudget retryBudget = new RetryBudget(paymentProperties);
+        
+        assertTrue(retryBudget.tryWithdraw(0));
+        assertFalse(retryBudget.tryWithdraw(0));
+        
+        retryBudget.recordRequest();
+        assertFalse(retryBudget.tryWithdraw(0));
+        retryBudget.recordRequest();
+        assertTrue(retryBudget.tryWithdraw(0));
+    }
+    
+    @Test
+    void testRecordRequest_ShouldCapBalanceAtMaximum() {
+        RetryBudget retryBudget = new RetryBudget(paymentProperties);
+        
+        for (int i = 0; i < 100; i++) {
+            retryBudget.recordRequest();
+        }
+        
+        assertEquals(2.0, retryBudget.getAvailableRetries());
+    }
+    
+    @Test
+    void testTryWithdraw_ShouldTopUpToMinimumEachSecond() {
+        RetryBudget retryBudget = new RetryBudget(paymentProperties);
+        assertTrue(retryBudget.tryWithdraw(0));
+        assertFalse(retryBudget.tryWithdraw(500));
+        
+        assertTrue(retryBudget.tryWithdraw(1000));
+        assertFalse(retryBudget.tryWithdraw(1500));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.fairoz.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+    
+    private static final long NOW = 1_700_000_000_000L;
+    
+    @Test
+    void testRecord_WithinWindow_ShouldCountAllResults() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 10_000L);
+        
+        counter.record(NOW, true);
+        counter.record(NOW + 15_000L, false);
+        counter.record(NOW + 30_000L, true);
+        
+        assertEquals(6, counter.getBucketCount());
+        assertEquals(2, counter.successes(NOW + 30_000L));
+        assertEquals(1, counter.failures(NOW + 30_000L));
+        assertEquals(3, counter.total(NOW + 30_000L));
+    }
+    
+    @Test
+    void testRecord_OlderThanWindow_ShouldSlideOut() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 10_000L);
+        
+        counter.record(NOW, false);
+        counter.record(NOW + 50_000L, true);
+        
+        assertEquals(1, counter.failures(NOW + 50_000L));
+        assertEquals(0, counter.failures(NOW + 70_000L));
+        assertEquals(1, counter.successes(NOW + 70_000L));
+    }
+    
+    @Test
+    void testRecord_ReusedSlot_ShouldResetStaleCounts() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 10_000L);
+        
+        counter.record(NOW, false);
+        counter.record(NOW + 60_000L, true);
+        
+        assertEquals(0, counter.failures(NOW + 60_000L));
+        assertEquals(1, counter.successes(NOW + 60_000L));
+    }
+    
+    @Test
+    void testAdd_StaleTimestampForRecycledSlot_ShouldBeIgnored() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 10_000L);
+        
+        counter.record(NOW + 60_000L, true);
+        counter.add(NOW, 0, 5);
+        
+        assertEquals(0, counter.failures(NOW + 60_000L));
+    }
+}
\ No newline at end of file
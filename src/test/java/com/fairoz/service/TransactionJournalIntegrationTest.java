@@ -0,0 +1,116 @@
+package com.fairoz.service;
+
+import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.dto.CallbackRequest;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.dto.InitiateTransactionResponse;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+import com.fairoz.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = PaymentGatewayRouterApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:journaltestdb",
+    "payment.journal.enabled=true"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class TransactionJournalIntegrationTest {
+    
+    @TempDir
+    static Path journalDirectory;
+    
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("payment.journal.directory", journalDirectory::toString);
+    }
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private TransactionJournal transactionJournal;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionProjector transactionProjector;
+    
+    private static InitiateTransactionRequest newRequest(String orderId) {
+        return new InitiateTransactionRequest(orderId, BigDecimal.valueOf(499.0),
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+    }
+    
+    @Test
+    void testInitiateAndCallback_ShouldBeProjectedIntoTransactionsTable() {
+        InitiateTransactionResponse response = transactionService.initiateTransaction(newRequest("JOURNAL1"));
+        transactionService.processCallback(
+            new CallbackRequest("JOURNAL1", "failure", response.getSelectedGateway(), "Insufficient funds"));
+        
+        transactionJournal.awaitProjection();
+        
+        Transaction projected = transactionRepository.findByOrderId("JOURNAL1").orElseThrow();
+        assertEquals(response.getTransactionId(), projected.getId());
+        assertEquals(response.getSelectedGateway(), projected.getSelectedGateway());
+        assertEquals(response.getGatewayTransactionId(), projected.getGatewayTransactionId());
+        assertEquals(TransactionStatus.FAILURE, projected.getStatus());
+        assertEquals("Insufficient funds", projected.getFailureReason());
+        assertEquals("John Doe", projected.getPaymentInstrument().getHolderName());
+        assertEquals(0, transactionJournal.getProjectionLag());
+    }
+    
+    @Test
+    void testInitiate_DuplicateOrderId_ShouldReplayJournaledTransaction() {
+        InitiateTransactionResponse first = transactionService.initiateTransaction(newRequest("JOURNAL2"));
+        InitiateTransactionResponse replay = transactionService.initiateTransaction(newRequest("JOURNAL2"));
+        
+        assertEquals(first.getTransactionId(), replay.getTransactionId());
+    }
+    
+    @Test
+    void testInitiate_ShouldNotReuseIdsOfDirectlySavedTransactions() {
+        Transaction saved = transactionRepository.save(new Transaction("DIRECT1", BigDecimal.TEN,
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe")));
+        InitiateTransactionResponse journaled = transactionService.initiateTransaction(newRequest("JOURNAL3"));
+        
+        transactionJournal.awaitProjection();
+        
+        assertNotEquals(saved.getId(), journaled.getTransactionId());
+        assertTrue(transactionRepository.existsById(journaled.getTransactionId()));
+    }
+    
+    @Test
+    void testProject_StaleStatusChange_ShouldNotOverwriteNewerStatus() {
+        Transaction committed = new Transaction("DIRECT2", BigDecimal.TEN,
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+        committed.setStatus(TransactionStatus.SUCCESS);
+        committed = transactionRepository.save(committed);
+        
+        // Decided against a PENDING read before the SUCCESS above committed, or replayed after a crash
+        Transaction stale = JournalRecord.copyOf(committed);
+        stale.setStatus(TransactionStatus.FAILURE);
+        stale.setFailureReason("Insufficient funds");
+        stale.setUpdatedAt(LocalDateTime.now());
+        transactionProjector.project(List.of(new JournalRecord(JournalRecord.Type.STATUS_CHANGED, stale)));
+        
+        Transaction projected = transactionRepository.findByOrderId("DIRECT2").orElseThrow();
+        assertEquals(TransactionStatus.SUCCESS, projected.getStatus());
+        assertNull(projected.getFailureReason());
+    }
+}
\ No newline at end of file
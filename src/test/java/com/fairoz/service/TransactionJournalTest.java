@@ -0,0 +1,208 @@
+package com.fairoz.service;
+
+import com.fairoz.config.PaymentProperties;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.model.Transaction;
+import com.fairoz.model.TransactionStatus;
+import com.fairoz.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    private PaymentProperties paymentProperties;
+    private TransactionRepository transactionRepository;
+    private final AtomicLong idBlocks = new AtomicLong();
+    private final List<TransactionJournal> journals = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getJournal().setEnabled(true);
+        paymentProperties.getJournal().setDirectory(directory.toString());
+        paymentProperties.getJournal().setSegmentSizeBytes(4096);
+        transactionRepository = mock(TransactionRepository.class);
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (TransactionJournal journal : journals) {
+            journal.stop();
+        }
+    }
+    
+    private TransactionProjector projector() {
+        TransactionProjector projector = mock(TransactionProjector.class);
+        when(projector.nextIdBlock()).thenAnswer(invocation -> idBlocks.addAndGet(50));
+        return projector;
+    }
+    
+    private TransactionJournal startJournal(TransactionProjector projector) throws IOException {
+        TransactionJournal journal = new TransactionJournal(paymentProperties, transactionRepository, projector,
+            new SimpleMeterRegistry());
+        journals.add(journal);
+        journal.start();
+        return journal;
+    }
+    
+    private static Transaction newTransaction(String orderId) {
+        Transaction transaction = new Transaction(orderId, BigDecimal.valueOf(499.0),
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+        transaction.setSelectedGateway("razorpay");
+        return transaction;
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+    
+    @Test
+    void testInitiate_ConcurrentAppends_ShouldGroupCommitAndProjectEveryRecordOnce() throws Exception {
+        TransactionProjector projector = projector();
+        List<JournalRecord> projected = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> projected.addAll(invocation.getArgument(0))).when(projector).project(anyList());
+        TransactionJournal journal = startJournal(projector);
+        
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<Transaction>> initiated = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) {
+                Transaction transaction = newTransaction("ORD" + i);
+                initiated.add(CompletableFuture.supplyAsync(() -> journal.initiate(transaction), clients));
+            }
+            CompletableFuture.allOf(initiated.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        } finally {
+            clients.shutdownNow();
+        }
+        journal.awaitProjection();
+        
+        Set<Long> ids = new HashSet<>();
+        initiated.forEach(future -> ids.add(future.join().getId()));
+        assertEquals(200, ids.size());
+        assertEquals(200, projected.size());
+        for (int i = 0; i < projected.size(); i++) {
+            assertEquals(i + 1, projected.get(i).getSequence());
+        }
+        assertEquals(0, journal.getProjectionLag());
+        // 200 records overflow many 4 KiB segments; the projected ones are deleted as the journal rolls
+        assertTrue(segments().size() <= 2);
+    }
+    
+    @Test
+    void testInitiate_ShouldReadTableOnlyForOrderIdsSeededOnStart() throws Exception {
+        TransactionProjector projector = projector();
+        doAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(0).accept("ORD-EXISTING");
+            return null;
+        }).when(projector).forEachOrderId(any());
+        when(transactionRepository.existsByOrderId("ORD-EXISTING")).thenReturn(true);
+        TransactionJournal journal = startJournal(projector);
+        
+        journal.initiate(newTransaction("ORD-NEW"));
+        assertThrows(DataIntegrityViolationException.class, () -> journal.initiate(newTransaction("ORD-EXISTING")));
+        
+        verify(transactionRepository, never()).existsByOrderId("ORD-NEW");
+    }
+    
+    @Test
+    void testFindUnprojected_ShouldServeLatestStateUntilProjected() throws Exception {
+        CountDownLatch databaseAvailable = new CountDownLatch(1);
+        TransactionProjector projector = projector();
+        doAnswer(invocation -> databaseAvailable.await(5, TimeUnit.SECONDS)).when(projector).project(anyList());
+        TransactionJournal journal = startJournal(projector);
+        
+        Transaction transaction = journal.initiate(newTransaction("ORD1"));
+        transaction.setGatewayTransactionId("RAZORPAY_1");
+        journal.recordGatewayAssignment(transaction);
+        Transaction callback = journal.findUnprojected("ORD1");
+        callback.setStatus(TransactionStatus.SUCCESS);
+        journal.recordStatusChange(callback);
+        
+        Transaction latest = journal.findUnprojected("ORD1");
+        assertEquals(TransactionStatus.SUCCESS, latest.getStatus());
+        assertEquals("RAZORPAY_1", latest.getGatewayTransactionId());
+        assertThrows(DataIntegrityViolationException.class, () -> journal.initiate(newTransaction("ORD1")));
+        
+        databaseAvailable.countDown();
+        journal.awaitProjection();
+        assertNull(journal.findUnprojected("ORD1"));
+    }
+    
+    @Test
+    void testStart_AfterCrash_ShouldReplayUnprojectedRecordsAndIgnoreTornTail() throws Exception {
+        TransactionProjector unavailable = projector();
+        doThrow(new RuntimeException("Database unavailable")).when(unavailable).project(anyList());
+        TransactionJournal crashed = startJournal(unavailable);
+        Transaction first = crashed.initiate(newTransaction("ORD1"));
+        crashed.initiate(newTransaction("ORD2"));
+        first.setStatus(TransactionStatus.FAILURE);
+        first.setFailureReason("Insufficient funds");
+        crashed.recordStatusChange(first);
+        crashed.stop();
+        journals.remove(crashed);
+        
+        // Simulate a record torn by the crash right after the last complete one
+        Path segment = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int length;
+            while ((length = buffer.getInt(buffer.position())) != 0) {
+                buffer.position(buffer.position() + 16 + length);
+            }
+            buffer.putInt(24).putInt(12345).putLong(4).put(ByteBuffer.allocate(24).putLong(-1).array());
+            buffer.force();
+        }
+        
+        TransactionProjector recovered = projector();
+        List<JournalRecord> replayed = new ArrayList<>();
+        doAnswer(invocation -> replayed.addAll(invocation.getArgument(0))).when(recovered).project(anyList());
+        TransactionJournal journal = startJournal(recovered);
+        
+        assertEquals(3, replayed.size());
+        assertEquals(JournalRecord.Type.INITIATED, replayed.get(0).getType());
+        assertEquals("ORD2", replayed.get(1).getTransaction().getOrderId());
+        assertEquals(JournalRecord.Type.STATUS_CHANGED, replayed.get(2).getType());
+        assertEquals(TransactionStatus.FAILURE, replayed.get(2).getTransaction().getStatus());
+        assertEquals("Insufficient funds", replayed.get(2).getTransaction().getFailureReason());
+        
+        journal.initiate(newTransaction("ORD3"));
+        journal.awaitProjection();
+        assertEquals(4, replayed.get(3).getSequence());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.fairoz.service;
+
+import com.fairoz.PaymentGatewayRouterApplication;
+import com.fairoz.dto.InitiateTransactionRequest;
+import com.fairoz.dto.InitiateTransactionResponse;
+import com.fairoz.model.PaymentInstrument;
+import com.fairoz.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = PaymentGatewayRouterApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:pooltestdb",
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=1000"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+class TransactionServiceConnectionPoolIntegrationTest {
+    
+    private static final int CONCURRENT_PAYMENTS = 30;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Test
+    void testInitiateTransaction_ConcurrentPaymentsBeyondPoolSize_ShouldNotExhaustPool() throws Exception {
+        transactionService.initiateTransaction(newRequest("WARMUP"));
+        
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENT_PAYMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<InitiateTransactionResponse>> responses = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < CONCURRENT_PAYMENTS; i++) {
+                InitiateTransactionRequest request = newRequest("POOL" + i);
+                responses.add(CompletableFuture.supplyAsync(() -> {
+                    awaitQuietly(start);
+                    return transactionService.initiateTransaction(request);
+                }, clients));
+            }
+            
+            start.countDown();
+            CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            clients.shutdownNow();
+        }
+        
+        for (CompletableFuture<InitiateTransactionResponse> response : responses) {
+            assertNotNull(response.join().getTransactionId());
+            assertNotNull(response.join().getGatewayTransactionId());
+        }
+        assertEquals(CONCURRENT_PAYMENTS + 1, transactionRepository.count());
+    }
+    
+    private static InitiateTransactionRequest newRequest(String orderId) {
+        return new InitiateTransactionRequest(orderId, BigDecimal.valueOf(100),
+            new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe"));
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
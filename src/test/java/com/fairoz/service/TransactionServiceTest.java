@@ -1,26 +1,35 @@
 package com.fairoz.service;
 
+import com.fairoz.config.PaymentProperties;
 import com.fairoz.dto.CallbackRequest;
 import com.fairoz.dto.InitiateTransactionRequest;
 import com.fairoz.dto.InitiateTransactionResponse;
+import com.fairoz.model.GatewayConfig;
 import com.fairoz.model.PaymentInstrument;
 import com.fairoz.model.Transaction;
 import com.fairoz.model.TransactionStatus;
 import com.fairoz.repository.TransactionRepository;
 import com.fairoz.service.PaymentGatewayService.PaymentGatewayResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,12 +48,27 @@ class TransactionServiceTest {
     private GatewayHealthService gatewayHealthService;
     
     private TransactionService transactionService;
+    private PendingTransactionCache pendingTransactionCache;
     
     @BeforeEach
     void setUp() {
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setGateways(List.of(new GatewayConfig("razorpay", 40, true)));
+        PaymentMetrics paymentMetrics = new PaymentMetrics(new SimpleMeterRegistry(), paymentProperties);
+        GatewayCallExecutor gatewayCallExecutor = new GatewayCallExecutor(
+            paymentGatewayService, new GatewayConcurrencyLimiter(paymentProperties, new SimpleMeterRegistry()), paymentMetrics, 
+            new GatewayLatencyTracker(paymentProperties), mock(GatewayHealthStateEngine.class),
+            mock(GatewayMetricsRollupService.class));
+        GatewayFailoverService gatewayFailoverService = new GatewayFailoverService(
+            gatewayCallExecutor, gatewayRoutingService, new RetryBudget(paymentProperties), paymentMetrics, paymentProperties, mock(ApplicationEventPublisher.class));
+        pendingTransactionCache = new PendingTransactionCache(paymentProperties, new SimpleMeterRegistry());
+        
         transactionService = new TransactionService(
             transactionRepository, gatewayRoutingService, 
-            paymentGatewayService, gatewayHealthService
+            gatewayFailoverService, gatewayHealthService, pendingTransactionCache,
+            new TransactionJournal(paymentProperties, transactionRepository, mock(TransactionProjector.class), 
+                new SimpleMeterRegistry()),
+            new OrderLockStripes(paymentProperties), paymentMetrics
         );
     }
     
@@ -58,7 +82,6 @@ class TransactionServiceTest {
         savedTransaction.setSelectedGateway("razorpay");
         savedTransaction.setCreatedAt(LocalDateTime.now());
         
-        when(transactionRepository.existsByOrderId("ORD123")).thenReturn(false);
         when(gatewayRoutingService.selectGateway()).thenReturn("razorpay");
         when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
         when(paymentGatewayService.processPayment(anyString(), anyString(), anyDouble(), any()))
@@ -72,36 +95,111 @@ class TransactionServiceTest {
         assertEquals("razorpay", response.getSelectedGateway());
         assertEquals(TransactionStatus.PENDING, response.getStatus());
         
-        verify(transactionRepository, times(2)).save(any(Transaction.class));
+        assertEquals("RAZORPAY_12345", response.getGatewayTransactionId());
+        
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository).updateGatewayAssignment(eq(1L), eq("razorpay"), eq("RAZORPAY_12345"), any(LocalDateTime.class));
+        verify(transactionRepository, never()).updateGatewayTransactionId(anyLong(), anyString(), any());
     }
     
     @Test
-    void testInitiateTransaction_DuplicateOrderId_ShouldThrowException() {
+    void testInitiateTransaction_FailedOver_ShouldReassignGateway() {
         PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
         InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
         
-        when(transactionRepository.existsByOrderId("ORD123")).thenReturn(true);
+        Transaction savedTransaction = new Transaction("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        savedTransaction.setId(1L);
+        savedTransaction.setSelectedGateway("razorpay");
+        savedTransaction.setCreatedAt(LocalDateTime.now());
+        
+        when(gatewayRoutingService.selectGateway()).thenReturn("razorpay");
+        when(gatewayRoutingService.getRoutingSnapshot()).thenReturn(RoutingSnapshot.build(1,
+            List.of(new GatewayConfig("razorpay", 40, true), new GatewayConfig("payu", 35, true)),
+            Set.of(), new AliasTableGatewaySelector()));
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
+        when(paymentGatewayService.processPayment(eq("razorpay"), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse(null, false, "Gateway timeout"));
+        when(paymentGatewayService.processPayment(eq("payu"), anyString(), anyDouble(), any()))
+            .thenReturn(new PaymentGatewayResponse("PAYU_12345", true, null));
+        
+        InitiateTransactionResponse response = transactionService.initiateTransaction(request);
+        
+        assertEquals("payu", response.getSelectedGateway());
+        assertEquals("PAYU_12345", response.getGatewayTransactionId());
+        verify(transactionRepository).updateGatewayAssignment(eq(1L), eq("payu"), eq("PAYU_12345"), any(LocalDateTime.class));
+        verify(transactionRepository, never()).updateGatewayTransactionId(anyLong(), anyString(), any());
+    }
+    
+    @Test
+    void testInitiateTransaction_DuplicateOrderIdWithDifferentAmount_ShouldThrowException() {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        
+        Transaction existing = new Transaction("ORD123", BigDecimal.valueOf(199.0), paymentInstrument);
+        
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate order_id"));
+        when(transactionRepository.findByOrderId("ORD123")).thenReturn(Optional.of(existing));
         
         assertThrows(IllegalArgumentException.class, () -> transactionService.initiateTransaction(request));
         
-        verify(transactionRepository, never()).save(any(Transaction.class));
         verify(gatewayRoutingService, never()).selectGateway();
+        verifyNoInteractions(paymentGatewayService);
+    }
+    
+    @Test
+    void testInitiateTransaction_Replay_ShouldReturnOriginalTransaction() {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        
+        Transaction existing = new Transaction("ORD123", new BigDecimal("499.00"), paymentInstrument);
+        existing.setId(7L);
+        existing.setSelectedGateway("payu");
+        existing.setGatewayTransactionId("PAYU_12345");
+        
+        when(transactionRepository.save(any(Transaction.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate order_id"));
+        when(transactionRepository.findByOrderId("ORD123")).thenReturn(Optional.of(existing));
+        
+        InitiateTransactionResponse response = transactionService.initiateTransaction(request);
+        
+        assertEquals(7L, response.getTransactionId());
+        assertEquals("payu", response.getSelectedGateway());
+        assertEquals("PAYU_12345", response.getGatewayTransactionId());
+        verify(gatewayRoutingService, never()).selectGateway();
+        verifyNoInteractions(paymentGatewayService);
+    }
+    
+    @Test
+    void testInitiateTransaction_NoGatewayAvailable_ShouldFailInsertedTransaction() {
+        PaymentInstrument paymentInstrument = new PaymentInstrument("card", "****1234", "12/25", "123", "John Doe");
+        InitiateTransactionRequest request = new InitiateTransactionRequest("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        
+        Transaction savedTransaction = new Transaction("ORD123", BigDecimal.valueOf(499.0), paymentInstrument);
+        savedTransaction.setId(1L);
+        
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
+        when(gatewayRoutingService.selectGateway()).thenThrow(new RuntimeException("No healthy gateways available"));
+        
+        assertThrows(RuntimeException.class, () -> transactionService.initiateTransaction(request));
+        
+        verify(transactionRepository).transitionStatusById(eq(1L), eq(TransactionStatus.FAILURE),
+            eq(TransactionStatus.sourcesOf(TransactionStatus.FAILURE)), eq("No healthy gateways available"), any(LocalDateTime.class));
+        verifyNoInteractions(paymentGatewayService);
     }
     
     @Test
     void testProcessCallback_Success() {
         CallbackRequest callbackRequest = new CallbackRequest("ORD123", "success", "razorpay", null);
         
-        Transaction transaction = new Transaction("ORD123", BigDecimal.valueOf(499.0), new PaymentInstrument());
-        transaction.setSelectedGateway("razorpay");
-        transaction.setStatus(TransactionStatus.PENDING);
-        
-        when(transactionRepository.findByOrderId("ORD123")).thenReturn(Optional.of(transaction));
+        when(transactionRepository.transitionStatus(eq("ORD123"), eq(TransactionStatus.SUCCESS), 
+            eq(Set.of(TransactionStatus.PENDING, TransactionStatus.FAILURE)), isNull(), any(LocalDateTime.class)))
+            .thenReturn(1);
         
         transactionService.processCallback(callbackRequest);
         
-        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
-        verify(transactionRepository).save(transaction);
+        verify(transactionRepository, never()).findByOrderId(anyString());
+        verify(transactionRepository, never()).save(any(Transaction.class));
         verify(gatewayHealthService).recordTransactionResult("razorpay", true);
     }
     
@@ -109,28 +207,87 @@ class TransactionServiceTest {
     void testProcessCallback_Failure() {
         CallbackRequest callbackRequest = new CallbackRequest("ORD123", "failure", "razorpay", "Insufficient funds");
         
-        Transaction transaction = new Transaction("ORD123", BigDecimal.valueOf(499.0), new PaymentInstrument());
-        transaction.setSelectedGateway("razorpay");
-        transaction.setStatus(TransactionStatus.PENDING);
+        when(transactionRepository.transitionStatus(eq("ORD123"), eq(TransactionStatus.FAILURE), 
+            eq(Set.of(TransactionStatus.PENDING)), eq("Insufficient funds"), any(LocalDateTime.class)))
+            .thenReturn(1);
         
-        when(transactionRepository.findByOrderId("ORD123")).thenReturn(Optional.of(transaction));
+        transactionService.processCallback(callbackRequest);
+        
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(gatewayHealthService).recordTransactionResult("razorpay", false);
+    }
+    
+    @Test
+    void testProcessCallback_RecentlyInitiated_ShouldUpdateById() {
+        pendingTransactionCache.put("ORD123", 1L);
+        CallbackRequest callbackRequest = new CallbackRequest("ORD123", "failure", "razorpay", "Insufficient funds");
+        
+        when(transactionRepository.transitionStatusById(eq(1L), eq(TransactionStatus.FAILURE), 
+            eq(Set.of(TransactionStatus.PENDING)), eq("Insufficient funds"), any(LocalDateTime.class)))
+            .thenReturn(1);
         
         transactionService.processCallback(callbackRequest);
         
-        assertEquals(TransactionStatus.FAILURE, transaction.getStatus());
-        assertEquals("Insufficient funds", transaction.getFailureReason());
-        verify(transactionRepository).save(transaction);
+        verify(transactionRepository, never()).transitionStatus(anyString(), any(), any(), any(), any());
         verify(gatewayHealthService).recordTransactionResult("razorpay", false);
+        assertNull(pendingTransactionCache.getTransactionId("ORD123"));
+    }
+    
+    @Test
+    void testProcessCallback_LateFailureAfterSuccess_ShouldNotApply() {
+        pendingTransactionCache.put("ORD123", 1L);
+        CallbackRequest callbackRequest = new CallbackRequest("ORD123", "failure", "razorpay", "Timeout");
+        
+        when(transactionRepository.transitionStatusById(eq(1L), eq(TransactionStatus.FAILURE), 
+            eq(Set.of(TransactionStatus.PENDING)), eq("Timeout"), any(LocalDateTime.class)))
+            .thenReturn(0);
+        
+        transactionService.processCallback(callbackRequest);
+        
+        verify(transactionRepository, never()).existsByOrderId(anyString());
+        verify(gatewayHealthService, never()).recordTransactionResult(anyString(), anyBoolean());
+    }
+    
+    @Test
+    void testProcessCallback_Duplicate_ShouldNotRecordHealthAgain() {
+        CallbackRequest callbackRequest = new CallbackRequest("ORD123", "success", "razorpay", null);
+        
+        when(transactionRepository.transitionStatus(eq("ORD123"), eq(TransactionStatus.SUCCESS), any(), isNull(), 
+            any(LocalDateTime.class))).thenReturn(0);
+        when(transactionRepository.existsByOrderId("ORD123")).thenReturn(true);
+        
+        transactionService.processCallback(callbackRequest);
+        
+        verify(gatewayHealthService, never()).recordTransactionResult(anyString(), anyBoolean());
     }
     
     @Test
     void testProcessCallback_TransactionNotFound_ShouldThrowException() {
         CallbackRequest callbackRequest = new CallbackRequest("ORD999", "success", "razorpay", null);
         
-        when(transactionRepository.findByOrderId("ORD999")).thenReturn(Optional.empty());
+        when(transactionRepository.transitionStatus(eq("ORD999"), eq(TransactionStatus.SUCCESS), any(), isNull(), 
+            any(LocalDateTime.class))).thenReturn(0);
+        when(transactionRepository.existsByOrderId("ORD999")).thenReturn(false);
         
         assertThrows(IllegalArgumentException.class, () -> transactionService.processCallback(callbackRequest));
         
         verify(gatewayHealthService, never()).recordTransactionResult(anyString(), anyBoolean());
     }
+    
+    @Test
+    void testApplyCallback_ShouldFollowStatusTransitions() {
+        Transaction transaction = new Transaction("ORD123", BigDecimal.valueOf(499.0), new PaymentInstrument());
+        
+        assertTrue(TransactionService.applyCallback(transaction, 
+            new CallbackRequest("ORD123", "failure", "razorpay", "Insufficient funds")));
+        assertEquals("Insufficient funds", transaction.getFailureReason());
+        assertFalse(TransactionService.applyCallback(transaction, 
+            new CallbackRequest("ORD123", "failure", "razorpay", "Timeout")));
+        assertTrue(TransactionService.applyCallback(transaction, 
+            new CallbackRequest("ORD123", "success", "razorpay", null)));
+        assertNull(transaction.getFailureReason());
+        assertFalse(TransactionService.applyCallback(transaction, 
+            new CallbackRequest("ORD123", "failure", "razorpay", "Timeout")));
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+    }
 }
\ No newline at end of file